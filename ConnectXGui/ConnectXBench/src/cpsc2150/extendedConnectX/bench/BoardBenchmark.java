@@ -0,0 +1,211 @@
+package cpsc2150.extendedConnectX.bench;
+
+import cpsc2150.extendedConnectX.models.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This class holds the JMH benchmarks for the {@link IGameBoard} implementations. Every benchmark runs for
+ * every combination of implementation, board setup and fill ratio, so the cost of each
+ * model can be compared at the {@code BOARD_CUTOFF} that {@link cpsc2150.extendedConnectX.controllers.SetupController}
+ * uses to choose between them.
+ * <p>
+ * A new implementation is benchmarked by adding its name to {@code impl} and a case to {@link #create}.
+ *
+ * @version 2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    /**
+     * <p>
+     * The tokens used to fill the board
+     * </p>
+     */
+    private static final char[] TOKENS = {'X', 'O'};
+
+    @Param({"GameBoard", "GameBoardMem", "GameBoardBit", "GameBoardRun", "GameBoardCow"})
+    public String impl;
+
+    // rows x cols / numToWin; a 3x3 board can't take 5 to win, so it only runs with 3
+    @Param({"3x3/3", "6x7/3", "6x7/5", "10x10/3", "10x10/5", "20x20/3", "20x20/5"})
+    public String setup;
+
+    @Param({"0.0", "0.5", "0.9"})
+    public double fill;
+
+    /**
+     * <p>
+     * The board size and number to win of the current trial
+     * </p>
+     */
+    private int rows;
+    private int cols;
+    private int toWin;
+
+    /**
+     * <p>
+     * A board filled to the current fill ratio, used by the read-only benchmarks
+     * </p>
+     */
+    private IGameBoard board;
+
+    /**
+     * <p>
+     * This builds the board for one trial.
+     * </p>
+     *
+     * @post [ board holds about fill * rows * cols tokens from a fixed random sequence of moves ]
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] dims = setup.split("[x/]");
+        rows = Integer.parseInt(dims[0]);
+        cols = Integer.parseInt(dims[1]);
+        toWin = Integer.parseInt(dims[2]);
+        board = create(impl, rows, cols, toWin);
+        Random rnd = new Random(2150);
+        int tokens = (int) (fill * rows * cols);
+        for (int i = 0; i < tokens; i++) {
+            int c = rnd.nextInt(cols);
+            while (!board.checkIfFree(c)) {
+                c = (c + 1) % cols;
+            }
+            board.placeToken(TOKENS[i % TOKENS.length], c);
+        }
+    }
+
+    /**
+     * <p>
+     * This fills an empty board completely, one column after another in round-robin order.
+     * </p>
+     *
+     * @return the filled board
+     */
+    @Benchmark
+    public IGameBoard placeToken() {
+        IGameBoard b = create(impl, rows, cols, toWin);
+        int n = rows * cols;
+        for (int i = 0; i < n; i++) {
+            b.placeToken(TOKENS[i % TOKENS.length], i % cols);
+        }
+        return b;
+    }
+
+    /**
+     * <p>
+     * This reads every cell of the board.
+     * </p>
+     *
+     * @param bh
+     *      Consumes the results so they can't be optimized away
+     */
+    @Benchmark
+    public void whatsAtPos(Blackhole bh) {
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                bh.consume(board.whatsAtPos(r, c));
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This checks for a win at the top of every column that has a token.
+     * </p>
+     *
+     * @param bh
+     *      Consumes the results so they can't be optimized away
+     */
+    @Benchmark
+    public void checkForWin(Blackhole bh) {
+        for (int c = 0; c < cols; c++) {
+            if (board.getColumnHeight(c) > 0) {
+                bh.consume(board.checkForWin(c));
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This checks the board for a tie.
+     * </p>
+     *
+     * @return whether the board is tied
+     */
+    @Benchmark
+    public boolean checkTie() {
+        return board.checkTie();
+    }
+
+    /**
+     * <p>
+     * This copies the board and plays one move on the copy, as a rollout would before it goes on.
+     * </p>
+     *
+     * @return the changed copy
+     */
+    @Benchmark
+    public IGameBoard copy() {
+        IGameBoard b = board.copy();
+        for (int c = 0; c < cols; c++) {
+            if (b.checkIfFree(c)) {
+                b.placeToken(TOKENS[0], c);
+                break;
+            }
+        }
+        return b;
+    }
+
+    /**
+     * <p>
+     * This builds the text form of the board from {@link AbsGameBoard#toString()}.
+     * </p>
+     *
+     * @return the text form of the board
+     */
+    @Benchmark
+    public String boardToString() {
+        return board.toString();
+    }
+
+    /**
+     * <p>
+     * This creates an empty board of the named implementation.
+     * </p>
+     *
+     * @param impl
+     *      The simple class name of the implementation
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param numToWin
+     *      Number of tokens in a row required to win
+     * @return the new board
+     * @throws IllegalArgumentException if impl is not a known implementation
+     */
+    static IGameBoard create(String impl, int rows, int cols, int numToWin) {
+        switch (impl) {
+            case "GameBoard":
+                return new GameBoard(rows, cols, numToWin);
+            case "GameBoardMem":
+                return new GameBoardMem(rows, cols, numToWin);
+            case "GameBoardBit":
+                return new GameBoardBit(rows, cols, numToWin);
+            case "GameBoardRun":
+                return new GameBoardRun(rows, cols, numToWin);
+            case "GameBoardCow":
+                return new GameBoardCow(rows, cols, numToWin);
+            default:
+                throw new IllegalArgumentException("Unknown board implementation " + impl);
+        }
+    }
+}
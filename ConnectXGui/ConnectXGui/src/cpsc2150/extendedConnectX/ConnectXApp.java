@@ -1,10 +1,14 @@
 package cpsc2150.extendedConnectX;
 
 import cpsc2150.extendedConnectX.controllers.*;
+import cpsc2150.extendedConnectX.records.*;
 import cpsc2150.extendedConnectX.views.*;
+import java.io.IOException;
+import java.util.Map;
 
 /**
- * This class is the entry point of our program and just loads the set-up screen and controller
+ * This class is the entry point of our program and just loads the set-up screen and controller, or resumes
+ * the games that were still being played when the program last stopped
  *
  * @version 2.0
  */
@@ -19,8 +23,45 @@ public class ConnectXApp {
      *            Command-line arguments (there shouldn't be any).
      */
     public static void main(String[] args) {
+        MoveJournal journal = MoveJournal.find();
+        if (journal != null && resume(journal)) {
+            return;
+        }
         SetupView screen = new SetupView();
         SetupController controller = new SetupController(screen);
         screen.registerObserver(controller);
     }
-}
\ No newline at end of file
+
+    /**
+     * <p>
+     * This opens a game screen for every game that is open in the journal, replaying its moves into a new
+     * board.
+     * </p>
+     *
+     * @param journal
+     *      The journal of the games in progress
+     * @return true if any game was resumed
+     */
+    private static boolean resume(MoveJournal journal) {
+        boolean resumed = false;
+        for (Map.Entry<Long, GameRecord> e : journal.getOpenGames().entrySet()) {
+            GameRecord record = e.getValue();
+            GameSession session = record.resume(SetupController.newBoard(record.getNumRows(),
+                    record.getNumColumns(), record.getNumToWin()));
+            if (session.isOver()) {
+                // the crash came between the last move and the end of the game
+                try {
+                    journal.end(e.getKey());
+                } catch (IOException ex) {
+                    // it is ended again on the next start
+                }
+                continue;
+            }
+            resumed = true;
+            ConnectXView screen = new ConnectXView(record.getNumRows(), record.getNumColumns());
+            ConnectXController controller = new ConnectXController(session, screen, journal, e.getKey());
+            screen.registerObserver(controller);
+        }
+        return resumed;
+    }
+}
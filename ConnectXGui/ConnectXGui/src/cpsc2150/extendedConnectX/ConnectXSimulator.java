@@ -0,0 +1,642 @@
+package cpsc2150.extendedConnectX;
+
+import cpsc2150.extendedConnectX.ai.*;
+import cpsc2150.extendedConnectX.controllers.*;
+import cpsc2150.extendedConnectX.models.*;
+import cpsc2150.extendedConnectX.records.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * This class is the entry point for bulk self-play. It plays many complete games of one configuration with
+ * no user interface, spread over every core, and reports how fast they ran and how they ended.
+ * <p>
+ * Each game runs through a {@link GameSession} on a board of the chosen {@link IGameBoard} implementation,
+ * so the simulator plays by exactly the rules the real game does. Every seat is played by an engine given
+ * on the command line:
+ * <ul>
+ *     <li>{@code random}: a {@link RandomEngine}</li>
+ *     <li>{@code negamax:depth[:millis]}: a {@link NegamaxEngine} searching on the game's own thread</li>
+ *     <li>{@code mcts:iterations[:millis]}: a single-threaded {@link MctsEngine}</li>
+ * </ul>
+ * The engines are handed out to the seats in order, starting one seat further along in each game, so every
+ * engine plays every seat equally often. The random engines of game g are seeded from g, so a run of random
+ * games plays the same games every time, whatever the number of threads.
+ * <p>
+ * When the RECORDS_PROPERTY system property names a file, every game is also appended to that archive as a
+ * {@link GameRecord}, which is how bulk training data is made.
+ *
+ * @version 2.0
+ */
+public class ConnectXSimulator {
+
+    /**
+     * <p>
+     * Constant for the board implementation used when none is given on the command line
+     * </p>
+     */
+    public static final String DEFAULT_BOARD = "GameBoard";
+
+    /**
+     * <p>
+     * The system property naming the archive every game is written to
+     * </p>
+     */
+    public static final String RECORDS_PROPERTY = "connectx.records";
+
+    /**
+     * <p>
+     * The configuration of every game and the engine of each seat
+     * </p>
+     */
+    private final int rows;
+    private final int cols;
+    private final int numToWin;
+    private final int players;
+    private final String board;
+    private final String[] engines;
+
+    /**
+     * <p>
+     * The results of every game played so far
+     * </p>
+     */
+    private final Stats total;
+
+    /**
+     * <p>
+     * The archive every finished game is written to, or null to keep no records
+     * </p>
+     */
+    private GameRecordWriter archive;
+
+    /**
+     * <p>
+     * This method is the main entry point for the simulator.
+     * </p>
+     *
+     * @param args
+     *            Command-line arguments: rows, columns, number to win, number of players, number of games,
+     *            then optionally the board implementation and the engine of each seat (random by default).
+     * @throws IOException if the archive named by RECORDS_PROPERTY cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 5) {
+            System.out.println("usage: ConnectXSimulator rows cols numToWin players games [board] [engine ...]");
+            System.out.println("  board:  GameBoard, GameBoardMem, GameBoardBit, GameBoardRun or GameBoardCow");
+            System.out.println("  engine: random, negamax:depth[:millis] or mcts:iterations[:millis]");
+            return;
+        }
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        int numToWin = Integer.parseInt(args[2]);
+        int players = Integer.parseInt(args[3]);
+        int games = Integer.parseInt(args[4]);
+        String board = args.length > 5 ? args[5] : DEFAULT_BOARD;
+        String[] engines = args.length > 6 ? Arrays.copyOfRange(args, 6, args.length) : new String[] {"random"};
+        String errorMsg = SetupController.validate(rows, cols, numToWin, players);
+        if (!errorMsg.equals("")) {
+            System.out.println(errorMsg);
+            return;
+        }
+
+        ConnectXSimulator sim = new ConnectXSimulator(rows, cols, numToWin, players, board, engines);
+        // builds one board and every engine once so that a bad name fails before any game starts
+        try {
+            newBoard(board, rows, cols, numToWin);
+            for (String spec : engines) {
+                newEngine(spec, 0);
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        String records = System.getProperty(RECORDS_PROPERTY);
+        if (records != null) {
+            sim.setArchive(new GameRecordWriter(Paths.get(records)));
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        try {
+            sim.run(games, threads);
+        } finally {
+            if (sim.archive != null) {
+                sim.archive.close();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sim.report(seconds, threads);
+        if (records != null) {
+            System.out.println("wrote " + sim.archive.getCount() + " game records to " + records);
+        }
+    }
+
+    /**
+     * <p>
+     * This creates a simulator for one configuration.
+     * </p>
+     *
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param numToWin
+     *      Number of tokens in a row required to win
+     * @param players
+     *      Number of players in each game
+     * @param board
+     *      The simple class name of the board implementation
+     * @param engines
+     *      The engines handed out to the seats, in order
+     *
+     * @pre 2 <= players <= GameSession.MAX_PLAYERS and engines.length > 0
+     */
+    public ConnectXSimulator(int rows, int cols, int numToWin, int players, String board, String[] engines) {
+        this.rows = rows;
+        this.cols = cols;
+        this.numToWin = numToWin;
+        this.players = players;
+        this.board = board;
+        this.engines = engines.clone();
+        this.total = new Stats(players, engines.length);
+    }
+
+    /**
+     * <p>
+     * This sets the archive every game played from now on is written to.
+     * </p>
+     *
+     * @param archive
+     *      The archive, or null to keep no records
+     */
+    public void setArchive(GameRecordWriter archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * <p>
+     * This plays games on a pool of threads, each thread taking the next game until all have been played.
+     * </p>
+     *
+     * @param games
+     *      How many games to play
+     * @param threads
+     *      How many games to play at the same time
+     * @return the results of every game this simulator has played
+     *
+     * @pre games >= 0 and threads >= 1
+     */
+    public Stats run(int games, int threads) {
+        AtomicInteger next = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> IntStream.range(0, threads).parallel().forEach(t -> {
+                // each thread keeps its own results and engines, and adds the results in once at the end
+                Stats mine = new Stats(players, engines.length);
+                IEngine[][] built = new IEngine[players][engines.length];
+                for (int g = next.getAndIncrement(); g < games; g = next.getAndIncrement()) {
+                    play(g, mine, built);
+                }
+                synchronized (total) {
+                    total.add(mine);
+                }
+            })).join();
+        } finally {
+            pool.shutdown();
+        }
+        return total;
+    }
+
+    /**
+     * <p>
+     * This plays one game to the end.
+     * </p>
+     *
+     * @param g
+     *      The number of the game, which picks the seat of each engine and seeds the random engines
+     * @param stats
+     *      The results to add the game to
+     * @param built
+     *      The calling thread's engines by seat and engine name, null until a game first needs one
+     */
+    private void play(int g, Stats stats, IEngine[][] built) {
+        GameSession session = new GameSession(newBoard(board, rows, cols, numToWin), players);
+        char[] tokens = session.getPlayers();
+        IEngine[] seats = new IEngine[players];
+        int[] spec = new int[players];
+        for (int i = 0; i < players; i++) {
+            spec[i] = (i + g) % engines.length;
+            long seed = (long) g * GameSession.MAX_PLAYERS + i;
+            if (built[i][spec[i]] == null) {
+                built[i][spec[i]] = newEngine(engines[spec[i]], seed);
+            } else {
+                built[i][spec[i]].newGame(seed);
+            }
+            seats[i] = built[i][spec[i]];
+        }
+        int moves = 0;
+        while (!session.isOver()) {
+            int seat = session.getCurrentPlayerIndex();
+            long start = System.nanoTime();
+            int col = seats[seat].selectColumn(session.getBoard(), tokens, seat);
+            session.play(col);
+            stats.latency.record(System.nanoTime() - start);
+            moves++;
+        }
+        int winner = -1;
+        for (int i = 0; i < players; i++) {
+            if (tokens[i] == session.getWinner()) {
+                winner = i;
+            }
+        }
+        stats.addGame(moves, winner, winner < 0 ? -1 : spec[winner]);
+        if (archive != null) {
+            try {
+                archive.write(GameRecord.of(session));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This prints the speed and the results of the games played.
+     * </p>
+     *
+     * @param seconds
+     *      How long the games took
+     * @param threads
+     *      How many threads played them
+     */
+    private void report(double seconds, int threads) {
+        Stats s = total;
+        System.out.printf("%d games of %s %dx%d, %d to win, %d players on %d threads in %.3f s%n",
+                s.games, board, rows, cols, numToWin, players, threads, seconds);
+        System.out.printf("games/sec %.1f  moves/sec %.1f  moves/game %.1f (min %d, max %d)%n",
+                s.games / seconds, s.moves / seconds, s.games == 0 ? 0.0 : (double) s.moves / s.games,
+                s.games == 0 ? 0 : s.minMoves, s.maxMoves);
+        StringBuilder seats = new StringBuilder("wins by seat:");
+        for (int i = 0; i < players; i++) {
+            seats.append(String.format("  %c %d (%.1f%%)", GameSession.getToken(i), s.seatWins[i],
+                    percent(s.seatWins[i], s.games)));
+        }
+        seats.append(String.format("  ties %d (%.1f%%)", s.ties, percent(s.ties, s.games)));
+        System.out.println(seats);
+        if (engines.length > 1) {
+            StringBuilder byEngine = new StringBuilder("wins by engine:");
+            for (int i = 0; i < engines.length; i++) {
+                byEngine.append(String.format("  %s %d (%.1f%%)", engines[i], s.engineWins[i],
+                        percent(s.engineWins[i], s.games)));
+            }
+            System.out.println(byEngine);
+        }
+        LatencyHistogram h = s.latency;
+        System.out.printf("move latency us: p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+                h.percentile(50) / 1e3, h.percentile(90) / 1e3, h.percentile(99) / 1e3,
+                h.percentile(99.9) / 1e3, h.getMax() / 1e3);
+    }
+
+    /**
+     * <p>
+     * This returns a count as a percentage of a total.
+     * </p>
+     *
+     * @param count
+     *      The count
+     * @param of
+     *      The total
+     * @return 100 * count / of, or 0 if the total is 0
+     */
+    private static double percent(long count, long of) {
+        return of == 0 ? 0 : 100.0 * count / of;
+    }
+
+    /**
+     * <p>
+     * This creates an empty board of the named implementation.
+     * </p>
+     *
+     * @param impl
+     *      The simple class name of the implementation
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param numToWin
+     *      Number of tokens in a row required to win
+     * @return the new board
+     * @throws IllegalArgumentException if impl is not a known implementation
+     */
+    static IGameBoard newBoard(String impl, int rows, int cols, int numToWin) {
+        switch (impl) {
+            case "GameBoard":
+                return new GameBoard(rows, cols, numToWin);
+            case "GameBoardMem":
+                return new GameBoardMem(rows, cols, numToWin);
+            case "GameBoardBit":
+                return new GameBoardBit(rows, cols, numToWin);
+            case "GameBoardRun":
+                return new GameBoardRun(rows, cols, numToWin);
+            case "GameBoardCow":
+                return new GameBoardCow(rows, cols, numToWin);
+            default:
+                throw new IllegalArgumentException("Unknown board implementation " + impl);
+        }
+    }
+
+    /**
+     * <p>
+     * This creates the engine an engine name describes. Searching engines run on the calling thread only,
+     * since the simulator already keeps every core busy with games.
+     * </p>
+     *
+     * @param spec
+     *      random, negamax:depth[:millis] or mcts:iterations[:millis]
+     * @param seed
+     *      The seed for a random engine
+     * @return the new engine
+     * @throws IllegalArgumentException if spec is not a known engine
+     */
+    static IEngine newEngine(String spec, long seed) {
+        String[] parts = spec.split(":");
+        long millis = parts.length > 2 ? Long.parseLong(parts[2]) : 0;
+        switch (parts[0]) {
+            case "random":
+                return new RandomEngine(seed);
+            case "negamax":
+                int depth = parts.length > 1 ? Integer.parseInt(parts[1]) : NegamaxEngine.DEFAULT_DEPTH;
+                return new NegamaxEngine(depth, millis, new TranspositionTable(), false, new HeuristicMoveOrderer());
+            case "mcts":
+                int iterations = parts.length > 1 ? Integer.parseInt(parts[1]) : MctsEngine.DEFAULT_ITERATIONS;
+                return new MctsEngine(iterations, millis, 1, true);
+            default:
+                throw new IllegalArgumentException("Unknown engine " + spec);
+        }
+    }
+
+    /**
+     * This class holds the results of a batch of games.
+     *
+     * @version 2.0
+     */
+    public static class Stats {
+
+        /**
+         * <p>
+         * The games and moves played, and the shortest and longest game in moves
+         * </p>
+         */
+        private long games;
+        private long moves;
+        private int minMoves = Integer.MAX_VALUE;
+        private int maxMoves;
+
+        /**
+         * <p>
+         * The wins of each seat and of each engine, and the games nobody won
+         * </p>
+         */
+        private final long[] seatWins;
+        private final long[] engineWins;
+        private long ties;
+
+        /**
+         * <p>
+         * How long each move took, from asking the engine to the move being on the board
+         * </p>
+         */
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        /**
+         * <p>
+         * This creates empty results.
+         * </p>
+         *
+         * @param players
+         *      Number of seats
+         * @param engines
+         *      Number of engines
+         */
+        Stats(int players, int engines) {
+            seatWins = new long[players];
+            engineWins = new long[engines];
+        }
+
+        /**
+         * <p>
+         * This adds one finished game.
+         * </p>
+         *
+         * @param length
+         *      The moves the game took
+         * @param seat
+         *      The seat that won, or -1 for a tie
+         * @param engine
+         *      The engine that won, or -1 for a tie
+         */
+        void addGame(int length, int seat, int engine) {
+            games++;
+            moves += length;
+            minMoves = Math.min(minMoves, length);
+            maxMoves = Math.max(maxMoves, length);
+            if (seat < 0) {
+                ties++;
+            } else {
+                seatWins[seat]++;
+                engineWins[engine]++;
+            }
+        }
+
+        /**
+         * <p>
+         * This adds another batch of results to these.
+         * </p>
+         *
+         * @param other
+         *      Results for the same configuration
+         */
+        void add(Stats other) {
+            games += other.games;
+            moves += other.moves;
+            minMoves = Math.min(minMoves, other.minMoves);
+            maxMoves = Math.max(maxMoves, other.maxMoves);
+            for (int i = 0; i < seatWins.length; i++) {
+                seatWins[i] += other.seatWins[i];
+            }
+            for (int i = 0; i < engineWins.length; i++) {
+                engineWins[i] += other.engineWins[i];
+            }
+            ties += other.ties;
+            latency.add(other.latency);
+        }
+
+        /**
+         * @return the number of games played
+         */
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * @return the number of moves played in every game
+         */
+        public long getMoves() {
+            return moves;
+        }
+
+        /**
+         * @param seat
+         *      The index of a seat in turn order
+         * @return the games that seat won
+         */
+        public long getSeatWins(int seat) {
+            return seatWins[seat];
+        }
+
+        /**
+         * @return the games nobody won
+         */
+        public long getTies() {
+            return ties;
+        }
+
+        /**
+         * @return how long the moves took
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+    }
+
+    /**
+     * This class counts durations in buckets whose width grows with the duration, so percentiles of any
+     * number of moves can be reported to within about 6% in a fixed amount of memory.
+     * <p>
+     * Durations under 16 ns have a bucket each. Above that, every power of two is split into 16 buckets.
+     *
+     * @version 2.0
+     */
+    public static class LatencyHistogram {
+
+        /**
+         * <p>
+         * Constant for how many bits below the top bit pick the bucket within a power of two
+         * </p>
+         */
+        private static final int SUB_BITS = 4;
+
+        /**
+         * <p>
+         * The number of durations in each bucket, how many there are in total, and the longest
+         * </p>
+         */
+        private final long[] counts = new long[(64 - SUB_BITS) << SUB_BITS];
+        private long count;
+        private long max;
+
+        /**
+         * <p>
+         * This counts one duration.
+         * </p>
+         *
+         * @param nanos
+         *      The duration in nanoseconds
+         *
+         * @pre nanos >= 0
+         */
+        public void record(long nanos) {
+            counts[bucket(nanos)]++;
+            count++;
+            max = Math.max(max, nanos);
+        }
+
+        /**
+         * <p>
+         * This adds every duration counted by another histogram.
+         * </p>
+         *
+         * @param other
+         *      The histogram to add
+         */
+        public void add(LatencyHistogram other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            count += other.count;
+            max = Math.max(max, other.max);
+        }
+
+        /**
+         * <p>
+         * This finds the duration that a given percentage of the durations are at or under.
+         * </p>
+         *
+         * @param p
+         *      The percentage, from 0 to 100
+         * @return the upper end of the bucket holding that duration, in nanoseconds, or 0 if nothing was
+         * counted
+         */
+        public long percentile(double p) {
+            long rank = (long) Math.ceil(p / 100 * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return the longest duration counted, in nanoseconds
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * <p>
+         * This finds the bucket of a duration.
+         * </p>
+         *
+         * @param nanos
+         *      The duration in nanoseconds
+         * @return the index of its bucket
+         */
+        private static int bucket(long nanos) {
+            if (nanos < 1 << SUB_BITS) {
+                return (int) nanos;
+            }
+            int top = 63 - Long.numberOfLeadingZeros(nanos);
+            int sub = (int) (nanos >>> (top - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+            return ((top - SUB_BITS + 1) << SUB_BITS) + sub;
+        }
+
+        /**
+         * <p>
+         * This finds the longest duration that falls in a bucket.
+         * </p>
+         *
+         * @param i
+         *      The index of the bucket
+         * @return the longest duration in nanoseconds that bucket(duration) = i
+         */
+        private static long upperBound(int i) {
+            if (i < 1 << SUB_BITS) {
+                return i;
+            }
+            int top = (i >>> SUB_BITS) + SUB_BITS - 1;
+            long sub = i & ((1 << SUB_BITS) - 1);
+            long low = (1L << top) | (sub << (top - SUB_BITS));
+            return low + (1L << (top - SUB_BITS)) - 1;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+
+/**
+ * This class is a computer player that plays from an {@link OpeningBook} while the position is in the book,
+ * and asks another engine once the game has left it.
+ *
+ * @version 2.0
+ */
+public class BookEngine implements IEngine {
+
+    /**
+     * <p>
+     * The book to play from
+     * </p>
+     */
+    private final OpeningBook book;
+
+    /**
+     * <p>
+     * The engine that picks moves the book does not have
+     * </p>
+     */
+    private final IEngine fallback;
+
+    /**
+     * <p>
+     * This creates an engine that plays from a book.
+     * </p>
+     *
+     * @param book
+     *      The book to play from
+     * @param fallback
+     *      The engine that picks moves for positions that are not in the book
+     */
+    public BookEngine(OpeningBook book, IEngine fallback) {
+        this.book = book;
+        this.fallback = fallback;
+    }
+
+    /**
+     * <p>
+     * This plays the book move for the position, or the fallback engine's move if there is none.
+     * </p>
+     *
+     * @param board
+     *      The current board
+     * @param players
+     *      The tokens of every player in the game, in turn order
+     * @param toMove
+     *      The index in players of the player to move
+     * @return the column to play, or -1 if every column is full
+     */
+    @Override
+    public int selectColumn(IGameBoard board, char[] players, int toMove) {
+        // the hash covers the tokens but not the board's size, so the configuration has to match too
+        if (board.getNumRows() == book.getNumRows() && board.getNumColumns() == book.getNumColumns()
+                && board.getNumToWin() == book.getNumToWin() && players.length == book.getNumPlayers()) {
+            int index = book.indexOf(board.getZobristHash());
+            if (index >= 0) {
+                int col = book.getMove(index);
+                if (col >= 0 && col < board.getNumColumns() && board.checkIfFree(col)) {
+                    return col;
+                }
+            }
+        }
+        return fallback.selectColumn(board, players, toMove);
+    }
+
+    /**
+     * <p>
+     * This gets the fallback engine ready for a new game. The book itself never changes.
+     * </p>
+     *
+     * @param seed
+     *      The seed handed to the fallback engine
+     */
+    @Override
+    public void newGame(long seed) {
+        fallback.newGame(seed);
+    }
+}
@@ -0,0 +1,103 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+
+/**
+ * This class orders moves from the center column outwards, after the move the search already expects
+ * to be best. It learns nothing from the search.
+ *
+ * @version 2.0
+ */
+public class CenterMoveOrderer implements IMoveOrderer {
+
+    /**
+     * <p>
+     * The columns from the center outwards, for the number of columns last seen
+     * </p>
+     */
+    private int[] order = new int[0];
+
+    /**
+     * <p>
+     * This lists the columns that can be played, the expected best move first and then from the center out.
+     * </p>
+     *
+     * @param board
+     *      The board being searched
+     * @param players
+     *      The tokens of every player in the game, in turn order
+     * @param toMove
+     *      The index in players of the player to move
+     * @param ply
+     *      How many moves have been made since the root of the search
+     * @param first
+     *      A column the search already expects to be best, or -1 if there is none
+     * @param moves
+     *      The array the columns are written to
+     * @return the number of columns written to moves
+     */
+    @Override
+    public int orderMoves(GameBoardBit board, char[] players, int toMove, int ply, int first, int[] moves) {
+        if (order.length != board.getNumColumns()) {
+            order = NegamaxEngine.centerOrder(board.getNumColumns());
+        }
+        int count = 0;
+        if (first >= 0 && board.checkIfFree(first)) {
+            moves[count++] = first;
+        }
+        for (int col : order) {
+            if (col != first && board.checkIfFree(col)) {
+                moves[count++] = col;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * <p>
+     * This does nothing, since the center order never changes.
+     * </p>
+     *
+     * @param col
+     *      The column that was played
+     * @param toMove
+     *      The index of the player who played it
+     * @param ply
+     *      How many moves had been made since the root of the search
+     * @param depth
+     *      How many moves were left to search, counting this one
+     */
+    @Override
+    public void recordCutoff(int col, int toMove, int ply, int depth) {
+    }
+
+    /**
+     * <p>
+     * This does nothing, since there is nothing to forget.
+     * </p>
+     */
+    @Override
+    public void newSearch() {
+    }
+
+    /**
+     * <p>
+     * This does nothing, since there is nothing to forget.
+     * </p>
+     */
+    @Override
+    public void newGame() {
+    }
+
+    /**
+     * <p>
+     * This makes another center orderer.
+     * </p>
+     *
+     * @return a new center orderer
+     */
+    @Override
+    public IMoveOrderer copy() {
+        return new CenterMoveOrderer();
+    }
+}
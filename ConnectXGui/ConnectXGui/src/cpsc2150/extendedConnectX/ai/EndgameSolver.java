@@ -0,0 +1,423 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+
+/**
+ * This class is a computer player that plays perfectly once only a few cells are left empty. It searches
+ * every move to the end of the game and proves whether the player to move wins, draws or loses, then
+ * plays the move that gets the best result. With more positions left than it solves, it asks another engine.
+ * <p>
+ * Whether a position is small enough is judged by the size of its game tree rather than by its empty cells
+ * alone: 16 empty cells in the top row of a wide board can be played in 16! orders, while 16 empty cells in
+ * four columns of a narrow one can only be played in about 63 million. A solve that still runs past its time
+ * limit gives up and asks the other engine too.
+ * <p>
+ * As in {@link NegamaxEngine}, more than two players are solved paranoidly: every other player is assumed
+ * to be working together against the player to move at the root.
+ * <p>
+ * Proven results are kept in a {@link TranspositionTable} keyed by the canonical hash of the position: the
+ * smaller of its Zobrist hash and the hash of its mirror image. A position and its mirror have the same
+ * result, so each is solved only once, and nothing already solved has to be searched again on later moves.
+ *
+ * @version 2.0
+ */
+public class EndgameSolver implements IEngine {
+
+    /**
+     * <p>
+     * Constants for the results of a solved position, from the side of the player to move
+     * </p>
+     */
+    public static final int WIN = 1;
+    public static final int DRAW = 0;
+    public static final int LOSS = -1;
+
+    /**
+     * <p>
+     * Constant for the largest expected number of positions solved when no number is given
+     * </p>
+     */
+    public static final double DEFAULT_MAX_NODES = 1 << 20;
+
+    /**
+     * <p>
+     * Constant for how many positions are solved between looks at the clock
+     * </p>
+     */
+    private static final int CLOCK_INTERVAL = 256;
+
+    /**
+     * <p>
+     * Constant mixed into the cache key for each root player when there are more than two players, since
+     * a paranoid result depends on who the root player is
+     * </p>
+     */
+    private static final long ROOT_SALT = 0x9E3779B97F4A7C15L;
+
+    /**
+     * <p>
+     * The largest expected number of positions a solve can take for this solver to start it
+     * </p>
+     */
+    private final double maxNodes;
+
+    /**
+     * <p>
+     * How long a solve may take in milliseconds before it gives up, or 0 for no limit
+     * </p>
+     */
+    private final long solveMillis;
+
+    /**
+     * <p>
+     * The engine that picks moves when there are too many empty cells to solve
+     * </p>
+     */
+    private final IEngine fallback;
+
+    /**
+     * <p>
+     * The proven results, which are kept from one move to the next
+     * </p>
+     */
+    private final TranspositionTable cache;
+
+    /**
+     * <p>
+     * Orders the moves of the solve, most likely winners first
+     * </p>
+     */
+    private final IMoveOrderer orderer = new HeuristicMoveOrderer();
+
+    /**
+     * <p>
+     * The state of the solve in progress: the board, the Zobrist hash of its mirror image, the players in
+     * turn order, the index of the root player and the moves ordered at each ply
+     * </p>
+     */
+    private GameBoardBit board;
+    private long mirror;
+    private char[] players;
+    private int root;
+    private int[][] moves;
+
+    /**
+     * <p>
+     * The System.nanoTime() at which the solve in progress has to stop, or 0 if it can run to the end, whether
+     * it has stopped, and how many positions it has visited
+     * </p>
+     */
+    private long deadline;
+    private boolean stopped;
+    private int nodes;
+
+    /**
+     * <p>
+     * The result of the last solve from the side of the player who moved
+     * </p>
+     */
+    private int result = DRAW;
+
+    /**
+     * <p>
+     * This creates a solver for positions of at most DEFAULT_MAX_NODES expected positions, with no time limit.
+     * </p>
+     *
+     * @param fallback
+     *      The engine that picks moves when the position is too big to solve
+     */
+    public EndgameSolver(IEngine fallback) {
+        this(fallback, 0);
+    }
+
+    /**
+     * <p>
+     * This creates a solver for positions of at most DEFAULT_MAX_NODES expected positions.
+     * </p>
+     *
+     * @param fallback
+     *      The engine that picks moves when the position is too big to solve
+     * @param solveMillis
+     *      How long a solve may take in milliseconds before the fallback is asked instead, or 0 for no limit
+     *
+     * @pre solveMillis >= 0
+     */
+    public EndgameSolver(IEngine fallback, long solveMillis) {
+        this(DEFAULT_MAX_NODES, solveMillis, fallback, new TranspositionTable());
+    }
+
+    /**
+     * <p>
+     * This creates a solver.
+     * </p>
+     *
+     * @param maxNodes
+     *      The largest expected number of positions a solve can take to be started
+     * @param solveMillis
+     *      How long a solve may take in milliseconds before the fallback is asked instead, or 0 for no limit
+     * @param fallback
+     *      The engine that picks moves when the position is too big to solve
+     * @param cache
+     *      The table proven results are kept in
+     *
+     * @pre maxNodes >= 0 and solveMillis >= 0
+     */
+    public EndgameSolver(double maxNodes, long solveMillis, IEngine fallback, TranspositionTable cache) {
+        this.maxNodes = maxNodes;
+        this.solveMillis = solveMillis;
+        this.fallback = fallback;
+        this.cache = cache;
+    }
+
+    /**
+     * <p>
+     * This plays the move with the best proven result, or the fallback engine's move if the position is
+     * expected to take more than maxNodes positions to solve or the solve runs out of time.
+     * </p>
+     *
+     * @param b
+     *      The current board
+     * @param players
+     *      The tokens of every player in the game, in turn order
+     * @param toMove
+     *      The index in players of the player to move
+     * @return the column to play, or -1 if every column is full
+     *
+     * @post [ when the position was solved, getResult() is its proven result ]
+     */
+    @Override
+    public int selectColumn(IGameBoard b, char[] players, int toMove) {
+        long start = System.nanoTime();
+        int empty = b.getNumRows() * b.getNumColumns() - b.getOccupiedCount();
+        if (expectedNodes(b) > maxNodes) {
+            return fallback.selectColumn(b, players, toMove);
+        }
+        if (empty == 0) {
+            return -1;
+        }
+        deadline = solveMillis > 0 ? start + solveMillis * 1000000 : 0;
+        stopped = false;
+        nodes = 0;
+        this.board = NegamaxEngine.copyOf(b);
+        this.mirror = mirrorHash(b);
+        this.players = players;
+        this.root = toMove;
+        this.moves = new int[empty + 1][b.getNumColumns()];
+        orderer.newSearch();
+        int count = orderer.orderMoves(board, players, toMove, 0, -1, moves[0]);
+        int best = moves[0][0];
+        result = LOSS - 1;
+        for (int i = 0; i < count && result < WIN && !stopped; i++) {
+            int col = moves[0][i];
+            int val = tryMove(col, result, WIN, toMove, 0);
+            if (val > result) {
+                result = val;
+                best = col;
+            }
+        }
+        if (stopped) {
+            result = DRAW;
+            return fallback.selectColumn(b, players, toMove);
+        }
+        return best;
+    }
+
+    /**
+     * <p>
+     * This empties the cache of proven results and gets the fallback engine ready for a new game.
+     * </p>
+     *
+     * @param seed
+     *      The seed handed to the fallback engine
+     */
+    @Override
+    public void newGame(long seed) {
+        cache.clear();
+        orderer.newGame();
+        result = DRAW;
+        fallback.newGame(seed);
+    }
+
+    /**
+     * <p>
+     * This estimates how many positions solving a board takes. A board with e empty cells, h[c] of them in
+     * column c, can be played out in e! / (h[0]! h[1]! ...) orders, and alpha-beta with good move ordering
+     * visits about the square root of that many positions.
+     * </p>
+     *
+     * @param b
+     *      The board
+     * @return the expected number of positions, which may be infinite for a nearly empty board
+     */
+    public static double expectedNodes(IGameBoard b) {
+        double log2 = 0;
+        int empty = 0;
+        for (int c = 0; c < b.getNumColumns(); c++) {
+            for (int h = 1; h <= b.getNumRows() - b.getColumnHeight(c); h++) {
+                empty++;
+                log2 += log2(empty) - log2(h);
+            }
+        }
+        return Math.pow(2, log2 / 2);
+    }
+
+    /**
+     * <p>
+     * This returns the proven result of the last position this solver solved.
+     * </p>
+     *
+     * @return WIN, DRAW or LOSS from the side of the player who moved
+     */
+    public int getResult() {
+        return result;
+    }
+
+    /**
+     * <p>
+     * This plays one move, solves the position after it and takes it back.
+     * </p>
+     *
+     * @param col
+     *      The column to play
+     * @param alpha
+     *      The result the player to move is already sure of
+     * @param beta
+     *      The result above which the other side will avoid this position
+     * @param toMove
+     *      The index of the player making the move
+     * @param ply
+     *      How many moves have been made since the root
+     * @return the result of the move from the side of the player making it
+     *
+     * @pre board.checkIfFree(col)
+     * @post board = #board and mirror = #mirror
+     */
+    private int tryMove(int col, int alpha, int beta, int toMove, int ply) {
+        int next = (toMove + 1) % players.length;
+        boolean sameSide = (next == root) == (toMove == root);
+        int r = board.getColumnHeight(col);
+        int mirrorCol = board.getNumColumns() - 1 - col;
+        board.placeToken(players[toMove], col);
+        mirror ^= Zobrist.key(r, mirrorCol, players[toMove]);
+        int val;
+        if (board.checkForWin(col)) {
+            val = WIN;
+        } else if (board.checkTie()) {
+            val = DRAW;
+        } else if (sameSide) {
+            val = solve(alpha, beta, next, ply + 1);
+        } else {
+            val = -solve(-beta, -alpha, next, ply + 1);
+        }
+        board.removeToken(col);
+        mirror ^= Zobrist.key(r, mirrorCol, players[toMove]);
+        return val;
+    }
+
+    /**
+     * <p>
+     * This solves the position with alpha-beta negamax over WIN, DRAW and LOSS.
+     * </p>
+     *
+     * @param alpha
+     *      The result the player to move is already sure of
+     * @param beta
+     *      The result above which the other side will avoid this position
+     * @param toMove
+     *      The index of the player to move
+     * @param ply
+     *      How many moves have been made since the root
+     * @return the result of the position from the side of the player to move
+     *
+     * @pre the board has an empty cell and no winner
+     * @post board = #board and mirror = #mirror
+     */
+    private int solve(int alpha, int beta, int toMove, int ply) {
+        if (++nodes % CLOCK_INTERVAL == 0 && deadline != 0 && System.nanoTime() > deadline) {
+            stopped = true;
+        }
+        if (stopped) {
+            return DRAW;
+        }
+        long hash = board.getZobristHash();
+        boolean mirrored = mirror < hash;
+        long key = mirrored ? mirror : hash;
+        if (players.length > 2) {
+            key += ROOT_SALT * (root + 1);
+        }
+        int alphaStart = alpha;
+        int first = -1;
+        long entry = cache.probe(key);
+        if (entry != 0) {
+            int stored = TranspositionTable.move(entry);
+            first = mirrored && stored >= 0 ? board.getNumColumns() - 1 - stored : stored;
+            int score = TranspositionTable.score(entry);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT) {
+                return score;
+            } else if (bound == TranspositionTable.LOWER) {
+                alpha = Math.max(alpha, score);
+            } else {
+                beta = Math.min(beta, score);
+            }
+            if (alpha >= beta) {
+                return score;
+            }
+        }
+        int best = LOSS - 1;
+        int bestCol = -1;
+        int count = orderer.orderMoves(board, players, toMove, ply, first, moves[ply]);
+        for (int i = 0; i < count; i++) {
+            int col = moves[ply][i];
+            int val = tryMove(col, alpha, beta, toMove, ply);
+            if (val > best) {
+                best = val;
+                bestCol = col;
+            }
+            if (val > alpha) {
+                alpha = val;
+            }
+            if (alpha >= beta) {
+                orderer.recordCutoff(col, toMove, ply, 1);
+                break;      // the other side will never allow this position
+            }
+        }
+        if (stopped) {
+            return DRAW;    // an unfinished result is not proven, so it is not kept
+        }
+        int bound = best <= alphaStart ? TranspositionTable.UPPER
+                : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        int stored = mirrored ? board.getNumColumns() - 1 - bestCol : bestCol;
+        cache.store(key, best, 0, bound, stored);
+        return best;
+    }
+
+    /**
+     * @param n
+     *      A positive number
+     * @return the base-2 logarithm of n
+     */
+    private static double log2(int n) {
+        return Math.log(n) / Math.log(2);
+    }
+
+    /**
+     * <p>
+     * This computes the Zobrist hash of a board's mirror image.
+     * </p>
+     *
+     * @param b
+     *      The board
+     * @return the hash the board would have with its columns in reverse order
+     */
+    private static long mirrorHash(IGameBoard b) {
+        long hash = 0;
+        int cols = b.getNumColumns();
+        for (int c = 0; c < cols; c++) {
+            for (int r = 0; r < b.getColumnHeight(c); r++) {
+                hash ^= Zobrist.key(r, cols - 1 - c, b.whatsAtPos(r, c));
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,110 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+
+/**
+ * This class scores a board that has no winner from the point of view of one player. Every window of
+ * getNumToWin() cells in a row, column or diagonal that holds tokens of only one player is still a way
+ * for that player to win; it counts for the player when it is theirs and against them when it belongs to
+ * anyone else. Windows closer to being filled count for more.
+ *
+ * @version 2.0
+ */
+public class Evaluator {
+
+    /**
+     * <p>
+     * Row and column steps for horizontal, vertical, up-right and up-left windows
+     * </p>
+     */
+    private static final int[] DR = {0, 1, 1, 1};
+    private static final int[] DC = {1, 0, 1, -1};
+
+    /**
+     * <p>
+     * This scores a board for a player.
+     * </p>
+     *
+     * @param board
+     *      The board to score
+     * @param player
+     *      The player the score is for
+     * @return the weight of player's open windows minus the weight of everyone else's
+     *
+     * @post [ evaluate is higher when player has more and fuller open windows ] and board = #board
+     */
+    public int evaluate(IGameBoard board, char player) {
+        int rows = board.getNumRows();
+        int cols = board.getNumColumns();
+        int n = board.getNumToWin();
+        int score = 0;
+        for (int d = 0; d < 4; d++) {
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    // skips windows that would run off the board
+                    int endR = r + DR[d] * (n - 1);
+                    int endC = c + DC[d] * (n - 1);
+                    if (endR >= rows || endC < 0 || endC >= cols) {
+                        continue;
+                    }
+                    score += scoreWindow(board, r, c, d, n, player);
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * <p>
+     * This returns how much a window of a given number of tokens from one player is worth.
+     * </p>
+     *
+     * @param count
+     *      The number of tokens in the window
+     * @return the weight of the window
+     *
+     * @pre count >= 0
+     */
+    public static int weight(int count) {
+        return count * count;
+    }
+
+    /**
+     * <p>
+     * This scores one window.
+     * </p>
+     *
+     * @param board
+     *      The board to score
+     * @param r
+     *      The row of the first cell of the window
+     * @param c
+     *      The column of the first cell of the window
+     * @param d
+     *      The direction of the window
+     * @param n
+     *      The length of the window
+     * @param player
+     *      The player the score is for
+     * @return +weight if only player has tokens in the window, -weight if only one other player does, else 0
+     */
+    private int scoreWindow(IGameBoard board, int r, int c, int d, int n, char player) {
+        char owner = ' ';
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            char t = board.whatsAtPos(r + DR[d] * i, c + DC[d] * i);
+            if (t == ' ') {
+                continue;
+            }
+            if (owner != ' ' && t != owner) {
+                return 0;   // two players share the window, so nobody can win with it
+            }
+            owner = t;
+            count++;
+        }
+        if (owner == ' ') {
+            return 0;
+        }
+        return owner == player ? weight(count) : -weight(count);
+    }
+}
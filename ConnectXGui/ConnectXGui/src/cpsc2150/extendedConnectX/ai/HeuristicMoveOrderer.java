@@ -0,0 +1,225 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+
+/**
+ * This class orders moves with the usual heuristics, in this order:
+ * <ol>
+ * <li>a move that wins on the spot</li>
+ * <li>a move that blocks the next player from winning on the spot</li>
+ * <li>the move the search already expects to be best</li>
+ * <li>the two killer moves of the ply: recent moves that cut off a search at the same ply</li>
+ * <li>everything else by its history score, which grows each time the move causes a cutoff anywhere</li>
+ * </ol>
+ * Moves that tie are tried from the center column outwards.
+ *
+ * @version 2.0
+ */
+public class HeuristicMoveOrderer implements IMoveOrderer {
+
+    /**
+     * <p>
+     * Constants for the rank of each kind of move. History scores are kept below KILLER_RANK.
+     * </p>
+     */
+    private static final int WIN_RANK = 1 << 30;
+    private static final int BLOCK_RANK = 1 << 29;
+    private static final int FIRST_RANK = 1 << 28;
+    private static final int KILLER_RANK = 1 << 26;
+    private static final int MAX_HISTORY = 1 << 24;
+
+    /**
+     * <p>
+     * The columns from the center outwards, for the number of columns last seen
+     * </p>
+     */
+    private int[] order = new int[0];
+
+    /**
+     * <p>
+     * The two killer moves of each ply, or -1 where there are none yet
+     * </p>
+     */
+    private int[][] killers = new int[NegamaxEngine.MAX_DEPTH + 1][2];
+
+    /**
+     * <p>
+     * The history score of each column for each player index
+     * </p>
+     */
+    private int[][] history = new int[0][0];
+
+    /**
+     * <p>
+     * The rank of each column in the position being ordered
+     * </p>
+     */
+    private int[] ranks = new int[0];
+
+    /**
+     * <p>
+     * This creates an orderer that has not learned anything yet.
+     * </p>
+     */
+    public HeuristicMoveOrderer() {
+        clearKillers();
+    }
+
+    /**
+     * <p>
+     * This lists the columns that can be played, best first.
+     * </p>
+     *
+     * @param board
+     *      The board being searched
+     * @param players
+     *      The tokens of every player in the game, in turn order
+     * @param toMove
+     *      The index in players of the player to move
+     * @param ply
+     *      How many moves have been made since the root of the search
+     * @param first
+     *      A column the search already expects to be best, or -1 if there is none
+     * @param moves
+     *      The array the columns are written to
+     * @return the number of columns written to moves
+     */
+    @Override
+    public int orderMoves(GameBoardBit board, char[] players, int toMove, int ply, int first, int[] moves) {
+        int cols = board.getNumColumns();
+        if (order.length != cols) {
+            order = NegamaxEngine.centerOrder(cols);
+            ranks = new int[cols];
+        }
+        if (history.length != players.length || history[0].length != cols) {
+            history = new int[players.length][cols];
+        }
+        char next = players[(toMove + 1) % players.length];
+        int count = 0;
+        for (int col : order) {
+            if (!board.checkIfFree(col)) {
+                continue;
+            }
+            int rank;
+            if (board.isWinningMove(players[toMove], col)) {
+                rank = WIN_RANK;
+            } else if (next != players[toMove] && board.isWinningMove(next, col)) {
+                rank = BLOCK_RANK;
+            } else if (col == first) {
+                rank = FIRST_RANK;
+            } else if (col == killers[ply][0]) {
+                rank = KILLER_RANK * 2;
+            } else if (col == killers[ply][1]) {
+                rank = KILLER_RANK;
+            } else {
+                rank = history[toMove][col];
+            }
+            // insertion sort, which keeps the center order for moves with the same rank
+            int i = count++;
+            while (i > 0 && ranks[moves[i - 1]] < rank) {
+                moves[i] = moves[i - 1];
+                i--;
+            }
+            moves[i] = col;
+            ranks[col] = rank;
+        }
+        return count;
+    }
+
+    /**
+     * <p>
+     * This makes col a killer move at ply and raises its history score, more for deeper searches.
+     * </p>
+     *
+     * @param col
+     *      The column that was played
+     * @param toMove
+     *      The index of the player who played it
+     * @param ply
+     *      How many moves had been made since the root of the search
+     * @param depth
+     *      How many moves were left to search, counting this one
+     */
+    @Override
+    public void recordCutoff(int col, int toMove, int ply, int depth) {
+        if (killers[ply][0] != col) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = col;
+        }
+        if (toMove < history.length && col < history[toMove].length) {
+            history[toMove][col] += depth * depth;
+            if (history[toMove][col] > MAX_HISTORY) {
+                ageHistory();
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This forgets the killer moves, since they belong to the plies of the last search, and halves the
+     * history scores so that recent cutoffs count the most.
+     * </p>
+     */
+    @Override
+    public void newSearch() {
+        clearKillers();
+        ageHistory();
+    }
+
+    /**
+     * <p>
+     * This forgets the killer moves and every history score.
+     * </p>
+     */
+    @Override
+    public void newGame() {
+        clearKillers();
+        history = new int[0][0];
+    }
+
+    /**
+     * <p>
+     * This makes an orderer with the same killer moves and history scores.
+     * </p>
+     *
+     * @return a new orderer with the same state as this one
+     */
+    @Override
+    public IMoveOrderer copy() {
+        HeuristicMoveOrderer copy = new HeuristicMoveOrderer();
+        for (int i = 0; i < killers.length; i++) {
+            copy.killers[i] = killers[i].clone();
+        }
+        copy.history = new int[history.length][];
+        for (int i = 0; i < history.length; i++) {
+            copy.history[i] = history[i].clone();
+        }
+        return copy;
+    }
+
+
+    /**
+     * <p>
+     * This removes every killer move.
+     * </p>
+     */
+    private void clearKillers() {
+        for (int[] k : killers) {
+            k[0] = -1;
+            k[1] = -1;
+        }
+    }
+
+    /**
+     * <p>
+     * This halves every history score.
+     * </p>
+     */
+    private void ageHistory() {
+        for (int[] h : history) {
+            for (int i = 0; i < h.length; i++) {
+                h[i] >>= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+
+/**
+ * This is an interface for a computer player. Given the board and the players in turn order, an engine
+ * picks the column the player to move should play.
+ * <p>
+ * Engines never change the board they are given; any searching is done on a copy.
+ *
+ * @version 2.0
+ */
+public interface IEngine {
+
+    /**
+     * <p>
+     * This picks a move for the player to move.
+     * </p>
+     *
+     * @param board
+     *      The current board
+     * @param players
+     *      The tokens of every player in the game, in turn order
+     * @param toMove
+     *      The index in players of the player to move
+     * @return the column to play, or -1 if every column is full
+     *
+     * @pre 0 <= toMove < players.length and the game on board is not over
+     * @post [ selectColumn is a column with room on board, or -1 if there is none ] and board = #board
+     */
+    public int selectColumn(IGameBoard board, char[] players, int toMove);
+
+    /**
+     * <p>
+     * This forgets everything the engine kept from earlier games, so that it plays the next game the way a
+     * new engine would. Reusing an engine this way saves building it, and its tables, for every game.
+     * </p>
+     *
+     * @param seed
+     *      The seed of the random numbers of an engine that plays at random
+     *
+     * @post [ the engine picks the same moves as a new engine made with this seed ]
+     */
+    public void newGame(long seed);
+}
@@ -0,0 +1,78 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+
+/**
+ * This is an interface for deciding the order a search tries moves in. Alpha-beta search cuts off the most
+ * when the best move is tried first, so a good orderer lets the search look much deeper in the same time.
+ * <p>
+ * An orderer can learn from the cutoffs the search reports to it. Each search thread uses its own orderer,
+ * so an orderer does not have to be thread safe.
+ *
+ * @version 2.0
+ */
+public interface IMoveOrderer {
+
+    /**
+     * <p>
+     * This lists the columns that can be played, in the order they should be tried.
+     * </p>
+     *
+     * @param board
+     *      The board being searched
+     * @param players
+     *      The tokens of every player in the game, in turn order
+     * @param toMove
+     *      The index in players of the player to move
+     * @param ply
+     *      How many moves have been made since the root of the search
+     * @param first
+     *      A column the search already expects to be best, or -1 if there is none
+     * @param moves
+     *      The array the columns are written to
+     * @return the number of columns written to moves
+     *
+     * @pre moves.length >= board.getNumColumns() and 0 <= ply <= NegamaxEngine.MAX_DEPTH
+     * @post [ moves[0 .. orderMoves - 1] holds each column with room on board once ] and board = #board
+     */
+    public int orderMoves(GameBoardBit board, char[] players, int toMove, int ply, int first, int[] moves);
+
+    /**
+     * <p>
+     * This tells the orderer that a move was good enough to end the search of its position early.
+     * </p>
+     *
+     * @param col
+     *      The column that was played
+     * @param toMove
+     *      The index of the player who played it
+     * @param ply
+     *      How many moves had been made since the root of the search
+     * @param depth
+     *      How many moves were left to search, counting this one
+     */
+    public void recordCutoff(int col, int toMove, int ply, int depth);
+
+    /**
+     * <p>
+     * This gets the orderer ready for a search from a new position.
+     * </p>
+     */
+    public void newSearch();
+
+    /**
+     * <p>
+     * This forgets everything the orderer has learned, so that it orders moves the way a new orderer would.
+     * </p>
+     */
+    public void newGame();
+
+    /**
+     * <p>
+     * This makes an orderer that starts with everything this one has learned, for another search thread.
+     * </p>
+     *
+     * @return a new orderer with the same state as this one
+     */
+    public IMoveOrderer copy();
+}
@@ -0,0 +1,496 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * This class is a computer player that picks moves with Monte Carlo tree search. It suits games with three
+ * or more players, where alpha-beta can only treat the other players as one paranoid opponent.
+ * <p>
+ * Each iteration walks down a tree of the positions seen so far, choosing at each node the child with the
+ * best UCT value: its win rate for the player who moved into it, plus a bonus for children visited less
+ * than their siblings. The first new position it reaches is played out to the end of the game, and the
+ * result is added to every node on the way back up. The move played is the root child visited most.
+ * <p>
+ * Playouts run on a {@link GameBoardBit} copy of the board and are undone from its move list after each
+ * iteration, so nothing is allocated per playout. A guided playout takes a winning move when there is one and
+ * otherwise blocks the next player's winning move before falling back to a random column.
+ * <p>
+ * The iterations run on several threads that share one tree. Walking the tree and recording results hold
+ * the tree's lock, but the playouts, where the time goes, run unlocked. A thread adds a virtual loss to
+ * every node on the path it is playing out, so the other threads look elsewhere until its result is in.
+ *
+ * @version 2.0
+ */
+public class MctsEngine implements IEngine {
+
+    /**
+     * <p>
+     * Constants for the default number of iterations per move and the UCT exploration constant
+     * </p>
+     */
+    public static final int DEFAULT_ITERATIONS = 100000;
+    public static final double EXPLORATION = Math.sqrt(2);
+
+    /**
+     * <p>
+     * Constant for the visits a thread adds to each node on its path while its playout is running
+     * </p>
+     */
+    private static final int VIRTUAL_LOSS = 1;
+
+    /**
+     * <p>
+     * The pool the search threads run on, with one thread for each core
+     * </p>
+     */
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * <p>
+     * The most iterations per move, or 0 for no limit
+     * </p>
+     */
+    private final int iterations;
+
+    /**
+     * <p>
+     * How long a move may take in milliseconds, or 0 for no limit
+     * </p>
+     */
+    private final long moveMillis;
+
+    /**
+     * <p>
+     * How many threads run iterations at the same time
+     * </p>
+     */
+    private final int threads;
+
+    /**
+     * <p>
+     * Whether playouts take and block immediate wins instead of playing only random moves
+     * </p>
+     */
+    private final boolean guided;
+
+    /**
+     * <p>
+     * The tree of the search in progress and the players in turn order
+     * </p>
+     */
+    private Node root;
+    private char[] players;
+
+    /**
+     * <p>
+     * The number of iterations the last move ran and the win rate of the move it picked
+     * </p>
+     */
+    private int iterationsRun;
+    private double winRate;
+
+    /**
+     * <p>
+     * One position in the tree, reached by a move of one player.
+     * </p>
+     */
+    private static class Node {
+
+        /**
+         * <p>
+         * The column of the move into this position and the index of the player who made it
+         * </p>
+         */
+        final int col;
+        final int mover;
+
+        /**
+         * <p>
+         * The position before the move, or null at the root
+         * </p>
+         */
+        final Node parent;
+
+        /**
+         * <p>
+         * The positions after each legal move, or null until the node is expanded
+         * </p>
+         */
+        Node[] children;
+
+        /**
+         * <p>
+         * Whether the game is over in this position and, if so, the index of its winner or -1 for a tie
+         * </p>
+         */
+        boolean terminal;
+        int winner = -1;
+
+        /**
+         * <p>
+         * The playouts through this position, including running ones, and the mover's total reward from them
+         * </p>
+         */
+        int visits;
+        double reward;
+
+        /**
+         * <p>
+         * This creates a node with no visits.
+         * </p>
+         *
+         * @param col
+         *      The column of the move into the position
+         * @param mover
+         *      The index of the player who made the move
+         * @param parent
+         *      The position before the move
+         */
+        Node(int col, int mover, Node parent) {
+            this.col = col;
+            this.mover = mover;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * <p>
+     * This creates an engine that runs guided playouts on every core until a move has run iterations
+     * playouts or taken moveMillis, whichever comes first.
+     * </p>
+     *
+     * @param iterations
+     *      The most iterations per move, or 0 for no limit
+     * @param moveMillis
+     *      How long a move may take in milliseconds, or 0 for no limit
+     *
+     * @pre iterations >= 0 and moveMillis >= 0 and (iterations > 0 or moveMillis > 0)
+     */
+    public MctsEngine(int iterations, long moveMillis) {
+        this(iterations, moveMillis, Runtime.getRuntime().availableProcessors(), true);
+    }
+
+    /**
+     * <p>
+     * This creates an engine.
+     * </p>
+     *
+     * @param iterations
+     *      The most iterations per move, or 0 for no limit
+     * @param moveMillis
+     *      How long a move may take in milliseconds, or 0 for no limit
+     * @param threads
+     *      How many threads run iterations at the same time
+     * @param guided
+     *      Whether playouts take and block immediate wins, or only play random moves
+     *
+     * @pre iterations >= 0 and moveMillis >= 0 and (iterations > 0 or moveMillis > 0) and threads >= 1
+     */
+    public MctsEngine(int iterations, long moveMillis, int threads, boolean guided) {
+        this.iterations = iterations;
+        this.moveMillis = moveMillis;
+        this.threads = threads;
+        this.guided = guided;
+    }
+
+    /**
+     * <p>
+     * This picks the root move that the search visited most.
+     * </p>
+     *
+     * @param b
+     *      The current board
+     * @param players
+     *      The tokens of every player in the game, in turn order
+     * @param toMove
+     *      The index in players of the player to move
+     * @return the column to play, or -1 if every column is full
+     *
+     * @post [ selectColumn returns after about iterations playouts or moveMillis, whichever comes first ]
+     */
+    @Override
+    public int selectColumn(IGameBoard b, char[] players, int toMove) {
+        long deadline = moveMillis > 0 ? System.nanoTime() + moveMillis * 1000000 : 0;
+        GameBoardBit board = NegamaxEngine.copyOf(b);
+        this.players = players;
+        this.root = new Node(-1, (toMove + players.length - 1) % players.length, null);
+        iterationsRun = 0;
+        winRate = 0;
+        expand(root, board);
+        if (root.children.length <= 1) {
+            return root.children.length == 0 ? -1 : root.children[0].col;
+        }
+
+        AtomicInteger started = new AtomicInteger();
+        POOL.submit(() -> IntStream.range(0, threads).parallel().forEach(t -> {
+            GameBoardBit mine = board.copy();
+            SplittableRandom rnd = new SplittableRandom();
+            int[] free = new int[board.getNumColumns()];
+            while ((iterations == 0 || started.getAndIncrement() < iterations)
+                    && (deadline == 0 || System.nanoTime() < deadline)) {
+                iterate(mine, b.getOccupiedCount(), rnd, free);
+            }
+        })).join();
+
+        Node best = root.children[0];
+        for (Node child : root.children) {
+            if (child.visits > best.visits) {
+                best = child;
+            }
+        }
+        iterationsRun = root.visits;
+        winRate = best.visits > 0 ? best.reward / best.visits : 0;
+        return best.col;
+    }
+
+    /**
+     * <p>
+     * This does nothing, since every move grows a new tree.
+     * </p>
+     *
+     * @param seed
+     *      Not used, since the playouts of each move draw their own random numbers
+     */
+    @Override
+    public void newGame(long seed) {
+    }
+
+    /**
+     * <p>
+     * This returns the number of iterations the last move ran.
+     * </p>
+     *
+     * @return the playouts the search of the last move finished
+     */
+    public int getIterations() {
+        return iterationsRun;
+    }
+
+    /**
+     * <p>
+     * This returns how often the move picked last won its playouts.
+     * </p>
+     *
+     * @return the average reward of the move picked, from 0 (always lost) to 1 (always won)
+     */
+    public double getWinRate() {
+        return winRate;
+    }
+
+    /**
+     * <p>
+     * This runs one iteration: a walk down the tree, a playout from where it stops and the update of every
+     * node on the path.
+     * </p>
+     *
+     * @param board
+     *      The thread's board, at the root position
+     * @param rootMoves
+     *      The number of moves on the board at the root
+     * @param rnd
+     *      The thread's random numbers
+     * @param free
+     *      Room to list the open columns in
+     *
+     * @post board = #board
+     */
+    private void iterate(GameBoardBit board, int rootMoves, SplittableRandom rnd, int[] free) {
+        Node leaf = select(board);
+        int winner = leaf.terminal ? leaf.winner
+                : playout(board, (leaf.mover + 1) % players.length, rnd, free);
+        backpropagate(leaf, winner);
+        while (board.getNumMoves() > rootMoves) {
+            board.undoMove();
+        }
+    }
+
+    /**
+     * <p>
+     * This walks down the tree by UCT value, playing each move on the board, until it reaches a node that
+     * has not been visited or a position where the game is over.
+     * </p>
+     *
+     * @param board
+     *      The thread's board, at the root position
+     * @return the node the walk stopped at
+     *
+     * @post [ board is at the position of the node returned, and every node on the path holds a virtual loss ]
+     */
+    private synchronized Node select(GameBoardBit board) {
+        Node node = root;
+        node.visits += VIRTUAL_LOSS;
+        while (!node.terminal) {
+            if (node.children == null) {
+                expand(node, board);
+            }
+            Node child = bestChild(node);
+            boolean fresh = child.visits == 0;
+            board.placeToken(players[child.mover], child.col);
+            child.visits += VIRTUAL_LOSS;
+            node = child;
+            if (fresh) {
+                break;      // one new node per iteration, played out from here
+            }
+        }
+        return node;
+    }
+
+    /**
+     * <p>
+     * This adds a node's children, one for each column with room, and marks the ones that end the game.
+     * </p>
+     *
+     * @param node
+     *      The node to expand
+     * @param board
+     *      The board, at the node's position
+     *
+     * @pre node.children = null and node.terminal = false
+     * @post [ node.children holds a node for every legal move ] and board = #board
+     */
+    private void expand(Node node, GameBoardBit board) {
+        int mover = (node.mover + 1) % players.length;
+        int count = 0;
+        Node[] children = new Node[board.getNumColumns()];
+        for (int c = 0; c < board.getNumColumns(); c++) {
+            if (board.checkIfFree(c)) {
+                Node child = new Node(c, mover, node);
+                board.placeToken(players[mover], c);
+                if (board.checkForWin(c)) {
+                    child.terminal = true;
+                    child.winner = mover;
+                } else if (board.checkTie()) {
+                    child.terminal = true;
+                }
+                board.removeToken(c);
+                children[count++] = child;
+            }
+        }
+        node.children = Arrays.copyOf(children, count);
+    }
+
+    /**
+     * <p>
+     * This picks the child with the best UCT value, trying every child once before any twice.
+     * </p>
+     *
+     * @param node
+     *      An expanded node with at least one child
+     * @return the child to walk to
+     */
+    private static Node bestChild(Node node) {
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        double logVisits = Math.log(node.visits);
+        for (Node child : node.children) {
+            if (child.visits == 0) {
+                return child;
+            }
+            double value = child.reward / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * <p>
+     * This plays the game out to the end.
+     * </p>
+     *
+     * @param board
+     *      The thread's board, which is left at the end of the game
+     * @param toMove
+     *      The index of the player to move
+     * @param rnd
+     *      The thread's random numbers
+     * @param free
+     *      Room to list the open columns in
+     * @return the index of the winner, or -1 for a tie
+     *
+     * @pre the game on board is not over
+     */
+    private int playout(GameBoardBit board, int toMove, SplittableRandom rnd, int[] free) {
+        while (true) {
+            int count = 0;
+            for (int c = 0; c < board.getNumColumns(); c++) {
+                if (board.checkIfFree(c)) {
+                    free[count++] = c;
+                }
+            }
+            int next = (toMove + 1) % players.length;
+            int col = -1;
+            if (guided) {
+                col = winningColumn(board, players[toMove], free, count);
+                if (col < 0) {
+                    col = winningColumn(board, players[next], free, count);
+                }
+            }
+            if (col < 0) {
+                col = free[rnd.nextInt(count)];
+            }
+            board.placeToken(players[toMove], col);
+            if (board.checkForWin(col)) {
+                return toMove;
+            }
+            if (board.checkTie()) {
+                return -1;
+            }
+            toMove = next;
+        }
+    }
+
+    /**
+     * <p>
+     * This finds a column where a player would win at once.
+     * </p>
+     *
+     * @param board
+     *      The board
+     * @param p
+     *      The player's token
+     * @param free
+     *      The open columns
+     * @param count
+     *      How many columns free holds
+     * @return a column that wins for p, or -1 if there is none
+     */
+    private static int winningColumn(GameBoardBit board, char p, int[] free, int count) {
+        for (int i = 0; i < count; i++) {
+            if (board.isWinningMove(p, free[i])) {
+                return free[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * <p>
+     * This records a playout's result in every node from the leaf up to the root and takes their virtual
+     * losses back off.
+     * </p>
+     *
+     * @param leaf
+     *      The node the playout started from
+     * @param winner
+     *      The index of the winner, or -1 for a tie
+     *
+     * @post [ every node on the path has one more visit and the reward of the result for its mover ]
+     */
+    private synchronized void backpropagate(Node leaf, int winner) {
+        // a tie splits the win between every player
+        double tie = 1.0 / players.length;
+        for (Node node = leaf; node != null; node = node.parent) {
+            node.visits += 1 - VIRTUAL_LOSS;
+            node.reward += winner == node.mover ? 1 : winner < 0 ? tie : 0;
+        }
+    }
+}
@@ -0,0 +1,722 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * This class is a computer player that searches ahead with negamax and alpha-beta pruning.
+ * <p>
+ * With more than two players the search is paranoid: the engine's player is on one side and every other
+ * player is assumed to be working together against it. Scores are always from the side of the player to
+ * move, so the sign only flips when the turn passes between the engine's player and an opponent.
+ * <p>
+ * The search runs on a {@link GameBoardBit} copy of the board, placing and removing tokens in place, and
+ * caches what it learns about each position in a {@link TranspositionTable} keyed by the board's Zobrist hash.
+ * The order moves are tried in comes from an {@link IMoveOrderer}, a {@link HeuristicMoveOrderer} by default.
+ * <p>
+ * The search deepens one move at a time up to the engine's depth. Each pass starts down the principal
+ * variation (the line both sides were expected to play) of the pass before, which makes the cutoffs come
+ * early. An engine with a time limit stops when the limit runs out and plays the best move of the last pass
+ * that finished, so a move never takes much longer than the limit.
+ * <p>
+ * A parallel engine splits the search at the root: the first move is searched alone to get a good bound,
+ * then the other root moves are searched at the same time on a shared fork-join pool, each on its own copy
+ * of the board. All of the threads share one transposition table, so what one learns the others can use.
+ *
+ * @version 2.0
+ */
+public class NegamaxEngine implements IEngine {
+
+    /**
+     * <p>
+     * Constants for the score of a win, a score beyond any real score, the default search depth and time
+     * limit and the range of depths the setup screen accepts.
+     * </p>
+     */
+    public static final int WIN_SCORE = 1000000;
+    public static final int INFINITY = WIN_SCORE + 1;
+    public static final int WIN_THRESHOLD = WIN_SCORE - 1000;
+    public static final int DEFAULT_DEPTH = 12;
+    public static final long DEFAULT_MOVE_MILLIS = 50;
+    public static final int MIN_DEPTH = 1;
+    public static final int MAX_DEPTH = 64;
+
+    /**
+     * <p>
+     * Constant for how many positions are searched between looks at the clock
+     * </p>
+     */
+    private static final int CLOCK_INTERVAL = 256;
+
+    /**
+     * <p>
+     * The pool parallel searches run on, with one thread for each core
+     * </p>
+     */
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * <p>
+     * The most moves ahead to search
+     * </p>
+     */
+    private final int depth;
+
+    /**
+     * <p>
+     * How long a move may take in milliseconds, or 0 for no limit
+     * </p>
+     */
+    private final long moveMillis;
+
+    /**
+     * <p>
+     * Remembers positions already searched, since the same position is reached through many move orders
+     * </p>
+     */
+    private final TranspositionTable table;
+
+    /**
+     * <p>
+     * The player the table's scores were stored for, or -1 before the first search
+     * </p>
+     */
+    private int tableRoot = -1;
+
+    /**
+     * <p>
+     * Whether the root moves are searched at the same time on every core
+     * </p>
+     */
+    private final boolean parallel;
+
+    /**
+     * <p>
+     * Orders the moves of the calling thread's search; other threads start from a copy of it
+     * </p>
+     */
+    private final IMoveOrderer orderer;
+
+    /**
+     * <p>
+     * The System.nanoTime() at which the pass in progress has to stop, or 0 if it can run to the end, and
+     * whether it has stopped. Every search thread reads these.
+     * </p>
+     */
+    private volatile long deadline;
+    private volatile boolean stopped;
+
+    /**
+     * <p>
+     * The principal variation of the last pass that finished, starting with the move to play
+     * </p>
+     */
+    private int[] pv = new int[0];
+
+    /**
+     * <p>
+     * The score of the move picked by the last pass that finished, from the side of the player who moved
+     * </p>
+     */
+    private int score;
+
+    /**
+     * <p>
+     * The best root move of the pass in progress, its score and its principal variation, shared by the
+     * threads of a parallel search
+     * </p>
+     */
+    private int rootBest;
+    private int rootScore;
+    private int[] rootPv;
+
+    /**
+     * <p>
+     * This creates an engine that searches depth moves ahead on every core with no time limit.
+     * </p>
+     *
+     * @param depth
+     *      How many moves ahead to search
+     *
+     * @pre MIN_DEPTH <= depth <= MAX_DEPTH
+     */
+    public NegamaxEngine(int depth) {
+        this(depth, 0);
+    }
+
+    /**
+     * <p>
+     * This creates an engine that searches up to depth moves ahead on every core, stopping when a move has
+     * taken moveMillis.
+     * </p>
+     *
+     * @param depth
+     *      The most moves ahead to search
+     * @param moveMillis
+     *      How long a move may take in milliseconds, or 0 for no limit
+     *
+     * @pre MIN_DEPTH <= depth <= MAX_DEPTH and moveMillis >= 0
+     */
+    public NegamaxEngine(int depth, long moveMillis) {
+        this(depth, moveMillis, new TranspositionTable(), true, new HeuristicMoveOrderer());
+    }
+
+    /**
+     * <p>
+     * This creates an engine that searches up to depth moves ahead and caches positions in the given table.
+     * </p>
+     *
+     * @param depth
+     *      The most moves ahead to search
+     * @param moveMillis
+     *      How long a move may take in milliseconds, or 0 for no limit
+     * @param table
+     *      The table to cache searched positions in
+     * @param parallel
+     *      Whether to search the root moves on every core or only on the calling thread
+     * @param orderer
+     *      Decides the order moves are tried in
+     *
+     * @pre MIN_DEPTH <= depth <= MAX_DEPTH and moveMillis >= 0
+     */
+    public NegamaxEngine(int depth, long moveMillis, TranspositionTable table, boolean parallel,
+                         IMoveOrderer orderer) {
+        this.depth = depth;
+        this.moveMillis = moveMillis;
+        this.table = table;
+        this.parallel = parallel;
+        this.orderer = orderer;
+    }
+
+    /**
+     * <p>
+     * This picks the move with the best search score for the player to move.
+     * </p>
+     *
+     * @param b
+     *      The current board
+     * @param players
+     *      The tokens of every player in the game, in turn order
+     * @param toMove
+     *      The index in players of the player to move
+     * @return the column to play, or -1 if every column is full
+     *
+     * @post [ selectColumn returns within about moveMillis when moveMillis > 0, after at least one pass ]
+     */
+    @Override
+    public int selectColumn(IGameBoard b, char[] players, int toMove) {
+        long start = System.nanoTime();
+        int empty = b.getNumRows() * b.getNumColumns() - b.getOccupiedCount();
+        int maxDepth = Math.min(depth, empty);
+        GameBoardBit copy = copyOf(b);
+        Search main = new Search(copy, new WindowEvaluator(copy, players, toMove), players, toMove, maxDepth,
+                orderer);
+        pv = new int[0];
+        score = 0;
+        if (empty == 0) {
+            return -1;
+        }
+        // scores are stored from the engine player's side, so they only stay valid for the same player
+        if (toMove != tableRoot) {
+            table.clear();
+            tableRoot = toMove;
+        }
+        orderer.newSearch();
+        stopped = false;
+        deadline = 0;       // the first pass always finishes so that there is a move to play
+        for (int d = 1; d <= maxDepth; d++) {
+            searchRoot(main, d);
+            if (stopped) {
+                break;      // the unfinished pass is thrown away
+            }
+            pv = rootPv;
+            score = rootScore;
+            if (Math.abs(rootScore) > WIN_THRESHOLD) {
+                break;      // the game is already decided within this many moves
+            }
+            if (moveMillis > 0) {
+                deadline = start + moveMillis * 1000000;
+            }
+        }
+        return pv[0];
+    }
+
+    /**
+     * <p>
+     * This empties the transposition table and the orderer's history, which the next game would otherwise
+     * start from.
+     * </p>
+     *
+     * @param seed
+     *      Not used, since the search picks the same move every time
+     */
+    @Override
+    public void newGame(long seed) {
+        table.clear();
+        tableRoot = -1;
+        orderer.newGame();
+        pv = new int[0];
+        score = 0;
+    }
+
+    /**
+     * <p>
+     * This returns the principal variation of the last move this engine picked.
+     * </p>
+     *
+     * @return the moves both sides were expected to play, starting with the move that was picked
+     */
+    public int[] getPrincipalVariation() {
+        return pv.clone();
+    }
+
+    /**
+     * <p>
+     * This returns the search score of the last move this engine picked.
+     * </p>
+     *
+     * @return the score from the side of the player who moved; above WIN_THRESHOLD is a forced win and
+     * below -WIN_THRESHOLD is a forced loss
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * <p>
+     * This searches every root move to a given depth.
+     * </p>
+     *
+     * @param main
+     *      The search state of the calling thread
+     * @param d
+     *      How many moves ahead to search
+     *
+     * @post [ unless stopped, rootBest, rootScore and rootPv are the best root move, its score and its
+     * principal variation at depth d, and the table holds the result for the root ]
+     */
+    private void searchRoot(Search main, int d) {
+        int toMove = main.root;
+        int[] moves = main.rootMoves();
+        long hash = main.board.getZobristHash();
+        main.onPv = true;
+        rootBest = moves[0];
+        rootScore = main.tryMove(moves[0], d, -INFINITY, INFINITY, toMove, 0);
+        rootPv = main.lineFrom(moves[0]);
+        if (parallel && moves.length > 1) {
+            // the first move gives a bound that lets the rest of the root moves be searched independently
+            POOL.submit(() -> IntStream.range(1, moves.length).parallel().forEach(i -> {
+                Search helper = new Search(main.board.copy(), new WindowEvaluator(main.evaluator),
+                        main.players, toMove, main.maxDepth, main.orderer.copy());
+                offer(moves[i], helper.tryMove(moves[i], d, currentScore(), INFINITY, toMove, 0), helper);
+            })).join();
+        } else {
+            for (int i = 1; i < moves.length; i++) {
+                offer(moves[i], main.tryMove(moves[i], d, rootScore, INFINITY, toMove, 0), main);
+            }
+        }
+        if (!stopped) {
+            // every root move was searched with no upper limit, so the best score is exact
+            table.store(hash, rootScore, d, TranspositionTable.EXACT, rootBest);
+        }
+    }
+
+    /**
+     * <p>
+     * This returns the best root score found so far, which the next root move has to beat.
+     * </p>
+     *
+     * @return the best root score so far
+     */
+    private synchronized int currentScore() {
+        return rootScore;
+    }
+
+    /**
+     * <p>
+     * This records a root move if it beats the best one found so far.
+     * </p>
+     *
+     * @param col
+     *      The root move
+     * @param score
+     *      The score of the move
+     * @param s
+     *      The search state that just searched the move
+     *
+     * @post [ rootBest, rootScore and rootPv are the move, score and principal variation of the best root
+     * move so far ]
+     */
+    private synchronized void offer(int col, int score, Search s) {
+        if (score > rootScore) {
+            rootScore = score;
+            rootBest = col;
+            rootPv = s.lineFrom(col);
+        }
+    }
+
+    /**
+     * This class holds the state one thread needs to search: its own board and evaluator, the players in
+     * turn order, the index of the engine's player, its move orderer and the lines found below each ply.
+     *
+     * @version 2.0
+     */
+    private final class Search {
+
+        /**
+         * <p>
+         * The board being searched, which is changed and restored in place
+         * </p>
+         */
+        private final GameBoardBit board;
+
+        /**
+         * <p>
+         * Keeps the score of board for the engine's player as moves are made and taken back
+         * </p>
+         */
+        private final WindowEvaluator evaluator;
+
+        /**
+         * <p>
+         * The tokens of every player in turn order, and the index of the engine's player
+         * </p>
+         */
+        private final char[] players;
+        private final int root;
+
+        /**
+         * <p>
+         * Orders the moves of this search, and the moves it orders at each ply
+         * </p>
+         */
+        private final IMoveOrderer orderer;
+        private final int[][] moves;
+
+        /**
+         * <p>
+         * The deepest ply this search can reach
+         * </p>
+         */
+        private final int maxDepth;
+
+        /**
+         * <p>
+         * The best line found from each ply: line[ply][ply .. lineLength[ply] - 1]
+         * </p>
+         */
+        private final int[][] line;
+        private final int[] lineLength;
+
+        /**
+         * <p>
+         * Whether the search is still following the principal variation of the last pass
+         * </p>
+         */
+        private boolean onPv;
+
+        /**
+         * <p>
+         * The number of positions searched, used to look at the clock every so often
+         * </p>
+         */
+        private int nodes;
+
+        /**
+         * <p>
+         * This creates the state for searching a board.
+         * </p>
+         *
+         * @param board
+         *      The board to search, which is not shared with any other thread
+         * @param evaluator
+         *      The evaluator for board, which is not shared with any other thread
+         * @param players
+         *      The tokens of every player in the game, in turn order
+         * @param root
+         *      The index in players of the engine's player
+         * @param maxDepth
+         *      The deepest ply the search can reach
+         * @param orderer
+         *      Decides the order moves are tried in, and is used by no other thread
+         */
+        Search(GameBoardBit board, WindowEvaluator evaluator, char[] players, int root, int maxDepth,
+               IMoveOrderer orderer) {
+            this.board = board;
+            this.evaluator = evaluator;
+            this.players = players;
+            this.root = root;
+            this.maxDepth = maxDepth;
+            this.orderer = orderer;
+            this.moves = new int[maxDepth + 1][board.getNumColumns()];
+            this.line = new int[maxDepth + 1][maxDepth + 1];
+            this.lineLength = new int[maxDepth + 1];
+        }
+
+        /**
+         * <p>
+         * This lists the columns that can be played at the root, best guess first.
+         * </p>
+         *
+         * @return the open columns, starting with the last pass's best move when there is one
+         *
+         * @pre the board has an empty cell
+         */
+        int[] rootMoves() {
+            long entry = table.probe(board.getZobristHash());
+            int first = pv.length > 0 ? pv[0] : entry == 0 ? -1 : TranspositionTable.move(entry);
+            int count = orderer.orderMoves(board, players, root, 0, first, moves[0]);
+            return Arrays.copyOf(moves[0], count);
+        }
+
+        /**
+         * <p>
+         * This returns the line that starts with a root move.
+         * </p>
+         *
+         * @param col
+         *      The root move that was just searched
+         * @return col followed by the best line found after it
+         */
+        int[] lineFrom(int col) {
+            int[] moves = new int[lineLength[1]];
+            moves[0] = col;
+            System.arraycopy(line[1], 1, moves, 1, lineLength[1] - 1);
+            return moves;
+        }
+
+        /**
+         * <p>
+         * This plays one move, scores it and takes it back.
+         * </p>
+         *
+         * @param col
+         *      The column to play
+         * @param depth
+         *      How many more moves to search, counting this one
+         * @param alpha
+         *      The score the player to move is already sure of
+         * @param beta
+         *      The score above which the other side will avoid this position
+         * @param toMove
+         *      The index of the player making the move
+         * @param ply
+         *      How many moves have been made since the root
+         * @return the score of the move from the side of the player making it
+         *
+         * @pre board.checkIfFree(col) and 1 <= depth and ply + depth <= maxDepth
+         * @post board = #board and [ line[ply + 1] holds the best line found after col ]
+         */
+        int tryMove(int col, int depth, int alpha, int beta, int toMove, int ply) {
+            int next = (toMove + 1) % players.length;
+            boolean sameSide = (next == root) == (toMove == root);
+            int row = board.getColumnHeight(col);
+            board.placeToken(players[toMove], col);
+            evaluator.place(row, col, toMove);
+            lineLength[ply + 1] = ply + 1;
+            int val;
+            if (board.checkForWin(col)) {
+                val = WIN_SCORE - ply;      // sooner wins score higher
+            } else if (board.checkTie()) {
+                val = 0;
+            } else if (sameSide) {
+                val = search(depth - 1, alpha, beta, next, ply + 1);
+            } else {
+                val = -search(depth - 1, -beta, -alpha, next, ply + 1);
+            }
+            board.removeToken(col);
+            evaluator.remove(row, col, toMove);
+            onPv = false;       // only the first line searched follows the last pass
+            return val;
+        }
+
+        /**
+         * <p>
+         * This searches the position with alpha-beta negamax.
+         * </p>
+         *
+         * @param depth
+         *      How many more moves to search
+         * @param alpha
+         *      The score the player to move is already sure of
+         * @param beta
+         *      The score above which the other side will avoid this position
+         * @param toMove
+         *      The index of the player to move
+         * @param ply
+         *      How many moves have been made since the root
+         * @return the score of the position from the side of the player to move, or 0 once stopped
+         *
+         * @pre the board has an empty cell and no winner and 1 <= ply <= maxDepth
+         * @post board = #board and [ line[ply] holds the best line found from this position ]
+         */
+        int search(int depth, int alpha, int beta, int toMove, int ply) {
+            lineLength[ply] = ply;
+            if (++nodes % CLOCK_INTERVAL == 0 && deadline != 0 && System.nanoTime() > deadline) {
+                stopped = true;
+            }
+            if (stopped) {
+                return 0;
+            }
+            if (depth == 0) {
+                int score = evaluator.getScore();
+                return toMove == root ? score : -score;
+            }
+            long hash = board.getZobristHash();
+            int alphaStart = alpha;
+            int first = -1;
+            long entry = table.probe(hash);
+            if (entry != 0) {
+                first = TranspositionTable.move(entry);
+                if (!onPv && TranspositionTable.depth(entry) >= depth) {
+                    int score = fromTable(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT) {
+                        return score;
+                    } else if (bound == TranspositionTable.LOWER) {
+                        alpha = Math.max(alpha, score);
+                    } else {
+                        beta = Math.min(beta, score);
+                    }
+                    if (alpha >= beta) {
+                        return score;
+                    }
+                }
+            }
+            if (onPv && ply < pv.length) {
+                first = pv[ply];
+            }
+            int best = -INFINITY;
+            int bestCol = -1;
+            // the principal variation or the table's best move is passed to the orderer as the move to try first
+            int count = orderer.orderMoves(board, players, toMove, ply, first, moves[ply]);
+            for (int i = 0; i < count; i++) {
+                int col = moves[ply][i];
+                int val = tryMove(col, depth, alpha, beta, toMove, ply);
+                if (stopped) {
+                    return 0;
+                }
+                if (val > best) {
+                    best = val;
+                    bestCol = col;
+                }
+                if (val > alpha) {
+                    alpha = val;
+                    saveLine(ply, col);
+                }
+                if (alpha >= beta) {
+                    orderer.recordCutoff(col, toMove, ply, depth);
+                    break;      // the other side will never allow this position
+                }
+            }
+            int bound = best <= alphaStart ? TranspositionTable.UPPER
+                    : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(hash, toTable(best, ply), depth, bound, bestCol);
+            return best;
+        }
+
+        /**
+         * <p>
+         * This makes col followed by the best line after it the best line from ply.
+         * </p>
+         *
+         * @param ply
+         *      The ply col is played at
+         * @param col
+         *      The new best move at ply
+         *
+         * @post line[ply] = [col] + line[ply + 1] from ply + 1
+         */
+        private void saveLine(int ply, int col) {
+            line[ply][ply] = col;
+            int length = lineLength[ply + 1];
+            System.arraycopy(line[ply + 1], ply + 1, line[ply], ply + 1, length - ply - 1);
+            lineLength[ply] = length;
+        }
+    }
+
+    /**
+     * <p>
+     * This converts a score to the form kept in the table. Win scores count plies from the root, so they are
+     * stored counting from this position instead and can be reused at any ply.
+     * </p>
+     *
+     * @param score
+     *      The score found at this position
+     * @param ply
+     *      How many moves this position is from the root
+     * @return the score to store
+     */
+    static int toTable(int score, int ply) {
+        if (score > WIN_THRESHOLD) {
+            return score + ply;
+        } else if (score < -WIN_THRESHOLD) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * <p>
+     * This converts a score read from the table back to a score counted from the root.
+     * </p>
+     *
+     * @param score
+     *      The score read from the table
+     * @param ply
+     *      How many moves this position is from the root
+     * @return the score counted from the root
+     */
+    static int fromTable(int score, int ply) {
+        if (score > WIN_THRESHOLD) {
+            return score - ply;
+        } else if (score < -WIN_THRESHOLD) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * <p>
+     * This copies any board into a {@link GameBoardBit} that the search can change.
+     * </p>
+     *
+     * @param b
+     *      The board to copy
+     * @return a new board holding the same tokens as b
+     */
+    static GameBoardBit copyOf(IGameBoard b) {
+        if (b instanceof GameBoardBit) {
+            return ((GameBoardBit) b).copy();   // copies the bit lines instead of placing every token
+        }
+        GameBoardBit copy = new GameBoardBit(b.getNumRows(), b.getNumColumns(), b.getNumToWin());
+        for (int c = 0; c < b.getNumColumns(); c++) {
+            for (int r = 0; r < b.getColumnHeight(c); r++) {
+                copy.placeToken(b.whatsAtPos(r, c), c);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * <p>
+     * This lists the columns from the center outwards, since center columns take part in the most windows.
+     * </p>
+     *
+     * @param cols
+     *      The number of columns
+     * @return every column, center first
+     */
+    static int[] centerOrder(int cols) {
+        int[] order = new int[cols];
+        for (int i = 0; i < cols; i++) {
+            // alternates right and left of the middle: mid, mid+1, mid-1, mid+2, ...
+            int offset = (i + 1) / 2;
+            order[i] = (cols - 1) / 2 + (i % 2 == 1 ? offset : -offset);
+        }
+        return order;
+    }
+}
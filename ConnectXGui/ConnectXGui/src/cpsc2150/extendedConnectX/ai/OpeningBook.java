@@ -0,0 +1,234 @@
+package cpsc2150.extendedConnectX.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class is a read-only opening book: the best move for each position of the first few moves of one
+ * board configuration, as written by {@link OpeningBookBuilder}.
+ * <p>
+ * The file is memory-mapped rather than read, so opening a book costs no parsing and no heap for the
+ * entries, and every game with the same configuration shares the same mapped pages. Entries are sorted by
+ * Zobrist hash, and a lookup is a binary search straight over the mapped bytes with no allocation.
+ * <p>
+ * The file starts with a header of HEADER_BYTES bytes: MAGIC, VERSION, then the rows, columns, number to
+ * win, number of players and number of entries as ints. Each entry is ENTRY_BYTES bytes: the position's
+ * hash as a long, then the move and its score as ints.
+ *
+ * @version 2.0
+ */
+public class OpeningBook {
+
+    /**
+     * <p>
+     * Constants for the start of every book file, the file format version, the size of the header and the
+     * size of one entry in bytes
+     * </p>
+     */
+    public static final int MAGIC = 0x43584F42;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 32;
+    public static final int ENTRY_BYTES = 16;
+
+    /**
+     * <p>
+     * The system property naming the directory books are found in, and the directory used when it is not set
+     * </p>
+     */
+    public static final String DIRECTORY_PROPERTY = "connectx.books";
+    public static final String DEFAULT_DIRECTORY = "books";
+
+    /**
+     * <p>
+     * The books already opened by find, by file name, so that every game shares one mapping
+     * </p>
+     */
+    private static final Map<String, OpeningBook> OPENED = new ConcurrentHashMap<>();
+
+    /**
+     * <p>
+     * The mapped file
+     * </p>
+     */
+    private final ByteBuffer data;
+
+    /**
+     * <p>
+     * The configuration the book was built for and the number of entries, read from the header
+     * </p>
+     */
+    private final int rows;
+    private final int cols;
+    private final int numToWin;
+    private final int players;
+    private final int count;
+
+    /**
+     * <p>
+     * This maps a book file.
+     * </p>
+     *
+     * @param file
+     *      The book file
+     * @throws IOException if the file cannot be read or is not a book
+     *
+     * @post [ the book holds the entries of file ]
+     */
+    public OpeningBook(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException(file + " is not an opening book");
+        }
+        rows = data.getInt(8);
+        cols = data.getInt(12);
+        numToWin = data.getInt(16);
+        players = data.getInt(20);
+        count = data.getInt(24);
+        if (data.capacity() != HEADER_BYTES + (long) count * ENTRY_BYTES) {
+            throw new IOException(file + " is cut short");
+        }
+    }
+
+    /**
+     * <p>
+     * This finds the book for a configuration in the book directory.
+     * </p>
+     *
+     * @param rows
+     *      The number of rows
+     * @param cols
+     *      The number of columns
+     * @param numToWin
+     *      The number of tokens in a row needed to win
+     * @param players
+     *      The number of players
+     * @return the book, or null if there is no readable book for the configuration
+     */
+    public static OpeningBook find(int rows, int cols, int numToWin, int players) {
+        String name = fileName(rows, cols, numToWin, players);
+        OpeningBook book = OPENED.get(name);
+        if (book != null) {
+            return book;
+        }
+        Path file = Paths.get(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY), name);
+        if (!Files.isReadable(file)) {
+            return null;
+        }
+        try {
+            book = new OpeningBook(file);
+        } catch (IOException e) {
+            return null;
+        }
+        // another game may have opened the same book in the meantime
+        OpeningBook opened = OPENED.putIfAbsent(name, book);
+        return opened != null ? opened : book;
+    }
+
+    /**
+     * <p>
+     * This returns the file name find looks for.
+     * </p>
+     *
+     * @param rows
+     *      The number of rows
+     * @param cols
+     *      The number of columns
+     * @param numToWin
+     *      The number of tokens in a row needed to win
+     * @param players
+     *      The number of players
+     * @return the name of the book file for the configuration
+     */
+    public static String fileName(int rows, int cols, int numToWin, int players) {
+        return rows + "x" + cols + "-" + numToWin + "-" + players + ".book";
+    }
+
+    /**
+     * <p>
+     * This looks up a position.
+     * </p>
+     *
+     * @param hash
+     *      The Zobrist hash of the position
+     * @return the index of the position's entry, or -1 if the position is not in the book
+     */
+    public int indexOf(long hash) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midHash = data.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+            if (midHash < hash) {
+                low = mid + 1;
+            } else if (midHash > hash) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param index
+     *      An index returned by indexOf
+     * @return the best move stored for the entry
+     */
+    public int getMove(int index) {
+        return data.getInt(HEADER_BYTES + index * ENTRY_BYTES + 8);
+    }
+
+    /**
+     * @param index
+     *      An index returned by indexOf
+     * @return the score of the best move, from the side of the player to move
+     */
+    public int getScore(int index) {
+        return data.getInt(HEADER_BYTES + index * ENTRY_BYTES + 12);
+    }
+
+    /**
+     * @return the number of rows the book was built for
+     */
+    public int getNumRows() {
+        return rows;
+    }
+
+    /**
+     * @return the number of columns the book was built for
+     */
+    public int getNumColumns() {
+        return cols;
+    }
+
+    /**
+     * @return the number to win the book was built for
+     */
+    public int getNumToWin() {
+        return numToWin;
+    }
+
+    /**
+     * @return the number of players the book was built for
+     */
+    public int getNumPlayers() {
+        return players;
+    }
+
+    /**
+     * @return the number of positions in the book
+     */
+    public int size() {
+        return count;
+    }
+}
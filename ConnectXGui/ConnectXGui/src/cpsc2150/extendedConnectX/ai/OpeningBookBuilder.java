@@ -0,0 +1,219 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.controllers.GameSession;
+import cpsc2150.extendedConnectX.models.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class is the offline tool that writes {@link OpeningBook} files. It visits every position of the
+ * first few moves of a configuration, searches each one deeply with {@link NegamaxEngine} and writes the
+ * best moves to a book sorted by Zobrist hash.
+ * <p>
+ * Positions are built with the same player tokens {@link GameSession} hands out, so the hashes match the
+ * boards of real games.
+ *
+ * @version 2.0
+ */
+public class OpeningBookBuilder {
+
+    /**
+     * <p>
+     * The configuration being built and how deep to search each position
+     * </p>
+     */
+    private final int rows;
+    private final int cols;
+    private final int numToWin;
+    private final char[] players;
+    private final int depth;
+
+    /**
+     * <p>
+     * The positions to search, the player to move in each, and the hashes of every position already seen
+     * </p>
+     */
+    private final List<GameBoardBit> positions = new ArrayList<>();
+    private final List<Integer> toMove = new ArrayList<>();
+    private final Set<Long> seen = new HashSet<>();
+
+    /**
+     * <p>
+     * This method is the main entry point for the builder.
+     * </p>
+     *
+     * @param args
+     *            Command-line arguments: rows, columns, number to win, number of players, how many
+     *            moves into the game the book covers, the search depth and an optional output directory.
+     * @throws IOException if the book cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 6) {
+            System.out.println("usage: OpeningBookBuilder rows cols numToWin players plies depth [directory]");
+            return;
+        }
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        int numToWin = Integer.parseInt(args[2]);
+        int players = Integer.parseInt(args[3]);
+        int plies = Integer.parseInt(args[4]);
+        int depth = Integer.parseInt(args[5]);
+        Path dir = Paths.get(args.length > 6 ? args[6]
+                : System.getProperty(OpeningBook.DIRECTORY_PROPERTY, OpeningBook.DEFAULT_DIRECTORY));
+        Files.createDirectories(dir);
+        Path file = dir.resolve(OpeningBook.fileName(rows, cols, numToWin, players));
+        int count = new OpeningBookBuilder(rows, cols, numToWin, players, depth).build(plies, file);
+        System.out.println("wrote " + count + " positions to " + file);
+    }
+
+    /**
+     * <p>
+     * This creates a builder for one configuration.
+     * </p>
+     *
+     * @param rows
+     *      The number of rows
+     * @param cols
+     *      The number of columns
+     * @param numToWin
+     *      The number of tokens in a row needed to win
+     * @param numPlayers
+     *      The number of players
+     * @param depth
+     *      How many moves ahead to search each position
+     *
+     * @pre [ the configuration is one SetupController accepts ] and
+     * NegamaxEngine.MIN_DEPTH <= depth <= NegamaxEngine.MAX_DEPTH
+     */
+    public OpeningBookBuilder(int rows, int cols, int numToWin, int numPlayers, int depth) {
+        this.rows = rows;
+        this.cols = cols;
+        this.numToWin = numToWin;
+        this.players = new char[numPlayers];
+        for (int i = 0; i < numPlayers; i++) {
+            players[i] = GameSession.getToken(i);
+        }
+        this.depth = depth;
+    }
+
+    /**
+     * <p>
+     * This searches every position of the first plies moves and writes the book.
+     * </p>
+     *
+     * @param plies
+     *      How many moves into the game the book covers
+     * @param file
+     *      The file to write
+     * @return the number of positions written
+     * @throws IOException if the file cannot be written
+     *
+     * @pre plies >= 1
+     * @post [ file holds a book with the best move of every position with fewer than plies tokens ]
+     */
+    public int build(int plies, Path file) throws IOException {
+        collect(new GameBoardBit(rows, cols, numToWin), 0, plies);
+        int count = positions.size();
+        long[] hashes = new long[count];
+        int[] moves = new int[count];
+        int[] scores = new int[count];
+        // one engine per player, since an engine's table only holds scores for the player it last moved for
+        NegamaxEngine[] engines = new NegamaxEngine[players.length];
+        for (int i = 0; i < players.length; i++) {
+            engines[i] = new NegamaxEngine(depth);
+        }
+        for (int i = 0; i < count; i++) {
+            GameBoardBit board = positions.get(i);
+            NegamaxEngine engine = engines[toMove.get(i)];
+            hashes[i] = board.getZobristHash();
+            moves[i] = engine.selectColumn(board, players, toMove.get(i));
+            scores[i] = engine.getScore();
+            if ((i + 1) % 1000 == 0) {
+                System.out.println("searched " + (i + 1) + " of " + count);
+            }
+        }
+        write(file, hashes, moves, scores);
+        return count;
+    }
+
+    /**
+     * <p>
+     * This adds a position and every position reachable from it in the remaining moves.
+     * </p>
+     *
+     * @param board
+     *      The position, which is restored before returning
+     * @param next
+     *      The index of the player to move
+     * @param plies
+     *      How many more moves the book covers
+     *
+     * @post [ positions holds one copy of every new position with no winner reachable in fewer than plies
+     * moves ] and board = #board
+     */
+    private void collect(GameBoardBit board, int next, int plies) {
+        if (plies == 0 || !seen.add(board.getZobristHash())) {
+            return;
+        }
+        positions.add(board.copy());
+        toMove.add(next);
+        for (int c = 0; c < cols; c++) {
+            if (!board.checkIfFree(c)) {
+                continue;
+            }
+            board.placeToken(players[next], c);
+            if (!board.checkForWin(c) && !board.checkTie()) {
+                collect(board, (next + 1) % players.length, plies - 1);
+            }
+            board.removeToken(c);
+        }
+    }
+
+    /**
+     * <p>
+     * This writes the book file with its entries sorted by hash.
+     * </p>
+     *
+     * @param file
+     *      The file to write
+     * @param hashes
+     *      The hash of each position
+     * @param moves
+     *      The best move of each position
+     * @param scores
+     *      The score of each best move
+     * @throws IOException if the file cannot be written
+     */
+    private void write(Path file, long[] hashes, int[] moves, int[] scores) throws IOException {
+        int count = hashes.length;
+        Integer[] sorted = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (a, b) -> Long.compare(hashes[a], hashes[b]));
+        ByteBuffer out = ByteBuffer.allocate(OpeningBook.HEADER_BYTES + count * OpeningBook.ENTRY_BYTES);
+        out.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION);
+        out.putInt(rows).putInt(cols).putInt(numToWin).putInt(players.length).putInt(count);
+        out.position(OpeningBook.HEADER_BYTES);
+        for (int i : sorted) {
+            out.putLong(hashes[i]).putInt(moves[i]).putInt(scores[i]);
+        }
+        out.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class is a computer player that plays a random column with room. It is the baseline the other
+ * engines are measured against, and the fastest way to play many games.
+ *
+ * @version 2.0
+ */
+public class RandomEngine implements IEngine {
+
+    /**
+     * <p>
+     * The random numbers the moves are picked with
+     * </p>
+     */
+    private SplittableRandom rnd;
+
+    /**
+     * <p>
+     * This creates an engine that plays a different sequence of moves every run.
+     * </p>
+     */
+    public RandomEngine() {
+        this.rnd = new SplittableRandom();
+    }
+
+    /**
+     * <p>
+     * This creates an engine that plays the same sequence of moves every run for the same seed.
+     * </p>
+     *
+     * @param seed
+     *      The seed of the random numbers
+     */
+    public RandomEngine(long seed) {
+        this.rnd = new SplittableRandom(seed);
+    }
+
+    /**
+     * <p>
+     * This picks a column with room, each with the same chance.
+     * </p>
+     *
+     * @param board
+     *      The current board
+     * @param players
+     *      The tokens of every player in the game, in turn order
+     * @param toMove
+     *      The index in players of the player to move
+     * @return the column to play, or -1 if every column is full
+     */
+    @Override
+    public int selectColumn(IGameBoard board, char[] players, int toMove) {
+        int cols = board.getNumColumns();
+        int free = 0;
+        for (int c = 0; c < cols; c++) {
+            if (board.checkIfFree(c)) {
+                free++;
+            }
+        }
+        if (free == 0) {
+            return -1;
+        }
+        // counts down to the chosen free column
+        int pick = rnd.nextInt(free);
+        for (int c = 0; ; c++) {
+            if (board.checkIfFree(c) && pick-- == 0) {
+                return c;
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This starts the random numbers again from a seed.
+     * </p>
+     *
+     * @param seed
+     *      The seed of the random numbers
+     */
+    @Override
+    public void newGame(long seed) {
+        rnd = new SplittableRandom(seed);
+    }
+}
@@ -0,0 +1,176 @@
+package cpsc2150.extendedConnectX.ai;
+
+import java.util.Arrays;
+
+/**
+ * This class is a fixed-size cache of search results keyed by the Zobrist hash of a board. Each entry
+ * holds the score of a position, whether that score is exact or only a bound, how deep it was searched
+ * and the best column found.
+ * <p>
+ * Entries live in one long array as (hash XOR data, data) pairs with no locks. Threads may read and write
+ * the table at the same time; an entry torn by two writers no longer XORs back to its hash, so it reads as
+ * a miss instead of returning the wrong position's data.
+ *
+ * @version 2.0
+ */
+public class TranspositionTable {
+
+    /**
+     * <p>
+     * Constants for the kinds of score an entry can hold: the exact score, a lower bound (the search failed
+     * high) or an upper bound (the search failed low).
+     * </p>
+     */
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    /**
+     * <p>
+     * Constant for the number of entries when no size is given
+     * </p>
+     */
+    public static final int DEFAULT_ENTRIES = 1 << 18;
+
+    /**
+     * <p>
+     * Two longs per entry: the hash XOR the data, then the data
+     * </p>
+     */
+    private final long[] table;
+
+    /**
+     * <p>
+     * The number of entries minus one, used to pick an entry from a hash
+     * </p>
+     */
+    private final int mask;
+
+    /**
+     * <p>
+     * This creates a table with the default number of entries.
+     * </p>
+     */
+    public TranspositionTable() {
+        this(DEFAULT_ENTRIES);
+    }
+
+    /**
+     * <p>
+     * This creates an empty table.
+     * </p>
+     *
+     * @param entries
+     *      The number of entries, rounded down to a power of 2
+     *
+     * @pre entries >= 1
+     */
+    public TranspositionTable(int entries) {
+        int size = Integer.highestOneBit(entries);
+        table = new long[size * 2];
+        mask = size - 1;
+    }
+
+    /**
+     * <p>
+     * This looks up a position.
+     * </p>
+     *
+     * @param hash
+     *      The Zobrist hash of the position
+     * @return the packed data stored for the position, or 0 if it is not in the table
+     */
+    public long probe(long hash) {
+        int i = index(hash);
+        long data = table[i + 1];
+        if (data != 0 && (table[i] ^ data) == hash) {
+            return data;
+        }
+        return 0;
+    }
+
+    /**
+     * <p>
+     * This stores a search result, replacing the entry unless it holds a deeper result for the same position.
+     * </p>
+     *
+     * @param hash
+     *      The Zobrist hash of the position
+     * @param score
+     *      The score of the position
+     * @param depth
+     *      How deep the position was searched
+     * @param bound
+     *      EXACT, LOWER or UPPER
+     * @param move
+     *      The best column found, or -1 if there is none
+     *
+     * @pre 0 <= depth < 256 and -1 <= move < 255
+     */
+    public void store(long hash, int score, int depth, int bound, int move) {
+        int i = index(hash);
+        long old = table[i + 1];
+        if (old != 0 && (table[i] ^ old) == hash && depth(old) > depth) {
+            return;     // keeps the deeper result for the same position
+        }
+        long data = (long) score << 32 | (long) depth << 16 | (long) (move + 1) << 8 | bound;
+        table[i] = hash ^ data;
+        table[i + 1] = data;
+    }
+
+    /**
+     * <p>
+     * This empties the table.
+     * </p>
+     *
+     * @post [ every probe misses ]
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+    }
+
+    /**
+     * @param data
+     *      Data returned by probe
+     * @return the stored score
+     */
+    public static int score(long data) {
+        return (int) (data >> 32);
+    }
+
+    /**
+     * @param data
+     *      Data returned by probe
+     * @return how deep the position was searched
+     */
+    public static int depth(long data) {
+        return (int) (data >>> 16) & 0xFF;
+    }
+
+    /**
+     * @param data
+     *      Data returned by probe
+     * @return EXACT, LOWER or UPPER
+     */
+    public static int bound(long data) {
+        return (int) data & 0xFF;
+    }
+
+    /**
+     * @param data
+     *      Data returned by probe
+     * @return the best column stored, or -1 if there is none
+     */
+    public static int move(long data) {
+        return ((int) (data >>> 8) & 0xFF) - 1;
+    }
+
+    /**
+     * @param hash
+     *      The Zobrist hash of a position
+     * @return the array index of the entry for hash
+     */
+    private int index(long hash) {
+        return ((int) (hash ^ (hash >>> 32)) & mask) << 1;
+    }
+}
@@ -0,0 +1,311 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+import java.util.Arrays;
+
+/**
+ * This class gives the same score as {@link Evaluator}, but keeps it up to date as tokens are placed and
+ * removed instead of scanning the whole board for every score.
+ * <p>
+ * It knows every window of getNumToWin() cells on the board and which windows each cell is in, and keeps
+ * the number of each player's tokens in every window. Placing or removing a token only changes the windows
+ * through that cell, so the running score changes by the difference in those windows and reading it is
+ * O(1).
+ *
+ * @version 2.0
+ */
+public class WindowEvaluator {
+
+    /**
+     * <p>
+     * Row and column steps for horizontal, vertical, up-right and up-left windows
+     * </p>
+     */
+    private static final int[] DR = {0, 1, 1, 1};
+    private static final int[] DC = {1, 0, 1, -1};
+
+    /**
+     * <p>
+     * Constant for the owner of a window with no tokens, or with tokens of more than one player
+     * </p>
+     */
+    private static final int NO_OWNER = -1;
+
+    /**
+     * <p>
+     * The number of columns and players
+     * </p>
+     */
+    private final int cols;
+    private final int numPlayers;
+
+    /**
+     * <p>
+     * The index of the player the score is for
+     * </p>
+     */
+    private final int player;
+
+    /**
+     * <p>
+     * The windows through each cell, by r * cols + c; shared by copies since it never changes
+     * </p>
+     */
+    private final int[][] cellWindows;
+
+    /**
+     * <p>
+     * For each window w: the tokens of player p at counts[w * numPlayers + p], the tokens of every player,
+     * how many players have tokens there, and the only player with tokens there or NO_OWNER
+     * </p>
+     */
+    private final int[] counts;
+    private final int[] total;
+    private final int[] distinct;
+    private final int[] owner;
+
+    /**
+     * <p>
+     * The score of the board for player
+     * </p>
+     */
+    private int score;
+
+    /**
+     * <p>
+     * This creates an evaluator for the tokens already on a board.
+     * </p>
+     *
+     * @param board
+     *      The board to score
+     * @param players
+     *      The tokens of every player in the game, in turn order
+     * @param player
+     *      The index in players of the player the score is for
+     *
+     * @pre [ every token on board is in players ]
+     * @post getScore() = new Evaluator().evaluate(board, players[player])
+     */
+    public WindowEvaluator(IGameBoard board, char[] players, int player) {
+        int rows = board.getNumRows();
+        int n = board.getNumToWin();
+        this.cols = board.getNumColumns();
+        this.numPlayers = players.length;
+        this.player = player;
+
+        // counts the windows first so that every array can be sized exactly
+        int windows = 0;
+        int[] perCell = new int[rows * cols];
+        for (int d = 0; d < 4; d++) {
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    if (fits(r, c, d, n, rows)) {
+                        windows++;
+                        for (int i = 0; i < n; i++) {
+                            perCell[(r + DR[d] * i) * cols + c + DC[d] * i]++;
+                        }
+                    }
+                }
+            }
+        }
+        cellWindows = new int[rows * cols][];
+        for (int cell = 0; cell < perCell.length; cell++) {
+            cellWindows[cell] = new int[perCell[cell]];
+            perCell[cell] = 0;
+        }
+        int w = 0;
+        for (int d = 0; d < 4; d++) {
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    if (fits(r, c, d, n, rows)) {
+                        for (int i = 0; i < n; i++) {
+                            int cell = (r + DR[d] * i) * cols + c + DC[d] * i;
+                            cellWindows[cell][perCell[cell]++] = w;
+                        }
+                        w++;
+                    }
+                }
+            }
+        }
+
+        counts = new int[windows * numPlayers];
+        total = new int[windows];
+        distinct = new int[windows];
+        owner = new int[windows];
+        Arrays.fill(owner, NO_OWNER);
+        for (int c = 0; c < cols; c++) {
+            for (int r = 0; r < board.getColumnHeight(c); r++) {
+                place(r, c, indexOf(players, board.whatsAtPos(r, c)));
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This is the copy constructor, for giving another search thread its own evaluator.
+     * </p>
+     *
+     * @param other
+     *      The evaluator to copy
+     *
+     * @post self = other AND later changes to self or other do not affect the other evaluator
+     */
+    public WindowEvaluator(WindowEvaluator other) {
+        cols = other.cols;
+        numPlayers = other.numPlayers;
+        player = other.player;
+        cellWindows = other.cellWindows;
+        counts = other.counts.clone();
+        total = other.total.clone();
+        distinct = other.distinct.clone();
+        owner = other.owner.clone();
+        score = other.score;
+    }
+
+    /**
+     * <p>
+     * This adds a token to the windows through its cell.
+     * </p>
+     *
+     * @param r
+     *      The row of the token
+     * @param c
+     *      The column of the token
+     * @param p
+     *      The index of the player whose token it is
+     *
+     * @pre [ the cell was empty ] and 0 <= p < numPlayers
+     * @post [ getScore() is the score with the token added ]
+     */
+    public void place(int r, int c, int p) {
+        for (int w : cellWindows[r * cols + c]) {
+            score -= value(w);
+            if (counts[w * numPlayers + p]++ == 0) {
+                distinct[w]++;
+                owner[w] = distinct[w] == 1 ? p : NO_OWNER;
+            }
+            total[w]++;
+            score += value(w);
+        }
+    }
+
+    /**
+     * <p>
+     * This takes a token back out of the windows through its cell.
+     * </p>
+     *
+     * @param r
+     *      The row of the token
+     * @param c
+     *      The column of the token
+     * @param p
+     *      The index of the player whose token it is
+     *
+     * @pre [ p's token was placed at the cell ]
+     * @post [ getScore() is the score with the token removed ]
+     */
+    public void remove(int r, int c, int p) {
+        for (int w : cellWindows[r * cols + c]) {
+            score -= value(w);
+            if (--counts[w * numPlayers + p] == 0) {
+                distinct[w]--;
+                owner[w] = distinct[w] == 1 ? remainingOwner(w) : NO_OWNER;
+            }
+            total[w]--;
+            score += value(w);
+        }
+    }
+
+    /**
+     * <p>
+     * This returns the score of the board.
+     * </p>
+     *
+     * @return the weight of player's open windows minus the weight of everyone else's
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * <p>
+     * This returns how much one window adds to the score.
+     * </p>
+     *
+     * @param w
+     *      The window
+     * @return +weight if only player has tokens in the window, -weight if only one other player does, else 0
+     */
+    private int value(int w) {
+        if (owner[w] == NO_OWNER) {
+            return 0;
+        }
+        int weight = Evaluator.weight(total[w]);
+        return owner[w] == player ? weight : -weight;
+    }
+
+    /**
+     * <p>
+     * This finds the one player left with tokens in a window.
+     * </p>
+     *
+     * @param w
+     *      The window
+     * @return the player with tokens in w
+     *
+     * @pre distinct[w] = 1
+     */
+    private int remainingOwner(int w) {
+        for (int p = 0; p < numPlayers; p++) {
+            if (counts[w * numPlayers + p] > 0) {
+                return p;
+            }
+        }
+        return NO_OWNER;
+    }
+
+    /**
+     * <p>
+     * This checks whether a window stays on the board.
+     * </p>
+     *
+     * @param r
+     *      The row of the first cell of the window
+     * @param c
+     *      The column of the first cell of the window
+     * @param d
+     *      The direction of the window
+     * @param n
+     *      The length of the window
+     * @param rows
+     *      The number of rows
+     * @return true if every cell of the window is on the board
+     */
+    private boolean fits(int r, int c, int d, int n, int rows) {
+        int endR = r + DR[d] * (n - 1);
+        int endC = c + DC[d] * (n - 1);
+        return endR < rows && endC >= 0 && endC < cols;
+    }
+
+    /**
+     * <p>
+     * This finds a player's index.
+     * </p>
+     *
+     * @param players
+     *      The tokens of every player
+     * @param t
+     *      A player's token
+     * @return the index of t in players
+     *
+     * @pre t is in players
+     */
+    private static int indexOf(char[] players, char t) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i] == t) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
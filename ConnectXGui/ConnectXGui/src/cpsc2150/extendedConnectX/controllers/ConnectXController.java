@@ -1,8 +1,12 @@
 package cpsc2150.extendedConnectX.controllers;
 
+import cpsc2150.extendedConnectX.ai.*;
 import cpsc2150.extendedConnectX.models.*;
+import cpsc2150.extendedConnectX.records.*;
 import cpsc2150.extendedConnectX.views.*;
-import java.util.*;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import javax.swing.SwingWorker;
 
 /**
  * The controller class will handle communication between our View and our Model ({@link IGameBoard})
@@ -19,10 +23,10 @@ public class ConnectXController {
 
     /**
      * <p>
-     * The current game that is being played
+     * The rules and state of the game that is being played
      * </p>
      */
-    private IGameBoard curGame;
+    private GameSession session;
 
     /**
      * <p>
@@ -36,37 +40,45 @@ public class ConnectXController {
      * Constant for the maximum number of players.
      * </p>
      */
-    public static final int MAX_PLAYERS = 10;
-    
+    public static final int MAX_PLAYERS = GameSession.MAX_PLAYERS;
+
     /**
      * <p>
-     * The number of players for this game. Note that our player tokens are hard coded.
+     * The engine playing for each player, or null for players that use the buttons
      * </p>
      */
-    private int numPlayers;
+    private IEngine[] engines;
 
     /**
      * <p>
-     * The private int for which player is currently playing.
+     * Whether a computer player is choosing a move off the event dispatch thread
+     * </p>
      */
-    private int curPlayer;
+    private boolean thinking = false;
+
     /**
      * <p>
-     * char array for the players.
+     * The background search for the computer player to move, or null if none is running
+     * </p>
      */
-    private char[] players;
+    private SwingWorker<Integer, Void> worker;
 
     /**
      * <p>
-     * List to keep track of the rows for each column
+     * Whether the game was stopped because a computer player could not pick a move
+     * </p>
      */
-    ArrayList<Integer> colList = new ArrayList<Integer>();
+    private boolean halted = false;
 
     /**
      * <p>
-     * boolean to keep track of if a player has won
+     * The journal every accepted move is written to, or null if the game is not journaled, and the id of
+     * this game in it
+     * </p>
      */
-    private boolean win;
+    private MoveJournal journal;
+    private long journalId;
+
     /**
      * <p>
      * This creates a controller for running the Extended ConnectX game
@@ -82,16 +94,105 @@ public class ConnectXController {
      * @post [ the controller will respond to actions on the view using the model. ]
      */
     public ConnectXController(IGameBoard model, ConnectXView view, int np) {
-        this.curGame = model;
+        this(model, view, np, new IEngine[np]);
+    }
+
+    /**
+     * <p>
+     * This creates a controller for running the Extended ConnectX game where some players are computers
+     * </p>
+     * 
+     * @param model
+     *      The board implementation
+     * @param view
+     *      The screen that is shown
+     * @param np
+     *      The number of players for this game.
+     * @param engines
+     *      The engine for each player, or null for the players that use the buttons
+     * 
+     * @pre engines.length = np
+     * @post [ the controller will respond to actions on the view using the model, and the computer players
+     * will move in the background until it is a person's turn ]
+     */
+    public ConnectXController(IGameBoard model, ConnectXView view, int np, IEngine[] engines) {
+        this(model, view, np, engines, null);
+    }
+
+    /**
+     * <p>
+     * This creates a controller for running the Extended ConnectX game where every accepted move is written
+     * to a journal, so the game can be resumed if the program crashes
+     * </p>
+     * 
+     * @param model
+     *      The board implementation
+     * @param view
+     *      The screen that is shown
+     * @param np
+     *      The number of players for this game.
+     * @param engines
+     *      The engine for each player, or null for the players that use the buttons
+     * @param journal
+     *      The journal to write the game to, or null to not journal it
+     * 
+     * @pre engines.length = np and model is empty
+     * @post [ the controller will respond to actions on the view using the model, the game is open in the
+     * journal, and the computer players will move in the background until it is a person's turn ]
+     */
+    public ConnectXController(IGameBoard model, ConnectXView view, int np, IEngine[] engines,
+                              MoveJournal journal) {
+        this.session = new GameSession(model, np);
         this.screen = view;
-        this.numPlayers = np;
-        // Some code is needed here.
-        players = new char[]{'X', 'O', 'H', 'D', 'A', 'B', 'K', 'G', 'F', 'S'};
-        curPlayer = 0;
-        win = false;
-        for (int i = 0; i < curGame.getNumColumns(); i++) {
-            colList.add(0);
+        this.engines = engines;
+        if (journal != null) {
+            try {
+                this.journalId = journal.begin(model.getNumRows(), model.getNumColumns(), model.getNumToWin(), np);
+                this.journal = journal;
+            } catch (IOException e) {
+                screen.setMessage("It is " + session.getCurrentPlayer() + "'s turn. The game is not journaled: "
+                        + e.getMessage());
+            }
         }
+        playComputerTurns();
+    }
+
+    /**
+     * <p>
+     * This creates a controller for a game rebuilt from a journal after a crash
+     * </p>
+     * 
+     * @param session
+     *      The rebuilt game
+     * @param view
+     *      The screen that is shown
+     * @param journal
+     *      The journal the game was rebuilt from
+     * @param id
+     *      The id of the game in the journal
+     * 
+     * @pre session is not over and [ view is empty and has the size of the session's board ]
+     * @post [ the view shows the board, the controller will respond to actions on the view using the session,
+     * and further moves are written to the journal under id until the game ends or its window is closed.
+     * Every player uses the buttons ]
+     */
+    public ConnectXController(GameSession session, ConnectXView view, MoveJournal journal, long id) {
+        this.session = session;
+        this.screen = view;
+        this.engines = new IEngine[session.getNumPlayers()];
+        this.journal = journal;
+        this.journalId = id;
+        IGameBoard board = session.getBoard();
+        for (int r = 0; r < board.getNumRows(); r++) {
+            for (int c = 0; c < board.getNumColumns(); c++) {
+                char token = board.whatsAtPos(r, c);
+                if (token != ' ') {
+                    screen.setMarker(r, c, token);
+                }
+            }
+        }
+        screen.setMessage("Game resumed. It is " + session.getCurrentPlayer()
+                + "'s turn. Close the window to discard the game.");
     }
 
     /**
@@ -107,36 +208,179 @@ public class ConnectXController {
      * game hitting any button ]
      */
     public void processButtonClick(int col) {
-        // Your code goes here.
-        String playerTurn = "";
-        if (win) {
-            win = false;
+        // the board can't change while a computer player is searching it
+        if (thinking) {
+            screen.setMessage("Player " + session.getCurrentPlayer() + " is thinking.");
+            return;
+        }
+        // a person can't take over the seat of a computer player that failed, so the game can only start over
+        if (session.isOver() || halted) {
             newGame();
+            return;
         }
-        //check if the column is full
-        if (curGame.checkIfFree(col)) {
-            //place the token
-            if (curPlayer + 1 == numPlayers) {
-                playerTurn = "It is " + players[0] + "'s turn.";
-            } else {
-                playerTurn = "It is " + players[curPlayer+1] + "'s turn.";
-            }
-            screen.setMessage(playerTurn);
-            curGame.placeToken(players[curPlayer], col);
-            screen.setMarker(colList.get(col), col, players[curPlayer]);
-            colList.set(col, colList.get(col) + 1);
-            //check for a win
-            if (curGame.checkForWin(col)) {
-                screen.setMessage("Player " + players[curPlayer] + " wins! Press any button to play again.");
-                win = true;
-            } else if (curGame.checkTie()) {
-                screen.setMessage("It's a tie! Press any button to play again.");
-                win = true;
+        if (makeMove(col)) {
+            playComputerTurns();
+        }
+    }
+
+    /**
+     * <p>
+     * This processes the view's window being closed, stopping any computer player's search and ending the
+     * game in the journal so that it is not resumed the next time the program starts.
+     * </p>
+     * 
+     * @post [ no computer player moves again, the game is no longer open in the journal and no more moves
+     * are written to it ]
+     */
+    public void processWindowClose() {
+        if (worker != null) {
+            worker.cancel(true);
+            worker = null;
+        }
+        endJournal();
+    }
+
+    /**
+     * <p>
+     * This ends the game in the journal if it is still open there, and stops journaling it.
+     * </p>
+     * 
+     * @post [ the game is no longer open in the journal ] and journal = null
+     */
+    private void endJournal() {
+        if (journal == null) {
+            return;
+        }
+        if (!session.isOver()) {
+            try {
+                journal.end(journalId);
+                journal.commit();
+            } catch (IOException e) {
+                // the game is offered again on the next start, where it can still be closed
             }
-        } else {
+        }
+        journal = null;
+    }
+
+    /**
+     * <p>
+     * This plays a column for the current player and shows the result on the screen.
+     * </p>
+     * 
+     * @param col 
+     *      The column to play
+     * @return true if the move was made
+     * 
+     * @post [ the token is shown on the screen with a message for what happens next, or the screen says the
+     * column is full ]
+     */
+    private boolean makeMove(int col) {
+        MoveResult result = session.play(col);
+        //check if the column is full
+        if (!result.isAccepted()) {
             screen.setMessage("Column is full");
+            return false;
         }
-        curPlayer = (curPlayer + 1) % numPlayers;
+        BoardPosition pos = result.getPosition();
+        screen.setMarker(pos.getRow(), pos.getColumn(), result.getPlayer());
+        String message;
+        //check for a win
+        if (result.isWin()) {
+            message = "Player " + result.getPlayer() + " wins! Press any button to play again.";
+        } else if (result.isTie()) {
+            message = "It's a tie! Press any button to play again.";
+        } else {
+            message = "It is " + result.getNextPlayer() + "'s turn.";
+        }
+        String error = journal(col, result.isWin() || result.isTie());
+        if (error != null) {
+            message += " The game is no longer journaled: " + error;
+        }
+        screen.setMessage(message);
+        return true;
+    }
+
+    /**
+     * <p>
+     * This writes an accepted move to the journal. The journal commits it to the disk in the background
+     * along with any other moves made since its last commit.
+     * </p>
+     * 
+     * @param col 
+     *      The column that was played
+     * @param over
+     *      Whether the move ended the game
+     * @return why the journal could not be written, or null if it was or the game is not journaled
+     * 
+     * @post [ the move, and the end of the game if over, are in the journal, or the game is no longer
+     * journaled if the journal could not be written ]
+     */
+    private String journal(int col, boolean over) {
+        if (journal == null) {
+            return null;
+        }
+        try {
+            journal.move(journalId, col);
+            if (over) {
+                journal.end(journalId);
+            }
+            return null;
+        } catch (IOException e) {
+            journal = null;
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * <p>
+     * This lets the computer players move until it is a person's turn or the game is over. Each search runs
+     * on a background thread so that the screen keeps responding, and the move is made back on the event
+     * dispatch thread when the search is done. If the search fails the game is stopped, since nobody else
+     * may play the computer player's seat.
+     * </p>
+     * 
+     * @post [ the game is over, the current player has no engine, or a search for the current player has
+     * been started and thinking = true ]
+     */
+    private void playComputerTurns() {
+        if (session.isOver() || engines[session.getCurrentPlayerIndex()] == null) {
+            return;
+        }
+        IEngine engine = engines[session.getCurrentPlayerIndex()];
+        IGameBoard board = session.getBoard();
+        char[] players = session.getPlayers();
+        int toMove = session.getCurrentPlayerIndex();
+        thinking = true;
+        worker = new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                return engine.selectColumn(board, players, toMove);
+            }
+
+            @Override
+            protected void done() {
+                // the window was closed, maybe after the search finished but before this ran
+                if (isCancelled() || worker != this) {
+                    return;
+                }
+                worker = null;
+                thinking = false;
+                int col;
+                try {
+                    col = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    halted = true;
+                    endJournal();
+                    screen.setMessage("Player " + session.getCurrentPlayer()
+                            + " could not pick a move, so the game is over. Press any button to play again.");
+                    return;
+                }
+                if (makeMove(col)) {
+                    playComputerTurns();
+                }
+            }
+        };
+        worker.execute();
     }
 
     /**
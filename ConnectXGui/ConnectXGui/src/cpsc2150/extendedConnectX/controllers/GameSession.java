@@ -0,0 +1,177 @@
+package cpsc2150.extendedConnectX.controllers;
+
+import cpsc2150.extendedConnectX.models.*;
+import java.util.Arrays;
+
+/**
+ * This class holds the rules of one game of Extended ConnectX with no user interface attached. It
+ * owns the {@link IGameBoard} model, rotates the turn over the players and decides when the game is
+ * won or tied.
+ * <p>
+ * Each call to {@link #play(int)} takes a column for the current player and returns a {@link MoveResult}.
+ * The Swing {@link ConnectXController} is a thin adapter over this class, and the same class can be
+ * driven without AWT on a server or in a simulation.
+ *
+ * @version 2.0
+ */
+public class GameSession {
+
+    /**
+     * <p>
+     * Constant for the maximum number of players.
+     * </p>
+     */
+    public static final int MAX_PLAYERS = 10;
+
+    /**
+     * <p>
+     * The tokens for each player, in turn order. Note that our player tokens are hard coded.
+     * </p>
+     */
+    private static final char[] TOKENS = {'X', 'O', 'H', 'D', 'A', 'B', 'K', 'G', 'F', 'S'};
+
+    /**
+     * <p>
+     * The current game that is being played
+     * </p>
+     */
+    private final IGameBoard curGame;
+
+    /**
+     * <p>
+     * The number of players for this game.
+     * </p>
+     */
+    private final int numPlayers;
+
+    /**
+     * <p>
+     * The index of the player whose turn it is
+     * </p>
+     */
+    private int curPlayer;
+
+    /**
+     * <p>
+     * Whether the game has been won or tied
+     * </p>
+     */
+    private boolean over;
+
+    /**
+     * <p>
+     * The player who won, or ' ' if nobody has won
+     * </p>
+     */
+    private char winner;
+
+    /**
+     * <p>
+     * This creates a session for a new game
+     * </p>
+     *
+     * @param model
+     *      The empty board implementation
+     * @param np
+     *      The number of players for this game
+     *
+     * @pre 2 <= np <= MAX_PLAYERS and model is empty
+     * @post [ a game on model with np players where it is the first player's turn ]
+     */
+    public GameSession(IGameBoard model, int np) {
+        curGame = model;
+        numPlayers = np;
+        curPlayer = 0;
+        over = false;
+        winner = ' ';
+    }
+
+    /**
+     * <p>
+     * This plays the current player's token in a column.
+     * </p>
+     *
+     * @param col
+     *      The column to play in
+     * @return the result of the move
+     *
+     * @post [ if the game is not over and col is a column with room, the current player's token is placed
+     * in col, the game is marked over on a win or tie, and the turn passes to the next player. Otherwise
+     * the game is unchanged and the result is not accepted ]
+     */
+    public MoveResult play(int col) {
+        char player = TOKENS[curPlayer];
+        if (over || col < 0 || col >= curGame.getNumColumns() || !curGame.checkIfFree(col)) {
+            return new MoveResult(false, player, null, false, false, player);
+        }
+        curGame.placeToken(player, col);
+        boolean win = curGame.checkForWin(col);
+        boolean tie = !win && curGame.checkTie();
+        if (win) {
+            winner = player;
+        }
+        over = win || tie;
+        curPlayer = (curPlayer + 1) % numPlayers;
+        return new MoveResult(true, player, curGame.getLastPlacedPosition(), win, tie, TOKENS[curPlayer]);
+    }
+
+    /**
+     * @return the board for this game
+     */
+    public IGameBoard getBoard() {
+        return curGame;
+    }
+
+    /**
+     * @return the number of players in this game
+     */
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * @return the index of the player whose turn it is
+     */
+    public int getCurrentPlayerIndex() {
+        return curPlayer;
+    }
+
+    /**
+     * @return the token of the player whose turn it is
+     */
+    public char getCurrentPlayer() {
+        return TOKENS[curPlayer];
+    }
+
+    /**
+     * @param i
+     *      The index of a player in turn order
+     * @return the token of player i
+     *
+     * @pre 0 <= i < MAX_PLAYERS
+     */
+    public static char getToken(int i) {
+        return TOKENS[i];
+    }
+
+    /**
+     * @return the tokens of the players in this game, in turn order
+     */
+    public char[] getPlayers() {
+        return Arrays.copyOf(TOKENS, numPlayers);
+    }
+
+    /**
+     * @return true if the game has been won or tied
+     */
+    public boolean isOver() {
+        return over;
+    }
+
+    /**
+     * @return the token of the winner, or ' ' if nobody has won
+     */
+    public char getWinner() {
+        return winner;
+    }
+}
@@ -0,0 +1,128 @@
+package cpsc2150.extendedConnectX.controllers;
+
+import cpsc2150.extendedConnectX.models.*;
+
+/**
+ * This class is the outcome of one call to {@link GameSession#play(int)}. It says whether the move was
+ * accepted, where the token landed, whether it won or tied the game and whose turn it is next.
+ * <p>
+ * Move results are immutable.
+ *
+ * @version 2.0
+ */
+public class MoveResult {
+
+    /**
+     * <p>
+     * Whether the move was made
+     * </p>
+     */
+    private final boolean accepted;
+
+    /**
+     * <p>
+     * The player who made the move
+     * </p>
+     */
+    private final char player;
+
+    /**
+     * <p>
+     * Where the token landed, or null if the move was not accepted
+     * </p>
+     */
+    private final BoardPosition position;
+
+    /**
+     * <p>
+     * Whether the move won the game
+     * </p>
+     */
+    private final boolean win;
+
+    /**
+     * <p>
+     * Whether the move filled the board without a winner
+     * </p>
+     */
+    private final boolean tie;
+
+    /**
+     * <p>
+     * The player whose turn it is after this move
+     * </p>
+     */
+    private final char nextPlayer;
+
+    /**
+     * <p>
+     * This creates a move result.
+     * </p>
+     *
+     * @param accepted
+     *      Whether the move was made
+     * @param player
+     *      The player who made (or tried to make) the move
+     * @param position
+     *      Where the token landed, or null if the move was not accepted
+     * @param win
+     *      Whether the move won the game
+     * @param tie
+     *      Whether the move tied the game
+     * @param nextPlayer
+     *      The player whose turn it is after this move
+     *
+     * @post [ the result holds the given values ]
+     */
+    public MoveResult(boolean accepted, char player, BoardPosition position, boolean win, boolean tie,
+                      char nextPlayer) {
+        this.accepted = accepted;
+        this.player = player;
+        this.position = position;
+        this.win = win;
+        this.tie = tie;
+        this.nextPlayer = nextPlayer;
+    }
+
+    /**
+     * @return true if the move was made, false if the column was full, out of range or the game was over
+     */
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    /**
+     * @return the player who made (or tried to make) the move
+     */
+    public char getPlayer() {
+        return player;
+    }
+
+    /**
+     * @return the position the token landed in, or null if the move was not accepted
+     */
+    public BoardPosition getPosition() {
+        return position;
+    }
+
+    /**
+     * @return true if the move won the game
+     */
+    public boolean isWin() {
+        return win;
+    }
+
+    /**
+     * @return true if the move filled the board without a winner
+     */
+    public boolean isTie() {
+        return tie;
+    }
+
+    /**
+     * @return the player whose turn it is after this move
+     */
+    public char getNextPlayer() {
+        return nextPlayer;
+    }
+}
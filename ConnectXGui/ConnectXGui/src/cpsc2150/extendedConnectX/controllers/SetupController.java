@@ -1,6 +1,8 @@
 package cpsc2150.extendedConnectX.controllers;
 
+import cpsc2150.extendedConnectX.ai.*;
 import cpsc2150.extendedConnectX.models.*;
+import cpsc2150.extendedConnectX.records.*;
 import cpsc2150.extendedConnectX.views.*;
 
 /**
@@ -34,10 +36,10 @@ public class SetupController {
      * choosing between Gameboard and GameboardMem.
      * </p>
      */
-    private final int MAX_SIZE = 20;
-    private final int MIN_SIZE = 3;
-    private final int MIN_TO_WIN = 3;
-    private final int BOARD_CUTOFF = 100;
+    public static final int MAX_SIZE = 20;
+    public static final int MIN_SIZE = 3;
+    public static final int MIN_TO_WIN = 3;
+    private static final int BOARD_CUTOFF = 100;
 
     /**
      * <p>
@@ -66,6 +68,95 @@ public class SetupController {
      *      Number of tokens in a row required to win
      */
     public void processButtonClick(int rows, int cols, int players, int numWin) {
+        processButtonClick(rows, cols, players, numWin, new int[0], NegamaxEngine.DEFAULT_DEPTH,
+                NegamaxEngine.DEFAULT_MOVE_MILLIS);
+    }
+
+    /**
+     * <p>
+     * This processes the submit button click for a game that may have computer players.
+     * </p>
+     * 
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param players
+     *      Number of players for this game
+     * @param numWin
+     *      Number of tokens in a row required to win
+     * @param computers
+     *      The numbers (starting at 1) of the players the computer plays for
+     * @param depth
+     *      The most moves ahead the computer players search
+     * @param moveMillis
+     *      How long a computer player may take for a move in milliseconds, or 0 for no limit
+     */
+    public void processButtonClick(int rows, int cols, int players, int numWin, int[] computers, int depth,
+                                   long moveMillis) {
+        String errorMsg = validate(rows, cols, numWin, players);
+
+        for (int computer : computers) {
+            if (computer < 1 || computer > players) {
+                errorMsg += "Computer players must be between 1 and " + players;
+                break;
+            }
+        }
+
+        if (computers.length > 0 && (depth < NegamaxEngine.MIN_DEPTH || depth > NegamaxEngine.MAX_DEPTH)) {
+            errorMsg += "Depth must be between " + NegamaxEngine.MIN_DEPTH + " and " + NegamaxEngine.MAX_DEPTH;
+        }
+
+        if (computers.length > 0 && moveMillis < 0) {
+            errorMsg += "Move time can't be negative";
+        }
+
+        if (!errorMsg.equals("")) {
+            view.displayError(errorMsg);
+        } else {
+            view.closeScreen();
+            IGameBoard model = newBoard(rows, cols, numWin);
+
+            // the computer plays for the chosen player numbers, from the opening book if there is one and
+            // perfectly once the board is nearly full; with more than two players tree search replaces
+            // alpha-beta, whose paranoid search treats every other player as one opponent
+            IEngine[] engines = new IEngine[players];
+            OpeningBook book = computers.length > 0 ? OpeningBook.find(rows, cols, numWin, players) : null;
+            // a solve that runs out of its share of the move time leaves the rest to the search
+            long solveMillis = moveMillis / 4;
+            for (int computer : computers) {
+                IEngine search = players > 2
+                        ? new MctsEngine(MctsEngine.DEFAULT_ITERATIONS, moveMillis - solveMillis)
+                        : new NegamaxEngine(depth, moveMillis - solveMillis);
+                IEngine engine = new EndgameSolver(search, solveMillis);
+                engines[computer - 1] = book == null ? engine : new BookEngine(book, engine);
+            }
+
+            ConnectXView tview = new ConnectXView(rows, cols);
+            ConnectXController tcontroller = new ConnectXController(model, tview, players, engines,
+                    MoveJournal.find());
+
+            tview.registerObserver(tcontroller);
+        }
+    }
+
+    /**
+     * <p>
+     * This checks a game configuration. The server checks the games its clients start with it too, so
+     * both accept the same games.
+     * </p>
+     *
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param numWin
+     *      Number of tokens in a row required to win
+     * @param players
+     *      Number of players for this game
+     * @return an error message, or "" if the configuration is valid
+     */
+    public static String validate(int rows, int cols, int numWin, int players) {
         String errorMsg = "";
         if (rows < MIN_SIZE || rows > MAX_SIZE) {
             errorMsg += "Rows must be between " + MIN_SIZE + " and " + MAX_SIZE;
@@ -87,23 +178,30 @@ public class SetupController {
             errorMsg += "Number to win must be at least " + MIN_TO_WIN;
         }
 
-        if (!errorMsg.equals("")) {
-            view.displayError(errorMsg);
-        } else {
-            view.closeScreen();
-            IGameBoard model;
-            
-            // if the board is too big we'll want the memory efficient version
-            if (rows * cols > BOARD_CUTOFF) {
-                model = new GameBoardMem(rows, cols, numWin);
-            } else {
-                model = new GameBoard(rows, cols, numWin);
-            }
-
-            ConnectXView tview = new ConnectXView(rows, cols);
-            ConnectXController tcontroller = new ConnectXController(model, tview, players);
+        if (players < 2 || players > GameSession.MAX_PLAYERS) {
+            errorMsg += "Players must be between 2 and " + GameSession.MAX_PLAYERS;
+        }
+        return errorMsg;
+    }
 
-            tview.registerObserver(tcontroller);
+    /**
+     * <p>
+     * This creates the board implementation used for a game of the given size.
+     * </p>
+     *
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param numWin
+     *      Number of tokens in a row required to win
+     * @return an empty board
+     */
+    public static IGameBoard newBoard(int rows, int cols, int numWin) {
+        // if the board is too big we'll want the memory efficient version
+        if (rows * cols > BOARD_CUTOFF) {
+            return new GameBoardMem(rows, cols, numWin);
         }
+        return new GameBoard(rows, cols, numWin);
     }
 }
\ No newline at end of file
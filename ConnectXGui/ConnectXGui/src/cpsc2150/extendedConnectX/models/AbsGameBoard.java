@@ -1,4 +1,5 @@
 package cpsc2150.extendedConnectX.models;
+import java.util.Arrays;
 
 /**
  *  @author Himanshu Pallath
@@ -7,6 +8,143 @@ package cpsc2150.extendedConnectX.models;
  *  contains an overridden toString() method that creates the string for the board
  */
 public abstract class AbsGameBoard implements IGameBoard {
+    private int[] moves;                 // The column of each token's move, oldest first, grown as needed
+    private int occupied = 0;            // The number of tokens on the board
+    private int lastRow = -1;            // The row of the last token placed
+    private int lastColumn = -1;         // The column of the last token placed
+
+    /**
+     * Constructor: This sets up an empty move list
+     * @param capacity the number of moves the move list holds before it has to grow
+     *
+     * @pre
+     *          capacity {@code >} 0
+     * @post
+     *          occupied = 0 AND lastRow = -1 AND lastColumn = -1
+     */
+    protected AbsGameBoard(int capacity) {
+        moves = new int[capacity];
+    }
+
+    /**
+     * This is the copy constructor, which copies the move list and last placed position
+     * @param other the board to copy
+     *
+     * @post
+     *          moves, occupied, lastRow and lastColumn are the same as other's AND
+     *          later changes to self or other do not affect the other board
+     */
+    protected AbsGameBoard(AbsGameBoard other) {
+        moves = other.moves.clone();
+        occupied = other.occupied;
+        lastRow = other.lastRow;
+        lastColumn = other.lastColumn;
+    }
+
+    /**
+     * This method puts a move on the move list. Each model calls it after placing the token
+     *
+     * @param r the row the token was placed in
+     * @param c the column the token was placed in
+     * @post
+     *          moves[#occupied] = c AND occupied = #occupied + 1 AND lastRow = r AND lastColumn = c
+     */
+    protected void pushMove(int r, int c) {
+        if (occupied == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[occupied++] = c;
+        lastRow = r;
+        lastColumn = c;
+    }
+
+    /**
+     * This method takes the latest move in column c off the move list. That is the last move unless
+     * tokens are taken out of order, so a search that undoes its own moves never loops. Each model calls
+     * it after taking the token out, so getColumnHeight already counts one token fewer
+     *
+     * @param c the column whose top token was removed
+     *
+     * @pre
+     *          c is in moves[0..occupied-1]
+     * @post
+     *          the latest c was removed from moves AND occupied = #occupied - 1 AND
+     *          lastRow and lastColumn are the cell of the latest move left, or -1 if there is none
+     */
+    protected void popMove(int c) {
+        int i = occupied - 1;
+        while (moves[i] != c) {
+            i--;
+        }
+        // closes the gap when a token is taken out of order
+        System.arraycopy(moves, i + 1, moves, i, occupied - 1 - i);
+        occupied--;
+        // the top token of the latest move's column is that move's token
+        lastColumn = occupied > 0 ? moves[occupied - 1] : -1;
+        lastRow = occupied > 0 ? getColumnHeight(lastColumn) - 1 : -1;
+    }
+
+    /**
+     * This function returns the position of the last token placed on the board
+     * @return the position of the last token placed, or null if the board is empty
+     * @post
+     *          getLastPlacedPosition = [ the position of the last token placed ]
+     */
+    @Override
+    public BoardPosition getLastPlacedPosition() {
+        if (lastRow < 0) {
+            return null;
+        }
+        return BoardPosition.of(lastRow, lastColumn);
+    }
+
+    /**
+     * This function returns the row of the last token placed on the board
+     * @return the row of the last token placed, or -1 if the board is empty
+     * @post
+     *          getLastRow = lastRow
+     */
+    protected int getLastRow() {
+        return lastRow;
+    }
+
+    /**
+     * This function returns the column of the last token placed on the board
+     * @return the column of the last token placed, or -1 if the board is empty
+     * @post
+     *          getLastColumn = lastColumn
+     */
+    protected int getLastColumn() {
+        return lastColumn;
+    }
+
+    /**
+     * This method returns the number of tokens on the board
+     * @return the number of tokens on the board
+     *
+     * @post
+     *          getOccupiedCount = occupied
+     */
+    @Override
+    public int getOccupiedCount() {
+        return occupied;    // returns the number of tokens placed
+    }
+
+    /**
+     * This method returns the column of a move on the move list
+     * @param i the index of the move, 0 for the oldest token still on the board
+     * @return the column of the i-th move
+     *
+     * @pre
+     *          0 {@code <=} i {@code <} getOccupiedCount()
+     * @post
+     *          getMoveColumn = moves[i]
+     */
+    @Override
+    public int getMoveColumn(int i) {
+        return moves[i];    // returns the column of the move
+    }
+
     /**
      * The toString function returns a string that shows the entire gameboard
      *
@@ -30,8 +168,7 @@ public abstract class AbsGameBoard implements IGameBoard {
         // this for loop adds the rest of the board
         for (int i = getNumRows()-1; i >= 0; i--) {
             for (int j = 0; j < getNumColumns(); j++) {
-                BoardPosition pos = new BoardPosition(i, j);    // creates a new position
-                gameBoard += "|" + whatsAtPos(pos) + " ";        // adds the character at the position
+                gameBoard += "|" + whatsAtPos(i, j) + " ";        // adds the character at the position
             }
             gameBoard += "|\n";     // adds the last barrier and a new line
         }
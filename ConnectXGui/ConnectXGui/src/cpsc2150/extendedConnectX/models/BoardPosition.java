@@ -8,11 +8,25 @@ package cpsc2150.extendedConnectX.models;
  * @author Himanshu Pallath
  * @version 1.0
  *
+ * <p>BoardPositions are immutable, so the positions on boards up to MAX_CACHED x MAX_CACHED are
+ *    created once and shared through {@link #of(int, int)} instead of being allocated on every call</p>
+ *
  * @invariants 0 {@code <=} row {@code <=} getNumRows() AND 0 {@code <=} column {@code <=} getNumColumns()
  */
 public class BoardPosition {
-    private int board_Row;
-    private int board_Column;
+    private static final int MAX_CACHED = 20;  // The largest board size whose positions are shared
+    private static final BoardPosition[] CACHE = new BoardPosition[MAX_CACHED * MAX_CACHED];
+    private final int board_Row;
+    private final int board_Column;
+
+    static {
+        // creates every position of the largest board once
+        for (int r = 0; r < MAX_CACHED; r++) {
+            for (int c = 0; c < MAX_CACHED; c++) {
+                CACHE[r * MAX_CACHED + c] = new BoardPosition(r, c);
+            }
+        }
+    }
 
     /**
      * This is the constructor for the class that initializes the row and column
@@ -31,6 +45,27 @@ public class BoardPosition {
         board_Column = column; // column
     }
 
+    /**
+     * This is a factory function which returns the shared position for a row and column
+     * @param row row on the game board
+     * @param column column on the game board
+     * @return a position equal to new BoardPosition(row, column)
+     *
+     * @pre
+     *          row {@code >=} 0 AND column {@code >=} 0
+     *
+     * @post
+     *          of.getRow() = row AND of.getColumn() = column AND
+     *          of is the same object for every call with the same row and column when
+     *          row {@code <} MAX_CACHED AND column {@code <} MAX_CACHED
+     */
+    public static BoardPosition of(int row, int column) {
+        if (row < MAX_CACHED && column < MAX_CACHED) {
+            return CACHE[row * MAX_CACHED + column];
+        }
+        return new BoardPosition(row, column);  // bigger boards fall back to a new position
+    }
+
     /**
      * This is a getter function which returns the row
      *
@@ -83,6 +118,20 @@ public class BoardPosition {
         return false; // return false if the object is not an instance of BoardPosition
     }
 
+    /**
+     * The hashCode function is an overridden function from the Object class which returns a hash
+     * consistent with equals
+     *
+     * @return a hash of the row and column
+     *
+     * @post
+     *          hashCode = 31 * board_Row + board_Column
+     */
+    @Override
+    public int hashCode() {
+        return 31 * board_Row + board_Column;
+    }
+
     /**
      * The toString function returns a string with the rows and columns written in a certain format
      *
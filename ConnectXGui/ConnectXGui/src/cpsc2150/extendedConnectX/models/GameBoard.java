@@ -1,8 +1,12 @@
 package cpsc2150.extendedConnectX.models;
+import java.util.Arrays;
+
 /**
  * @author Himanshu Pallath
  * @version 1.0
  * <p>The GameBoard class is the class that represents the game board as a 2D array.</p>
+ * <p>The rows are laid end to end in one char array, cell (r, c) at r * MAX_COLUMNS + c, so a
+ *    copy of the board is a single array copy.</p>
  * <p>This is going to be a MAX_ROWS x MAX_COLUMNS board where the user places tokens into.</p>
  * <p>The empty spaces in the board will be represented with ' ' and will be updated with
  *    player's token as the game goes on</p>
@@ -14,10 +18,12 @@ package cpsc2150.extendedConnectX.models;
  *              There should be no black spaces between 2 tokens in a column because all tokens must
  *              fall to the next empty row
  * @correspondence
- *              self = board[0..MAX_ROW-1][0..MAX_COLUMN-1]
+ *              self = board[0..MAX_ROW * MAX_COLUMN - 1] as MAX_ROW rows of MAX_COLUMN cells
  */
-public class GameBoard implements IGameBoard {
-    private char[][] board;
+public class GameBoard extends AbsGameBoard {
+    private final char[] board;          // The cells row by row, (r, c) at r * MAX_COLUMNS + c
+    private final int[] heights;               // The number of tokens in each column
+    private long hash = 0;               // The Zobrist hash of the tokens on the board
     private final int MAX_ROWS;          // The maximum number of rows in the game board
     private final int MAX_COLUMNS;       // The maximum number of columns in the game board
     private final int NUM_TO_WIN;        // The number of tokens in a row needed to win
@@ -43,16 +49,31 @@ public class GameBoard implements IGameBoard {
      *          NUM_TO_WIN = numToWin;
      */
     public GameBoard(int rows, int columns, int numToWin) {
+        super(rows * columns);
         MAX_ROWS = rows;
         MAX_COLUMNS = columns;
         NUM_TO_WIN = numToWin;
-        board = new char[MAX_ROWS][MAX_COLUMNS];    // Creating the size of the game board
+        board = new char[MAX_ROWS * MAX_COLUMNS];    // Creating the size of the game board
         // Initializing the game board with empty spaces
-        for (int i = 0; i < MAX_ROWS; i++) {
-            for (int j = 0; j < MAX_COLUMNS; j++) {
-                board[i][j] = ' ';
-            }
-        }
+        Arrays.fill(board, ' ');
+        heights = new int[MAX_COLUMNS];
+    }
+
+    /**
+     * This is the copy constructor, which copies the cells with one array copy
+     * @param other the board to copy
+     *
+     * @post
+     *          self = other AND later changes to self or other do not affect the other board
+     */
+    private GameBoard(GameBoard other) {
+        super(other);
+        MAX_ROWS = other.MAX_ROWS;
+        MAX_COLUMNS = other.MAX_COLUMNS;
+        NUM_TO_WIN = other.NUM_TO_WIN;
+        board = other.board.clone();
+        heights = other.heights.clone();
+        hash = other.hash;
     }
 
     /**
@@ -69,31 +90,45 @@ public class GameBoard implements IGameBoard {
      */
     // MADE A CHANGE HERE
     public void placeToken(char p, int c) {
-        int topEmpty = 0;   // The top empty row in the column
-        // Finding the top empty row in the column
-        while (board[topEmpty][c] != ' ') {
-            topEmpty++;
-        }
-        board[topEmpty][c] = p; // Placing the token in the top empty row
+        int topEmpty = heights[c]++;   // The top empty row in the column
+        board[topEmpty * MAX_COLUMNS + c] = p; // Placing the token in the top empty row
+        hash ^= Zobrist.key(topEmpty, c, p);
+        pushMove(topEmpty, c);
     }
 
     /**
-     * This function returns what is at the position pos on the game board
+     * This method takes the top token back out of column c and takes its move off the move list
+     *
+     * @param c The column the token is removed from
      *
-     * @param pos a position on the game board
-     * @return the char that is in the position pos of the game board
      * @pre
-     *          0 {@code <=} pos.getRow() {@code <=} MAX_ROWS
-     *          0 {@code <=} pos.getColumn() {@code <=} MAX_COLUMNS
-     *          pos needs to be a valid position in the 9x7 board
+     *          0 {@code <=} c {@code <} MAX_COLUMNS AND getColumnHeight(c) {@code >} 0
      * @post
-     *          whatsAtPos = ' ' iff {no token is at pos} AND
-     *          whatsAtPos = token character iff {there is a token at pos
+     *          the top token of column c was removed, the rest of the board remained the same AND
+     *          the move that placed it was taken off the move list
      */
-    public char whatsAtPos(BoardPosition pos) {
-        int r = pos.getRow();
-        int c = pos.getColumn();
-        return board[r][c];
+    public void removeToken(int c) {
+        int r = --heights[c];       // the row of the top token in the column
+        hash ^= Zobrist.key(r, c, board[r * MAX_COLUMNS + c]);
+        board[r * MAX_COLUMNS + c] = ' ';
+        popMove(c);
+    }
+
+    /**
+     * This function returns what is at row r and column c on the game board
+     *
+     * @param r a row on the game board
+     * @param c a column on the game board
+     * @return the char that is in row r and column c of the game board
+     * @pre
+     *          0 {@code <=} r {@code <} MAX_ROWS
+     *          0 {@code <=} c {@code <} MAX_COLUMNS
+     * @post
+     *          whatsAtPos = ' ' iff {no token is at (r, c)} AND
+     *          whatsAtPos = token character iff {there is a token at (r, c)}
+     */
+    public char whatsAtPos(int r, int c) {
+        return board[r * MAX_COLUMNS + c];
     }
 
     /**
@@ -126,4 +161,39 @@ public class GameBoard implements IGameBoard {
     public int getNumToWin() {
         return NUM_TO_WIN;      // Returning the number of tokens in a row needed to win
     }
+
+    /**
+     * This function returns the number of tokens in column c
+     * @param c the column being checked
+     * @return the number of tokens in column c
+     * @pre
+     *          0 {@code <=} c {@code <} MAX_COLUMNS
+     * @post
+     *          getColumnHeight = heights[c]
+     */
+    public int getColumnHeight(int c) {
+        return heights[c];      // Returning the height of the column
+    }
+
+    /**
+     * This method returns the Zobrist hash of the tokens on the board
+     * @return the Zobrist hash of the board
+     *
+     * @post
+     *          getZobristHash = hash
+     */
+    public long getZobristHash() {
+        return hash;    // returns the hash kept up to date by placeToken
+    }
+
+    /**
+     * This method makes a copy of the board that can be changed without changing this board
+     * @return a new board holding the same tokens, move list and last placed position
+     *
+     * @post
+     *          copy = self AND self = #self
+     */
+    public GameBoard copy() {
+        return new GameBoard(this);    // copies the cells, heights and moves
+    }
 }
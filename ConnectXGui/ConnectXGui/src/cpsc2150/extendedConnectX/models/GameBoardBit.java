@@ -0,0 +1,459 @@
+package cpsc2150.extendedConnectX.models;
+import java.util.Arrays;
+
+/**
+ * @version 1.0
+ * <p>The GameBoardBit class is the class that represents the game board as packed bit sets.</p>
+ * <p>This is going to be a MAX_ROWS x MAX_COLUMNS board where the user places tokens into.</p>
+ * <p>Every player owns one long for each line on the board: one per column (bit r = row r), one per
+ *    row (bit c = column c) and one per diagonal in each direction (bit c = column c). Placing a
+ *    token sets one bit in each of the four lines that run through the cell, and a win check is a
+ *    handful of shift-and-AND operations on those four longs instead of a per-cell scan.</p>
+ * <p>This class holds all the primary methods for the default secondary methods in the interface</p>
+ * @invariants
+ *              MAX_ROWS {@code >=} 3 AND MAX_ROWS {@code <=} 63 AND
+ *              MAX_COLUMNS {@code >=} 3 AND MAX_COLUMNS {@code <=} 63 AND
+ *              NUM_TO_WIN {@code >=} 3 AND NUM_TO_WIN {@code <=} 25 AND
+ *              0 {@code <=} heights[c] {@code <=} MAX_ROWS for every column c AND
+ *              There should be no black spaces between 2 tokens in a column because all tokens must
+ *              fall to the next empty row
+ * @correspondence
+ *              self = for each player players[i], the cells whose bits are set in lines[i * LINES ..]
+ */
+public class GameBoardBit extends AbsGameBoard {
+    private final int MAX_ROWS;          // The maximum number of rows in the game board
+    private final int MAX_COLUMNS;       // The maximum number of columns in the game board
+    private final int NUM_TO_WIN;        // The number of tokens in a row needed to win
+    private final int ROW_OFF;           // Offset of the row lines inside a player's block
+    private final int UP_OFF;            // Offset of the up-right diagonals inside a player's block
+    private final int DOWN_OFF;          // Offset of the up-left diagonals inside a player's block
+    private final int LINES;             // The number of lines each player owns
+    private char[] players = new char[2];    // The player characters in the order they first played
+    private int numPlayers = 0;              // The number of players that have placed a token
+    private long[] lines;                    // The bit lines of every player, LINES longs per player
+    private final int[] heights;             // The number of tokens in each column
+    private long hash = 0;                   // The Zobrist hash of the tokens on the board
+
+    /**
+     * This is the constructor for the game board which will initialize the number of rows, columns,
+     * and the number of tokens in a row needed to win
+     * @param rows the number of rows in the game board
+     * @param columns the number of columns in the game board
+     * @param numToWin the number of tokens in a row needed to win
+     *
+     * @pre
+     *          rows {@code >=} 3 AND rows {@code <=} 63 AND
+     *          columns {@code >=} 3 AND columns {@code <=} 63 AND
+     *          numToWin {@code >=} 3 AND numToWin {@code <=} 25
+     * @post
+     *          MAX_ROWS = rows AND
+     *          MAX_COLUMNS = columns AND
+     *          NUM_TO_WIN = numToWin AND
+     *          every bit of every line is cleared
+     */
+    public GameBoardBit(int rows, int columns, int numToWin) {
+        super(rows * columns);
+        MAX_ROWS = rows;
+        MAX_COLUMNS = columns;
+        NUM_TO_WIN = numToWin;
+        ROW_OFF = columns;
+        UP_OFF = ROW_OFF + rows;
+        DOWN_OFF = UP_OFF + rows + columns - 1;
+        LINES = DOWN_OFF + rows + columns - 1;
+        lines = new long[players.length * LINES];
+        heights = new int[columns];
+    }
+
+    /**
+     * This is the copy constructor, which copies the few arrays that hold the board so that
+     * each search thread can change its own board
+     * @param other the board to copy
+     *
+     * @post
+     *          self = other AND later changes to self or other do not affect the other board
+     */
+    public GameBoardBit(GameBoardBit other) {
+        super(other);
+        MAX_ROWS = other.MAX_ROWS;
+        MAX_COLUMNS = other.MAX_COLUMNS;
+        NUM_TO_WIN = other.NUM_TO_WIN;
+        ROW_OFF = other.ROW_OFF;
+        UP_OFF = other.UP_OFF;
+        DOWN_OFF = other.DOWN_OFF;
+        LINES = other.LINES;
+        players = other.players.clone();
+        numPlayers = other.numPlayers;
+        lines = other.lines.clone();
+        heights = other.heights.clone();
+        hash = other.hash;
+    }
+
+    /**
+     * This method places a token into the next available row in column number c
+     *
+     * @param p The character that is going to be added to the column
+     * @param c The column the character is being added to
+     *
+     * @pre
+     *          p must equal one of the characters for a player AND
+     *          0 {@code <=} c {@code <=} MAX_COLUMNS AND
+     *          checkIfFree(c) = true
+     *
+     * @post
+     *          the new token was placed at the lowest available row and
+     *          the rest of the board remained the same
+     */
+    public void placeToken(char p, int c) {
+        int r = heights[c]++;       // the lowest empty row in the column
+        int base = playerIndex(p) * LINES;
+        // set the bit for the cell in all four lines that run through it
+        lines[base + c] |= 1L << r;
+        lines[base + ROW_OFF + r] |= 1L << c;
+        lines[base + UP_OFF + r - c + MAX_COLUMNS - 1] |= 1L << c;
+        lines[base + DOWN_OFF + r + c] |= 1L << c;
+        hash ^= Zobrist.key(r, c, p);
+        pushMove(r, c);
+    }
+
+    /**
+     * This method takes the top token back out of column c and takes its move off the move list, so a
+     * search can try a move on the board and undo it in place
+     *
+     * @param c The column the token is removed from
+     *
+     * @pre
+     *          0 {@code <=} c {@code <} MAX_COLUMNS AND getColumnHeight(c) {@code >} 0
+     *
+     * @post
+     *          the top token of column c was removed, the rest of the board remained the same AND
+     *          the move that placed it was taken off the move list
+     */
+    public void removeToken(int c) {
+        int r = --heights[c];       // the row of the top token in the column
+        for (int i = 0; i < numPlayers; i++) {
+            int base = i * LINES;
+            if ((lines[base + c] >>> r & 1L) != 0) {
+                // clear the bit for the cell in all four lines that run through it
+                lines[base + c] &= ~(1L << r);
+                lines[base + ROW_OFF + r] &= ~(1L << c);
+                lines[base + UP_OFF + r - c + MAX_COLUMNS - 1] &= ~(1L << c);
+                lines[base + DOWN_OFF + r + c] &= ~(1L << c);
+                hash ^= Zobrist.key(r, c, players[i]);
+                break;
+            }
+        }
+        popMove(c);
+    }
+
+    /**
+     * This method checks to see what character is in row r and column c
+     *
+     * @param r the row that is being checked
+     * @param c the column that is being checked
+     * @return the character at the given cell
+     *
+     * @pre
+     *          0 {@code <=} r {@code <} MAX_ROWS
+     *          0 {@code <=} c {@code <} MAX_COLUMNS
+     * @post
+     *          whatsAtPos = ' ' iff {no token is at (r, c)} AND
+     *          whatsAtPos = token character iff {there is a token at (r, c)}
+     */
+    public char whatsAtPos(int r, int c) {
+        // nothing above the top of the column can be occupied
+        if (r >= heights[c]) {
+            return ' ';
+        }
+        // looks through each player's column line for the bit
+        for (int i = 0; i < numPlayers; i++) {
+            if ((lines[i * LINES + c] >>> r & 1L) != 0) {
+                return players[i];
+            }
+        }
+        return ' ';
+    }
+
+    /**
+     * This method checks to see if 'player' is in row r and column c
+     * @param r the row of the cell we are checking
+     * @param c the column of the cell we are checking
+     * @param player the player we are checking to see if they are in the cell
+     * @return true if player is in the cell, false otherwise
+     *
+     * @pre
+     *          (r, c) needs to be a valid cell in the MAX_ROWS x MAX_COLUMNS board AND
+     *          player must be one of the characters for a player
+     * @post
+     *          isPlayerAtPos = true iff {player is at (r, c)} AND
+     *          isPlayerAtPos = false iff {player is not at (r, c)}
+     */
+    @Override
+    public boolean isPlayerAtPos(int r, int c, char player) {
+        int i = indexOf(player);
+        return i >= 0 && (lines[i * LINES + c] >>> r & 1L) != 0;
+    }
+
+    /**
+     * This function checks to see if the last token placed in column c resulted in a win by
+     * testing the four lines through that token
+     *
+     * @param c The column the token was placed in
+     * @return true if the player won or false if they didn't win
+     * @pre
+     *          c is the column where the last token was placed
+     *          0 {@code <=} c {@code <} MAX_COLUMNS
+     * @post
+     *          checkForWin = true iff {the last token in column c completes NUM_TO_WIN in a row
+     *                                  vertically, horizontally or diagonally} AND
+     *          self = #self
+     */
+    @Override
+    public boolean checkForWin(int c) {
+        int r = heights[c] - 1;     // the row of the last token placed in the column
+        if (r < 0) {
+            return false;
+        }
+        // finds which player owns the top of the column
+        for (int i = 0; i < numPlayers; i++) {
+            int base = i * LINES;
+            if ((lines[base + c] >>> r & 1L) != 0) {
+                return hasRunThrough(lines[base + c], r)
+                        || hasRunThrough(lines[base + ROW_OFF + r], c)
+                        || hasRunThrough(lines[base + UP_OFF + r - c + MAX_COLUMNS - 1], c)
+                        || hasRunThrough(lines[base + DOWN_OFF + r + c], c);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This function checks whether player p would win by placing a token in column c, without
+     * placing it: the cell's bit is added to a copy of each of p's four lines through the cell
+     *
+     * @param p the player that would place the token
+     * @param c the column the token would be placed in
+     * @return true if the token would complete NUM_TO_WIN in a row for p, false otherwise
+     * @pre
+     *          0 {@code <=} c {@code <} MAX_COLUMNS AND checkIfFree(c) = true
+     * @post
+     *          isWinningMove = true iff {placeToken(p, c) followed by checkForWin(c) would be true} AND
+     *          self = #self
+     */
+    public boolean isWinningMove(char p, int c) {
+        int i = indexOf(p);
+        if (i < 0) {
+            return false;   // a player with no tokens can't complete a run with one
+        }
+        int r = heights[c];         // the row the token would land in
+        int base = i * LINES;
+        return hasRunThrough(lines[base + c] | 1L << r, r)
+                || hasRunThrough(lines[base + ROW_OFF + r] | 1L << c, c)
+                || hasRunThrough(lines[base + UP_OFF + r - c + MAX_COLUMNS - 1] | 1L << c, c)
+                || hasRunThrough(lines[base + DOWN_OFF + r + c] | 1L << c, c);
+    }
+
+    /**
+     * This function checks to see if the token at (r, c) is part of NUM_TO_WIN in a row horizontally
+     *
+     * @param r the row of where the last token was placed
+     * @param c the column of where the last token was placed
+     * @param p the player that placed the token in the cell
+     * @return true if player p has NUM_TO_WIN in a row horizontally through (r, c), false otherwise
+     * @pre
+     *          (r, c) needs to be a valid cell in the MAX_ROWS x MAX_COLUMNS board AND
+     *          p needs to be a valid player character
+     * @post
+     *          checkHorizWin = true iff {(r, c) is part of NUM_TO_WIN consecutive p tokens in its row} AND
+     *          self = #self
+     */
+    @Override
+    public boolean checkHorizWin(int r, int c, char p) {
+        int i = indexOf(p);
+        return i >= 0 && hasRunThrough(lines[i * LINES + ROW_OFF + r], c);
+    }
+
+    /**
+     * This function checks to see if the token at (r, c) is part of NUM_TO_WIN in a row vertically
+     *
+     * @param r the row of where the last token was placed
+     * @param c the column of where the last token was placed
+     * @param p the player that placed the token in the cell
+     * @return true if player p has NUM_TO_WIN in a row vertically through (r, c), false otherwise
+     * @pre
+     *          (r, c) needs to be a valid cell in the MAX_ROWS x MAX_COLUMNS board AND
+     *          p needs to be a valid player character
+     * @post
+     *          checkVertWin = true iff {(r, c) is part of NUM_TO_WIN consecutive p tokens in its column} AND
+     *          self = #self
+     */
+    @Override
+    public boolean checkVertWin(int r, int c, char p) {
+        int i = indexOf(p);
+        return i >= 0 && hasRunThrough(lines[i * LINES + c], r);
+    }
+
+    /**
+     * This function checks to see if the token at (r, c) is part of NUM_TO_WIN in a row on either diagonal
+     *
+     * @param r the row of where the last token was placed
+     * @param c the column of where the last token was placed
+     * @param p the player that placed the token in the cell
+     * @return true if player p has NUM_TO_WIN in a row diagonally through (r, c), false otherwise
+     * @pre
+     *          (r, c) needs to be a valid cell in the MAX_ROWS x MAX_COLUMNS board AND
+     *          p needs to be a valid player character
+     * @post
+     *          checkDiagWin = true iff {(r, c) is part of NUM_TO_WIN consecutive p tokens on a diagonal} AND
+     *          self = #self
+     */
+    @Override
+    public boolean checkDiagWin(int r, int c, char p) {
+        int i = indexOf(p);
+        if (i < 0) {
+            return false;
+        }
+        int base = i * LINES;
+        return hasRunThrough(lines[base + UP_OFF + r - c + MAX_COLUMNS - 1], c)
+                || hasRunThrough(lines[base + DOWN_OFF + r + c], c);
+    }
+
+    /**
+     * This method returns the number of rows in the game board
+     * @return the number of rows in the game board
+     *
+     * @post
+     *          getNumRows = number of rows in the game board
+     */
+    public int getNumRows() {
+        return MAX_ROWS;    // returns the number of rows
+    }
+
+    /**
+     * This method returns the number of columns in the game board
+     * @return the number of columns in the game board
+     *
+     * @post
+     *          getNumColumns = number of columns in the game board
+     */
+    public int getNumColumns() {
+        return MAX_COLUMNS;    // returns the number of columns
+    }
+
+    /**
+     * This method returns the number of tokens in a row needed to win
+     * @return the number of tokens in a row needed to win
+     *
+     * @post
+     *          getNumToWin = number of tokens in a row needed to win
+     */
+    public int getNumToWin() {
+        return NUM_TO_WIN;    // returns the number of tokens in a row needed to win
+    }
+
+    /**
+     * This method returns the number of tokens in column c
+     * @param c the column being checked
+     * @return the number of tokens in column c
+     *
+     * @pre
+     *          0 {@code <=} c {@code <} MAX_COLUMNS
+     * @post
+     *          getColumnHeight = heights[c]
+     */
+    public int getColumnHeight(int c) {
+        return heights[c];    // returns the height of the column
+    }
+
+    /**
+     * This method returns the Zobrist hash of the tokens on the board
+     * @return the Zobrist hash of the board
+     *
+     * @post
+     *          getZobristHash = hash
+     */
+    public long getZobristHash() {
+        return hash;    // returns the hash kept up to date by placeToken
+    }
+
+    /**
+     * This method makes a copy of the board that can be changed without changing this board
+     * @return a new board holding the same tokens, move list and last placed position
+     *
+     * @post
+     *          copy = self AND self = #self
+     */
+    public GameBoardBit copy() {
+        return new GameBoardBit(this);     // copies the bit lines, heights and moves
+    }
+
+    /**
+     * This method checks whether a line has NUM_TO_WIN consecutive bits set that include bit b.
+     * Each round ANDs the line with a shifted copy of itself, so after it finishes bit s is set
+     * iff bits s .. s + NUM_TO_WIN - 1 were all set; this takes log2(NUM_TO_WIN) rounds
+     *
+     * @param line the bits of one line for one player
+     * @param b the bit of the cell that must be part of the run
+     * @return true if a run of NUM_TO_WIN set bits covers bit b, false otherwise
+     *
+     * @pre
+     *          0 {@code <=} b {@code <} 63
+     * @post
+     *          hasRunThrough = true iff {bits s .. s + NUM_TO_WIN - 1 are set for some s with
+     *                                    b - NUM_TO_WIN {@code <} s {@code <=} b}
+     */
+    private boolean hasRunThrough(long line, int b) {
+        long runs = line;   // bit s is set iff bits s .. s + len - 1 of line are set
+        int len = 1;
+        while (len < NUM_TO_WIN) {
+            int step = Math.min(len, NUM_TO_WIN - len);
+            runs &= runs >>> step;
+            len += step;
+        }
+        // only runs starting between b - NUM_TO_WIN + 1 and b can cover bit b
+        int low = Math.max(0, b - NUM_TO_WIN + 1);
+        return (runs & (-1L >>> (63 - b)) & (-1L << low)) != 0;
+    }
+
+    /**
+     * This method finds the index of a player's block of lines
+     *
+     * @param p the player character
+     * @return the index of p in players, or -1 if p has never placed a token
+     *
+     * @post
+     *          indexOf = i iff players[i] = p AND indexOf = -1 iff {p is not in players}
+     */
+    private int indexOf(char p) {
+        for (int i = 0; i < numPlayers; i++) {
+            if (players[i] == p) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * This method finds the index of a player's block of lines, adding a new block the first
+     * time the player places a token
+     *
+     * @param p the player character
+     * @return the index of p in players
+     *
+     * @post
+     *          players[playerIndex] = p AND
+     *          lines has a block of LINES longs for every player in players
+     */
+    private int playerIndex(char p) {
+        int i = indexOf(p);
+        if (i >= 0) {
+            return i;
+        }
+        // grows the player list and the lines when a new player shows up
+        if (numPlayers == players.length) {
+            players = Arrays.copyOf(players, numPlayers * 2);
+            lines = Arrays.copyOf(lines, players.length * LINES);
+        }
+        players[numPlayers] = p;
+        return numPlayers++;
+    }
+}
@@ -0,0 +1,254 @@
+package cpsc2150.extendedConnectX.models;
+import java.util.Arrays;
+
+/**
+ * @version 1.0
+ * <p>The GameBoardCow class is the class that represents the game board as one array per column,
+ *    shared between copies until one of them changes it (copy on write).</p>
+ * <p>This is going to be a MAX_ROWS x MAX_COLUMNS board where the user places tokens into.</p>
+ * <p>A copy only copies the array of column references, the heights and the move list, and marks
+ *    every column as shared. The first token placed in or removed from a shared column copies
+ *    that one column, so a rollout that plays a few moves on a copy pays for the columns it
+ *    touches rather than the whole board.</p>
+ * <p>The shared mark lives in each column, not in the board, so copying never writes to the
+ *    board being copied and several threads may copy one board at once, as long as nothing is
+ *    playing on it meanwhile.</p>
+ * <p>This class holds all the primary methods for the default secondary methods in the interface</p>
+ * @invariants
+ *              MAX_ROWS {@code >=} 3 AND MAX_ROWS {@code <=} 100 AND
+ *              MAX_COLUMNS {@code >=} 3 AND MAX_COLUMNS {@code <=} 100 AND
+ *              NUM_TO_WIN {@code >=} 3 AND NUM_TO_WIN {@code <=} 25 AND
+ *              columns[c].cells is only written while columns[c].shared = false AND
+ *              There should be no black spaces between 2 tokens in a column because all tokens must
+ *              fall to the next empty row
+ * @correspondence
+ *              self = columns[c].cells[r] for every cell (r, c)
+ */
+public class GameBoardCow extends AbsGameBoard {
+    private final int MAX_ROWS;          // The maximum number of rows in the game board
+    private final int MAX_COLUMNS;       // The maximum number of columns in the game board
+    private final int NUM_TO_WIN;        // The number of tokens in a row needed to win
+    private final Column[] columns;      // The cells of each column
+    private final int[] heights;         // The number of tokens in each column
+    private long hash = 0;               // The Zobrist hash of the tokens on the board
+
+    /**
+     * This is the constructor for the game board which will initialize the number of rows, columns,
+     * and the number of tokens in a row needed to win
+     * @param rows the number of rows in the game board
+     * @param columns the number of columns in the game board
+     * @param numToWin the number of tokens in a row needed to win
+     *
+     * @pre
+     *          rows {@code >=} 3 AND rows {@code <=} 100 AND
+     *          columns {@code >=} 3 AND columns {@code <=} 100 AND
+     *          numToWin {@code >=} 3 AND numToWin {@code <=} 25
+     * @post
+     *          every cell = ' ' AND no column is shared AND
+     *          MAX_ROWS = rows AND
+     *          MAX_COLUMNS = columns AND
+     *          NUM_TO_WIN = numToWin
+     */
+    public GameBoardCow(int rows, int columns, int numToWin) {
+        super(rows * columns);
+        MAX_ROWS = rows;
+        MAX_COLUMNS = columns;
+        NUM_TO_WIN = numToWin;
+        this.columns = new Column[MAX_COLUMNS];
+        for (int c = 0; c < MAX_COLUMNS; c++) {
+            char[] cells = new char[MAX_ROWS];
+            Arrays.fill(cells, ' ');
+            this.columns[c] = new Column(cells);
+        }
+        heights = new int[MAX_COLUMNS];
+    }
+
+    /**
+     * This is the copy constructor, which shares every column with the board it copies and marks
+     * them shared, so whichever board changes one first copies it. It only reads other's fields
+     * @param other the board to copy
+     *
+     * @pre
+     *          no token is placed in or removed from other while it is copied
+     * @post
+     *          self = other AND every column is shared
+     */
+    private GameBoardCow(GameBoardCow other) {
+        super(other);
+        MAX_ROWS = other.MAX_ROWS;
+        MAX_COLUMNS = other.MAX_COLUMNS;
+        NUM_TO_WIN = other.NUM_TO_WIN;
+        columns = other.columns.clone();
+        for (Column column : columns) {
+            column.shared = true;
+        }
+        heights = other.heights.clone();
+        hash = other.hash;
+    }
+
+    /**
+     * This method places a token into the next available row in column number c, copying the
+     * column first if it is shared
+     *
+     * @param p The character that is going to be added to the column
+     * @param c The column the character is being added to
+     *
+     * @pre
+     *          p must equal one of the characters for a player AND
+     *          0 {@code <=} c {@code <=} MAX_COLUMNS AND
+     *          checkIfFree(c) = true
+     *
+     * @post
+     *          the new token was placed at the lowest available row and
+     *          the rest of the board remained the same
+     */
+    public void placeToken(char p, int c) {
+        int r = heights[c]++;       // the lowest empty row in the column
+        writableColumn(c)[r] = p;
+        hash ^= Zobrist.key(r, c, p);
+        pushMove(r, c);
+    }
+
+    /**
+     * This method takes the top token back out of column c and takes its move off the move list,
+     * copying the column first if it is shared
+     *
+     * @param c The column the token is removed from
+     *
+     * @pre
+     *          0 {@code <=} c {@code <} MAX_COLUMNS AND getColumnHeight(c) {@code >} 0
+     * @post
+     *          the top token of column c was removed, the rest of the board remained the same AND
+     *          the move that placed it was taken off the move list
+     */
+    public void removeToken(int c) {
+        int r = --heights[c];       // the row of the top token in the column
+        char[] column = writableColumn(c);
+        hash ^= Zobrist.key(r, c, column[r]);
+        column[r] = ' ';
+        popMove(c);
+    }
+
+    /**
+     * This method checks to see what character is in row r and column c
+     *
+     * @param r the row that is being checked
+     * @param c the column that is being checked
+     * @return the character at the given cell
+     *
+     * @pre
+     *          0 {@code <=} r {@code <} MAX_ROWS AND
+     *          0 {@code <=} c {@code <} MAX_COLUMNS
+     * @post
+     *          whatsAtPos = ' ' iff {no token is at (r, c)} AND
+     *          whatsAtPos = token character iff {there is a token at (r, c)}
+     */
+    public char whatsAtPos(int r, int c) {
+        return columns[c].cells[r];
+    }
+
+    /**
+     * This functions returns the number of rows in the game board
+     * @return the number of rows on the board
+     * @post
+     *          getNumRows = the number of rows on the board
+     */
+    public int getNumRows() {
+        return MAX_ROWS;    // Returning the number of rows on the board
+    }
+
+    /**
+     * This functions returns the number of columns in the game board
+     * @return the number of columns on the board
+     * @post
+     *          getNumColumns = the number of columns on the board
+     */
+    public int getNumColumns() {
+        return MAX_COLUMNS;    // Returning the number of columns on the board
+    }
+
+    /**
+     * This functions returns the number of tokens in a row needed to win
+     * @return the number of tokens in a row needed to win
+     *
+     * @post
+     *          getNumToWin = the number of tokens in a row needed to win
+     */
+    public int getNumToWin() {
+        return NUM_TO_WIN;      // Returning the number of tokens in a row needed to win
+    }
+
+    /**
+     * This function returns the number of tokens in column c
+     * @param c the column being checked
+     * @return the number of tokens in column c
+     * @pre
+     *          0 {@code <=} c {@code <} MAX_COLUMNS
+     * @post
+     *          getColumnHeight = heights[c]
+     */
+    public int getColumnHeight(int c) {
+        return heights[c];      // Returning the height of the column
+    }
+
+    /**
+     * This method returns the Zobrist hash of the tokens on the board
+     * @return the Zobrist hash of the board
+     *
+     * @post
+     *          getZobristHash = hash
+     */
+    public long getZobristHash() {
+        return hash;    // returns the hash kept up to date by placeToken
+    }
+
+    /**
+     * This method makes a copy of the board that shares every column with this board until one of
+     * the two boards changes it
+     * @return a new board holding the same tokens, move list and last placed position
+     *
+     * @post
+     *          copy = self AND every column of self is shared with the copy
+     */
+    public GameBoardCow copy() {
+        return new GameBoardCow(this);     // copies the column references, heights and moves
+    }
+
+    /**
+     * This method returns column c's cells, copying the column first if it is shared
+     *
+     * @param c the column about to be changed
+     * @return the cells of column c that only this board uses
+     *
+     * @pre
+     *          0 {@code <=} c {@code <} MAX_COLUMNS
+     * @post
+     *          columns[c].shared = false AND columns[c] holds the same cells as #columns[c]
+     */
+    private char[] writableColumn(int c) {
+        if (columns[c].shared) {
+            columns[c] = new Column(columns[c].cells.clone());
+        }
+        return columns[c].cells;
+    }
+
+    /**
+     * This class holds the cells of one column, bottom row first, and whether more than one board
+     * refers to it. Once shared a column stays shared, and the boards copy it before writing
+     */
+    private static final class Column {
+        private final char[] cells;         // The cells of the column, bottom row first
+        private volatile boolean shared;    // Whether a copy may refer to this column
+
+        /**
+         * This constructor makes a column that no other board refers to yet
+         * @param cells the cells of the column, bottom row first
+         *
+         * @post
+         *          this.cells = cells AND shared = false
+         */
+        private Column(char[] cells) {
+            this.cells = cells;
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package cpsc2150.extendedConnectX.models;
-import java.util.*;
 
 /**
  * @author Himanshu Pallath
  * @version 1.0
  * <p>The GameBoardMem class is the class that represents the game board as a map.</p>
  * <p>This is going to be a MAX_ROWS x MAX_COLUMNS board where the user places tokens into.</p>
- * <p>The map will have keys for each of the player's token along with a list of all the
- *    BoardPositions they occupy.
+ * <p>The map only holds the occupied cells. Each cell is keyed by its packed index
+ *    row * MAX_COLUMNS + column and maps to the token of the player in it, so finding what is at a
+ *    position is a single hash lookup no matter how many tokens are on the board.
  * <p>This class holds all the primary methods for the default secondary methods in the interface</p>
  * @invariants
  *              MAX_ROWS {@code >=} 3 AND MAX_ROWS {@code <=} 100 AND
@@ -16,16 +16,18 @@ import java.util.*;
  *              There should be no black spaces between 2 tokens in a column because all tokens must
  *              fall to the next empty row
  * @correspondence
- *              self = board<Character, List<BoardPosition>>
+ *              self = board<row * MAX_COLUMNS + column, Character>
  */
-public class GameBoardMem implements IGameBoard{
-    Map<Character, List<BoardPosition>> board = new HashMap<Character, List<BoardPosition>>();
+public class GameBoardMem extends AbsGameBoard {
+    private final PositionMap board;
     private final int MAX_ROWS;          // The maximum number of rows in the game board
     private final int MAX_COLUMNS;       // The maximum number of columns in the game board
     private final int NUM_TO_WIN;        // The number of tokens in a row needed to win
     private final int MAX_SPACES = 100;  // The maximum number of spaces in the game board
     private final int MIN_SPACES_WIN = 3;    // The minimum number of spaces in the game board
     private final int MAX_WIN = 25;      // The maximum number of tokens in a row needed to win
+    private final int[] heights;         // The number of tokens in each column
+    private long hash = 0;               // The Zobrist hash of the tokens on the board
 
 
     /**
@@ -46,9 +48,30 @@ public class GameBoardMem implements IGameBoard{
      *          board is initialized to an empty map
      */
     public GameBoardMem(int rows, int columns, int numToWin){
+        super(16);      // the move list grows like the map, so it follows the number of tokens
         MAX_ROWS = rows;
         MAX_COLUMNS = columns;
         NUM_TO_WIN = numToWin;
+        board = new PositionMap();
+        heights = new int[MAX_COLUMNS];
+    }
+
+    /**
+     * This is the copy constructor, which copies the map's arrays directly instead of placing
+     * every token again
+     * @param other the board to copy
+     *
+     * @post
+     *          self = other AND later changes to self or other do not affect the other board
+     */
+    private GameBoardMem(GameBoardMem other) {
+        super(other);
+        MAX_ROWS = other.MAX_ROWS;
+        MAX_COLUMNS = other.MAX_COLUMNS;
+        NUM_TO_WIN = other.NUM_TO_WIN;
+        board = new PositionMap(other.board);
+        heights = other.heights.clone();
+        hash = other.hash;
     }
 
     /**
@@ -66,82 +89,46 @@ public class GameBoardMem implements IGameBoard{
      *          the rest of the board remained the same
      */
     public void placeToken(char p, int c) {
-        // Finding the top empty row in the column
-        for (int i = 0; i < MAX_ROWS; i++) {
-            BoardPosition pos = new BoardPosition(i, c);
-            // Checks to see if the position is empty
-            if (whatsAtPos(pos) == ' ') {
-                // If key is not in the map, add it then add the position to the list
-                if (!board.containsKey(p)) {
-                    board.put(p, new ArrayList<BoardPosition>());
-                    board.get(p).add(pos);
-                } else {
-                    // If key is in the map, add the position to the list
-                    board.get(p).add(pos);
-                }
-                break;
-            }
-        }
+        // adds the top empty row in the column to the map
+        board.put(heights[c] * MAX_COLUMNS + c, p);
+        hash ^= Zobrist.key(heights[c], c, p);
+        pushMove(heights[c]++, c);
     }
 
     /**
-     * This method checks to see what character is at a given position
+     * This method takes the top token back out of column c and takes its move off the move list
      *
-     * @param pos the position that is being checked
-     * @return the character at the given position
+     * @param c The column the token is removed from
      *
      * @pre
-     *          0 {@code <=} pos.getRow() {@code <=} MAX_ROWS
-     *          0 {@code <=} pos.getColumn() {@code <=} MAX_COLUMNS
-     *          pos needs to be a valid position in the MAX_ROWS x MAX_COLUMNS board
+     *          0 {@code <=} c {@code <} MAX_COLUMNS AND getColumnHeight(c) {@code >} 0
      * @post
-     *          whatsAtPos = ' ' iff {no token is at pos} AND
-     *          whatsAtPos = token character iff {there is a token at pos
+     *          the top token of column c was removed, the rest of the board remained the same AND
+     *          the move that placed it was taken off the move list
      */
-    public char whatsAtPos(BoardPosition pos) {
-        // loops through each key in board
-        for (Map.Entry<Character, List<BoardPosition>> entry : board.entrySet()) {
-            List<BoardPosition> posList = entry.getValue();
-            // loops through each BoardPosition in the list of BoardPositions
-            for (BoardPosition position : posList) {
-                // checks if the position is equal to pos
-                if (position.equals(pos)) {
-                    return entry.getKey();  // returns the key
-                }
-            }
-        }
-        return ' ';   // returns a space if there is no token at pos
+    public void removeToken(int c) {
+        int r = --heights[c];       // the row of the top token in the column
+        hash ^= Zobrist.key(r, c, board.get(r * MAX_COLUMNS + c));
+        board.remove(r * MAX_COLUMNS + c);
+        popMove(c);
     }
 
     /**
-     * This is an overriden method which checks to see if 'player' is at position 'pos'
-     * @param pos a position on the board where we are checking
-     * @param player the player we are checking to see if they are at position pos
-     * @return true if player is at position pos, false otherwise
+     * This method checks to see what character is in row r and column c
+     *
+     * @param r the row that is being checked
+     * @param c the column that is being checked
+     * @return the character at the given cell
      *
      * @pre
-     *          0 {@code <=} pos.getRow() {@code <=} MAX_ROWS
-     *          0 {@code <=} pos.getColumn() {@code <=} MAX_COLUMNS
-     *          pos needs to be a valid position in the MAX_ROWS x MAX_COLUMNS board
-     *          player must be one of the characters for a player
+     *          0 {@code <=} r {@code <} MAX_ROWS
+     *          0 {@code <=} c {@code <} MAX_COLUMNS
      * @post
-     *          isPlayerAtPos = true iff {player is at position pos} AND
-     *          isPlayerAtPos = false iff {player is not at position pos}
+     *          whatsAtPos = ' ' iff {no token is at (r, c)} AND
+     *          whatsAtPos = token character iff {there is a token at (r, c)}
      */
-    @Override
-    public boolean isPlayerAtPos(BoardPosition pos, char player) {
-        // loops through each key in board
-        for (Map.Entry<Character, List<BoardPosition>> entry : board.entrySet()) {
-            List<BoardPosition> posList = entry.getValue();
-            // loops through each BoardPosition in the list of BoardPositions
-            for (BoardPosition position : posList) {
-                // checks if the position is equal to pos and if the key is equal to player
-                if (position.equals(pos) && entry.getKey() == player) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    public char whatsAtPos(int r, int c) {
+        return board.get(r * MAX_COLUMNS + c);   // ' ' if no token is at (r, c)
     }
 
     /**
@@ -176,4 +163,40 @@ public class GameBoardMem implements IGameBoard{
     public int getNumToWin() {
         return NUM_TO_WIN;    // returns the number of tokens in a row needed to win
     }
+
+    /**
+     * This method returns the number of tokens in column c
+     * @param c the column being checked
+     * @return the number of tokens in column c
+     *
+     * @pre
+     *          0 {@code <=} c {@code <} MAX_COLUMNS
+     * @post
+     *          getColumnHeight = heights[c]
+     */
+    public int getColumnHeight(int c) {
+        return heights[c];    // returns the height of the column
+    }
+
+    /**
+     * This method returns the Zobrist hash of the tokens on the board
+     * @return the Zobrist hash of the board
+     *
+     * @post
+     *          getZobristHash = hash
+     */
+    public long getZobristHash() {
+        return hash;    // returns the hash kept up to date by placeToken
+    }
+
+    /**
+     * This method makes a copy of the board that can be changed without changing this board
+     * @return a new board holding the same tokens, move list and last placed position
+     *
+     * @post
+     *          copy = self AND self = #self
+     */
+    public GameBoardMem copy() {
+        return new GameBoardMem(this);     // copies the map, heights and moves
+    }
 }
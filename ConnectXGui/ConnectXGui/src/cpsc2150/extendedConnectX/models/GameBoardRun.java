@@ -0,0 +1,411 @@
+package cpsc2150.extendedConnectX.models;
+
+/**
+ * @version 1.0
+ * <p>The GameBoardRun class is the class that represents the game board as a 2D array that also
+ *    keeps the length of every run of tokens as the game goes on.</p>
+ * <p>This is going to be a MAX_ROWS x MAX_COLUMNS board where the user places tokens into.</p>
+ * <p>For each of the four directions (horizontal, vertical, and the two diagonals) the two end
+ *    cells of every run of same tokens hold the length of that run. A new token only has to read
+ *    the run lengths of its neighbors and write the new length at the two ends, so the answer to
+ *    checkForWin is ready as soon as placeToken returns and no line is ever scanned.</p>
+ * <p>This class holds all the primary methods for the default secondary methods in the interface</p>
+ * @invariants
+ *              MAX_ROWS {@code >=} 3 AND MAX_ROWS {@code <=} 100 AND
+ *              MAX_COLUMNS {@code >=} 3 AND MAX_COLUMNS {@code <=} 100 AND
+ *              NUM_TO_WIN {@code >=} 3 AND NUM_TO_WIN {@code <=} 25 AND
+ *              runs[d][cell] = the length of the run in direction d for every cell at either end of
+ *              a run AND
+ *              There should be no black spaces between 2 tokens in a column because all tokens must
+ *              fall to the next empty row
+ * @correspondence
+ *              self = board[0..MAX_ROW-1][0..MAX_COLUMN-1]
+ */
+public class GameBoardRun extends AbsGameBoard {
+    private static final int[] DR = {0, 1, 1, 1};   // row step for horizontal, vertical, up-right, up-left
+    private static final int[] DC = {1, 0, 1, -1};  // column step for the same four directions
+    private final char[][] board;
+    private final int MAX_ROWS;          // The maximum number of rows in the game board
+    private final int MAX_COLUMNS;       // The maximum number of columns in the game board
+    private final int NUM_TO_WIN;        // The number of tokens in a row needed to win
+    private final int[][] runs;          // The run length in each direction, indexed by r * MAX_COLUMNS + c
+    private final int[] heights;         // The number of tokens in each column
+    private final int[] lastRuns = new int[4];  // The runs through the last token placed
+    private long hash = 0;               // The Zobrist hash of the tokens on the board
+
+    /**
+     * This is the constructor for the game board which will initialize the number of rows, columns,
+     * and the number of tokens in a row needed to win
+     * @param rows the number of rows in the game board
+     * @param columns the number of columns in the game board
+     * @param numToWin the number of tokens in a row needed to win
+     *
+     * @pre
+     *          rows {@code >=} 3 AND rows {@code <=} 100 AND
+     *          columns {@code >=} 3 AND columns {@code <=} 100 AND
+     *          numToWin {@code >=} 3 AND numToWin {@code <=} 25
+     * @post
+     *          board[MAX_ROW][MAX_COLUMN] = ' ' AND
+     *          MAX_ROWS = rows AND
+     *          MAX_COLUMNS = columns AND
+     *          NUM_TO_WIN = numToWin
+     */
+    public GameBoardRun(int rows, int columns, int numToWin) {
+        super(rows * columns);
+        MAX_ROWS = rows;
+        MAX_COLUMNS = columns;
+        NUM_TO_WIN = numToWin;
+        board = new char[MAX_ROWS][MAX_COLUMNS];
+        // Initializing the game board with empty spaces
+        for (int i = 0; i < MAX_ROWS; i++) {
+            for (int j = 0; j < MAX_COLUMNS; j++) {
+                board[i][j] = ' ';
+            }
+        }
+        runs = new int[4][MAX_ROWS * MAX_COLUMNS];
+        heights = new int[MAX_COLUMNS];
+    }
+
+    /**
+     * This is the copy constructor, which copies the rows and the run lengths array by array
+     * @param other the board to copy
+     *
+     * @post
+     *          self = other AND later changes to self or other do not affect the other board
+     */
+    private GameBoardRun(GameBoardRun other) {
+        super(other);
+        MAX_ROWS = other.MAX_ROWS;
+        MAX_COLUMNS = other.MAX_COLUMNS;
+        NUM_TO_WIN = other.NUM_TO_WIN;
+        board = new char[MAX_ROWS][];
+        for (int i = 0; i < MAX_ROWS; i++) {
+            board[i] = other.board[i].clone();
+        }
+        runs = new int[4][];
+        for (int d = 0; d < 4; d++) {
+            runs[d] = other.runs[d].clone();
+        }
+        heights = other.heights.clone();
+        System.arraycopy(other.lastRuns, 0, lastRuns, 0, 4);
+        hash = other.hash;
+    }
+
+    /**
+     * This method places a token into the next available row in column number c and updates the
+     * run lengths at the ends of the four runs that now go through it
+     *
+     * @param p The character that is going to be added to the column
+     * @param c The column the character is being added to
+     *
+     * @pre
+     *          p must equal one of the characters for a player AND
+     *          0 {@code <=} c {@code <=} MAX_COLUMNS AND
+     *          checkIfFree(c) = true
+     *
+     * @post
+     *          the new token was placed at the lowest available row and
+     *          the rest of the board remained the same
+     */
+    public void placeToken(char p, int c) {
+        int r = heights[c]++;       // the lowest empty row in the column
+        board[r][c] = p;
+        int cell = r * MAX_COLUMNS + c;
+        for (int d = 0; d < 4; d++) {
+            // a neighbor next to an empty cell is always the end of its run
+            int before = runAt(d, r - DR[d], c - DC[d], p);
+            int after = runAt(d, r + DR[d], c + DC[d], p);
+            int total = before + after + 1;
+            int step = DR[d] * MAX_COLUMNS + DC[d];
+            runs[d][cell] = total;
+            runs[d][cell - before * step] = total;
+            runs[d][cell + after * step] = total;
+            lastRuns[d] = total;
+        }
+        hash ^= Zobrist.key(r, c, p);
+        pushMove(r, c);
+    }
+
+    /**
+     * This method takes the top token back out of column c, splits the runs that went through it and
+     * takes its move off the move list. The parts of each run on either side of the cell are measured
+     * by walking them, which only goes past NUM_TO_WIN cells on a board that already has a winner
+     *
+     * @param c The column the token is removed from
+     *
+     * @pre
+     *          0 {@code <=} c {@code <} MAX_COLUMNS AND getColumnHeight(c) {@code >} 0
+     * @post
+     *          the top token of column c was removed, the rest of the board remained the same AND
+     *          the move that placed it was taken off the move list
+     */
+    public void removeToken(int c) {
+        int r = --heights[c];       // the row of the top token in the column
+        char p = board[r][c];
+        board[r][c] = ' ';
+        int cell = r * MAX_COLUMNS + c;
+        for (int d = 0; d < 4; d++) {
+            // the run through the cell splits into the part before it and the part after it
+            int before = walk(d, r, c, p, -1);
+            int after = walk(d, r, c, p, 1);
+            int step = DR[d] * MAX_COLUMNS + DC[d];
+            runs[d][cell] = 0;
+            if (before > 0) {
+                runs[d][cell - step] = before;
+                runs[d][cell - before * step] = before;
+            }
+            if (after > 0) {
+                runs[d][cell + step] = after;
+                runs[d][cell + after * step] = after;
+            }
+        }
+        hash ^= Zobrist.key(r, c, p);
+        popMove(c);
+        // the runs through the latest token left are what checkForWin answers from
+        int lastRow = getLastRow();
+        int lastColumn = getLastColumn();
+        if (lastRow >= 0) {
+            char q = board[lastRow][lastColumn];
+            for (int d = 0; d < 4; d++) {
+                lastRuns[d] = walk(d, lastRow, lastColumn, q, -1) + walk(d, lastRow, lastColumn, q, 1) + 1;
+            }
+        }
+    }
+
+    /**
+     * This function returns what is at row r and column c on the game board
+     *
+     * @param r a row on the game board
+     * @param c a column on the game board
+     * @return the char that is in row r and column c of the game board
+     * @pre
+     *          0 {@code <=} r {@code <} MAX_ROWS AND 0 {@code <=} c {@code <} MAX_COLUMNS
+     * @post
+     *          whatsAtPos = ' ' iff {no token is at (r, c)} AND
+     *          whatsAtPos = token character iff {there is a token at (r, c)}
+     */
+    public char whatsAtPos(int r, int c) {
+        return board[r][c];
+    }
+
+    /**
+     * This function returns whether the last token placed in column c resulted in a win. The
+     * run lengths were already worked out by placeToken, so nothing is scanned
+     *
+     * @param c The column the token was placed in
+     * @return true if the player won or false if they didn't win
+     * @pre
+     *          c is the column where the last token was placed
+     *          0 {@code <=} c {@code <} MAX_COLUMNS
+     * @post
+     *          checkForWin = true iff {the last token in column c completes NUM_TO_WIN in a row
+     *                                  vertically, horizontally or diagonally} AND
+     *          self = #self
+     */
+    @Override
+    public boolean checkForWin(int c) {
+        if (c != getLastColumn()) {
+            return super.checkForWin(c);
+        }
+        for (int d = 0; d < 4; d++) {
+            if (lastRuns[d] >= NUM_TO_WIN) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This function checks to see if the last token placed resulted in NUM_TO_WIN in a row horizontally
+     *
+     * @param r the row of where the last token was placed
+     * @param c the column of where the last token was placed
+     * @param p the player that placed the token in the cell
+     * @return true if player won through a horizontal row of NUM_TO_WIN tokens, false otherwise
+     * @pre
+     *          (r, c) needs to be a valid cell in the MAX_ROWS x MAX_COLUMNS board AND
+     *          p needs to be a valid player character
+     * @post
+     *          checkHorizWin = true iff {(r, c) is part of NUM_TO_WIN consecutive p tokens in its row} AND
+     *          self = #self
+     */
+    @Override
+    public boolean checkHorizWin(int r, int c, char p) {
+        if (!isLast(r, c, p)) {
+            return super.checkHorizWin(r, c, p);
+        }
+        return lastRuns[0] >= NUM_TO_WIN;
+    }
+
+    /**
+     * This function checks to see if the last token placed resulted in NUM_TO_WIN in a row vertically
+     *
+     * @param r the row of where the last token was placed
+     * @param c the column of where the last token was placed
+     * @param p the player that placed the token in the cell
+     * @return true if player won through a vertical column of NUM_TO_WIN tokens, false otherwise
+     * @pre
+     *          (r, c) needs to be a valid cell in the MAX_ROWS x MAX_COLUMNS board AND
+     *          p needs to be a valid player character
+     * @post
+     *          checkVertWin = true iff {(r, c) is part of NUM_TO_WIN consecutive p tokens in its column} AND
+     *          self = #self
+     */
+    @Override
+    public boolean checkVertWin(int r, int c, char p) {
+        if (!isLast(r, c, p)) {
+            return super.checkVertWin(r, c, p);
+        }
+        return lastRuns[1] >= NUM_TO_WIN;
+    }
+
+    /**
+     * This function checks to see if the last token placed resulted in NUM_TO_WIN in a row diagonally
+     *
+     * @param r the row of where the last token was placed
+     * @param c the column of where the last token was placed
+     * @param p the player that placed the token in the cell
+     * @return true if player won through a diagonal of NUM_TO_WIN tokens, false otherwise
+     * @pre
+     *          (r, c) needs to be a valid cell in the MAX_ROWS x MAX_COLUMNS board AND
+     *          p needs to be a valid player character
+     * @post
+     *          checkDiagWin = true iff {(r, c) is part of NUM_TO_WIN consecutive p tokens on a diagonal} AND
+     *          self = #self
+     */
+    @Override
+    public boolean checkDiagWin(int r, int c, char p) {
+        if (!isLast(r, c, p)) {
+            return super.checkDiagWin(r, c, p);
+        }
+        return lastRuns[2] >= NUM_TO_WIN || lastRuns[3] >= NUM_TO_WIN;
+    }
+
+    /**
+     * This functions returns the number of rows in the game board
+     * @return the number of rows on the board
+     * @post
+     *          getNumRows = the number of rows on the board
+     */
+    public int getNumRows() {
+        return MAX_ROWS;    // Returning the number of rows on the board
+    }
+
+    /**
+     * This functions returns the number of columns in the game board
+     * @return the number of columns on the board
+     * @post
+     *          getNumColumns = the number of columns on the board
+     */
+    public int getNumColumns() {
+        return MAX_COLUMNS;    // Returning the number of columns on the board
+    }
+
+    /**
+     * This functions returns the number of tokens in a row needed to win
+     * @return the number of tokens in a row needed to win
+     *
+     * @post
+     *          getNumToWin = the number of tokens in a row needed to win
+     */
+    public int getNumToWin() {
+        return NUM_TO_WIN;      // Returning the number of tokens in a row needed to win
+    }
+
+    /**
+     * This method returns the number of tokens in column c
+     * @param c the column being checked
+     * @return the number of tokens in column c
+     *
+     * @pre
+     *          0 {@code <=} c {@code <} MAX_COLUMNS
+     * @post
+     *          getColumnHeight = heights[c]
+     */
+    public int getColumnHeight(int c) {
+        return heights[c];    // returns the height of the column
+    }
+
+    /**
+     * This method returns the Zobrist hash of the tokens on the board
+     * @return the Zobrist hash of the board
+     *
+     * @post
+     *          getZobristHash = hash
+     */
+    public long getZobristHash() {
+        return hash;    // returns the hash kept up to date by placeToken
+    }
+
+    /**
+     * This method makes a copy of the board that can be changed without changing this board
+     * @return a new board holding the same tokens, move list and last placed position
+     *
+     * @post
+     *          copy = self AND self = #self
+     */
+    public GameBoardRun copy() {
+        return new GameBoardRun(this);     // copies the rows, run lengths, heights and moves
+    }
+
+    /**
+     * This method returns the length of p's run in direction d that ends at cell (r, c)
+     *
+     * @param d the direction of the run
+     * @param r the row of the cell
+     * @param c the column of the cell
+     * @param p the player whose run is being measured
+     * @return the run length stored at (r, c), or 0 if the cell is off the board or not p's
+     *
+     * @pre
+     *          0 {@code <=} d {@code <} 4 AND (r, c) is an end of its run in direction d
+     * @post
+     *          self = #self
+     */
+    private int runAt(int d, int r, int c, char p) {
+        if (r < 0 || r >= MAX_ROWS || c < 0 || c >= MAX_COLUMNS || board[r][c] != p) {
+            return 0;
+        }
+        return runs[d][r * MAX_COLUMNS + c];
+    }
+
+    /**
+     * This method counts p's tokens in a line from (r, c) in direction d, not counting (r, c)
+     *
+     * @param d the direction of the line
+     * @param r the row of the cell to start from
+     * @param c the column of the cell to start from
+     * @param p the player whose tokens are counted
+     * @param sign 1 to walk along direction d, -1 to walk against it
+     * @return the number of p's tokens in a row next to (r, c) on that side
+     *
+     * @post
+     *          self = #self
+     */
+    private int walk(int d, int r, int c, char p, int sign) {
+        int len = 0;
+        int row = r + sign * DR[d];
+        int col = c + sign * DC[d];
+        while (row >= 0 && row < MAX_ROWS && col >= 0 && col < MAX_COLUMNS && board[row][col] == p) {
+            len++;
+            row += sign * DR[d];
+            col += sign * DC[d];
+        }
+        return len;
+    }
+
+    /**
+     * This method checks whether (r, c) holds the last token placed and that token belongs to p
+     *
+     * @param r the row being checked
+     * @param c the column being checked
+     * @param p the player character
+     * @return true if (r, c) is the last placed token and it is p's, false otherwise
+     *
+     * @post
+     *          self = #self
+     */
+    private boolean isLast(int r, int c, char p) {
+        return r == getLastRow() && c == getLastColumn() && board[r][c] == p;
+    }
+}
@@ -34,6 +34,21 @@ public interface IGameBoard {
      */
     public void placeToken(char p, int c);
 
+    /**
+     * This function returns what is at the cell in row r and column c of the game board
+     *
+     * @param r the row of the cell
+     * @param c the column of the cell
+     * @return the char that is in the cell at row r and column c of the game board
+     * @pre
+     *          0 {@code <=} r {@code <} getNumRows() AND
+     *          0 {@code <=} c {@code <} getNumColumns()
+     * @post
+     *          whatsAtPos = ' ' iff {the cell has no token} AND
+     *          whatsAtPos = token character iff {there is a token in the cell}
+     */
+    public char whatsAtPos(int r, int c);
+
     /**
      * This function returns what is at the position pos on the game board
      *
@@ -47,7 +62,9 @@ public interface IGameBoard {
      *          whatsAtPos = ' ' iff {pos has no token} AND
      *          whatsAtPos = token character iff {there is a token at pos}
      */
-    public char whatsAtPos(BoardPosition pos);
+    default public char whatsAtPos(BoardPosition pos) {
+        return whatsAtPos(pos.getRow(), pos.getColumn());
+    }
 
     /**
      * The function returns the number of rows on the board
@@ -72,6 +89,109 @@ public interface IGameBoard {
      */
     public int getNumToWin();
 
+    /**
+     * The function returns the number of tokens in column c, which is also the row the next
+     * token placed in column c will land in
+     * @param c The column being checked
+     * @return the number of tokens in column c
+     * @pre
+     *          0 {@code <=} c {@code <} getNumColumns()
+     * @post
+     *          getColumnHeight = the number of tokens in column c AND
+     *          board = #board
+     */
+    public int getColumnHeight(int c);
+
+    /**
+     * The function returns the position of the last token that was placed on the board
+     * @return the position of the last token placed, or null if no token has been placed
+     * @post
+     *          getLastPlacedPosition = [ the position filled by the latest move still on the board ] AND
+     *          board = #board
+     */
+    public BoardPosition getLastPlacedPosition();
+
+    /**
+     * The function returns the number of tokens on the board
+     * @return the number of cells that hold a token
+     * @post
+     *          getOccupiedCount = [ the number of positions on the board that are not empty ] AND
+     *          board = #board
+     */
+    public int getOccupiedCount();
+
+    /**
+     * The function returns the Zobrist hash of the tokens on the board. Boards holding the same tokens
+     * in the same cells have the same hash
+     * @return the XOR of {@link Zobrist#key(int, int, char)} over every token on the board
+     * @post
+     *          getZobristHash = [ XOR of Zobrist.key(r, c, whatsAtPos(r, c)) for every non-empty cell ] AND
+     *          board = #board
+     */
+    public long getZobristHash();
+
+    /**
+     * This method takes the top token back out of column c, so a search can try a move and undo it on
+     * the same board instead of building a new one
+     *
+     * @param c The column the token is removed from
+     * @pre
+     *          0 {@code <=} c {@code <} getNumColumns() AND getColumnHeight(c) {@code >} 0
+     * @post
+     *          the top token of column c was removed, the rest of the board remained the same AND
+     *          the move that placed it was taken off the move list
+     */
+    public void removeToken(int c);
+
+    /**
+     * The function returns a column from the list of moves that placed the tokens on the board
+     * @param i the index of the move, 0 for the oldest token still on the board
+     * @return the column the i-th token still on the board was placed in
+     * @pre
+     *          0 {@code <=} i {@code <} getNumMoves()
+     * @post
+     *          getMoveColumn = [ the column of the i-th placeToken whose token has not been removed ] AND
+     *          board = #board
+     */
+    public int getMoveColumn(int i);
+
+    /**
+     * The function returns the number of moves on the move list, which is one per token on the board
+     * @return the number of moves that placed the tokens on the board
+     * @post
+     *          getNumMoves = getOccupiedCount() AND
+     *          board = #board
+     */
+    default public int getNumMoves() {
+        return getOccupiedCount();     // every token on the board came from one move
+    }
+
+    /**
+     * This method takes back the latest move still on the board
+     *
+     * @return the column the move was made in
+     * @pre
+     *          getNumMoves() {@code >} 0
+     * @post
+     *          undoMove = #getMoveColumn(getNumMoves() - 1) AND
+     *          the token of that move was removed and the rest of the board remained the same
+     */
+    default public int undoMove() {
+        int c = getMoveColumn(getNumMoves() - 1);   // the column of the latest move
+        removeToken(c);
+        return c;
+    }
+
+    /**
+     * The function returns an independent copy of the board, so a search or a simulation can play on
+     * the copy while this board stays the same
+     * @return a new board of the same kind holding the same tokens, move list and last placed position
+     * @post
+     *          copy = board AND [ later changes to either board do not affect the other ] AND
+     *          board = #board
+     */
+    public IGameBoard copy();
+
     /**
      * This function will check if the column is full
      * @param c The column being checked
@@ -83,8 +203,26 @@ public interface IGameBoard {
      *          checkIfFree = false iff {column is not full}
      */
     default public boolean checkIfFree(int c) {
-        BoardPosition pos = new BoardPosition(getNumRows()-1, c);   //get the last row in the column
-        return whatsAtPos(pos) == ' ';  //check if the last row in the column is empty
+        return getColumnHeight(c) < getNumRows();   //check if the column still has an empty row
+    }
+
+    /**
+     * This function checks to see if a player is in the cell at row r and column c
+     *
+     * @param r the row of the cell
+     * @param c the column of the cell
+     * @param player the player we are checking to see if they are in the cell
+     * @return true if player is in the cell and false if not
+     * @pre
+     *          0 {@code <=} r {@code <} getNumRows() AND
+     *          0 {@code <=} c {@code <} getNumColumns()
+     * @post
+     *          isPlayerAtPos = true iff {player is in the cell} AND
+     *          isPlayerAtPos = false iff {player is not in the cell} AND
+     *          board = #board
+     */
+    default public boolean isPlayerAtPos(int r, int c, char player) {
+        return whatsAtPos(r, c) == player;
     }
 
     /**
@@ -105,7 +243,7 @@ public interface IGameBoard {
      *          board = #board
      */
     default public boolean isPlayerAtPos(BoardPosition pos, char player) {
-        return whatsAtPos(pos) == player;
+        return isPlayerAtPos(pos.getRow(), pos.getColumn(), player);
     }
 
     /**
@@ -125,29 +263,10 @@ public interface IGameBoard {
      *          checkForWin = false iff {a player didn't win}
      */
     default public boolean checkForWin(int c) {
-        int lastToken = 0;
-        BoardPosition pos = new BoardPosition(lastToken, c);
-        while (lastToken <= getNumRows()-1 && whatsAtPos(pos) != ' ') {
-            lastToken++;
-            pos = new BoardPosition(lastToken, c);
-        }
-        BoardPosition newPos  = new BoardPosition(lastToken-1, c);    //create a new position with the last token placed
-        // check if the last token placed resulted in a horizontal win
-        if (checkHorizWin(newPos, whatsAtPos(newPos))) {
-            return true;
-        }
-        // check if the last token placed resulted in a vertical win
-        else if (checkVertWin(newPos, whatsAtPos(newPos))) {
-            return true;
-        }
-        // check if the last token placed resulted in a diagonal win
-        else if (checkDiagWin(newPos, whatsAtPos(newPos))) {
-            return true;
-        }
-        // if none of the above are true then the player didn't win
-        else {
-            return false;
-        }
+        int r = getColumnHeight(c)-1;   //the row of the last token placed in the column
+        char p = whatsAtPos(r, c);
+        // check if the last token placed resulted in a horizontal, vertical or diagonal win
+        return checkHorizWin(r, c, p) || checkVertWin(r, c, p) || checkDiagWin(r, c, p);
     }
 
     /**
@@ -162,15 +281,40 @@ public interface IGameBoard {
      *          checkTie = false iff {there is a position on the game board that is empty}
      */
     default public boolean checkTie() {
-        boolean check = true;
-        // check if all the columns are full
-        for (int i = 0; i < getNumColumns(); i++) {
-            if (checkIfFree(i)) {
-                check = false;   // if all the columns are full then check is true
-                break;
-            }
+        return getOccupiedCount() == getNumRows() * getNumColumns();   // every cell holds a token
+    }
+
+    /**
+     * This function checks to see if the last token placed (which was placed in
+     * row r and column c by player p) resulted in getNumToWin() in a row horizontally. Returns
+     * true if it does, otherwise false
+     *
+     * @param r the row of where the last token was placed
+     * @param c the column of where the last token was placed
+     * @param p the player that placed the token in the cell
+     * @return true of player won through a horizontal row of getNumToWin() tokens AND
+     *         false is player didn't win
+     * @pre
+     *          (r, c) needs to be a valid cell in the getNumRows() x getNumColumns() board AND
+     *          (r, c) is the cell of the latest play and the given marker is located there AND
+     *          p needs to be a valid player character
+     * @post
+     *          checkHorizWin = true iff {a placed marker is the last to make up the maximum
+     *                                    number of consecutive same markers needed to win horizontally} AND
+     *          checkHorizWin = false iff {player p didn't win the game}
+     */
+    default public boolean checkHorizWin(int r, int c, char p) {
+        int horizCounter = 0;
+        // check to the right of the last token placed
+        for (int i = c; i < getNumColumns() && isPlayerAtPos(r, i, p); i++) {
+            horizCounter++;     // increment the counter
+        }
+        // check to the left of the last token placed
+        for (int i = c - 1; i >= 0 && isPlayerAtPos(r, i, p); i--) {
+            horizCounter++;     // increment the counter
         }
-        return check;   // return check
+        // if the counter is greater than or equal to the number of tokens needed to win return true else false
+        return horizCounter >= getNumToWin();
     }
 
     /**
@@ -193,33 +337,36 @@ public interface IGameBoard {
      *          checkHorizWin = false iff {player p didn't win the game}
      */
     default public boolean checkHorizWin(BoardPosition pos, char p) {
-        int horizCounter = 0;
-        int r = pos.getRow();
-        int c = pos.getColumn();
-        int tempC = c - 1;
-        // check to the left of the last token placed
-        if (c <= getNumColumns()-1) {
-            while (c < getNumColumns() && whatsAtPos(pos) == p) {
-                horizCounter++;     // increment the counter
-                c++;
-                pos = new BoardPosition(r, c);  // get the next position to the right
-            }
-        }
-        // check to the right of the last token placed
-        if (tempC >= 0) {
-            BoardPosition newPos = new BoardPosition(r, tempC);
-            while (tempC >= 0 && whatsAtPos(newPos) == p) {
-                horizCounter++;     // increment the counter
-                tempC--;
-                newPos = new BoardPosition(r, tempC);   // get the next position to the left
-            }
-        }
-        // if the counter is greater than or equal to the number of tokens needed to win return true else false
-        if (horizCounter >= getNumToWin()) {
-            return true;
-        } else {
-            return false;
+        return checkHorizWin(pos.getRow(), pos.getColumn(), p);
+    }
+
+    /**
+     * This function checks to see if the last token placed (which was placed in
+     * row r and column c by player p) resulted in getNumToWin() in a row vertically. Returns
+     * true if it does, otherwise false
+     *
+     * @param r the row of where the last token was placed
+     * @param c the column of where the last token was placed
+     * @param p the player that placed the token in the cell
+     * @return true of player won through a Vertical column of getNumToWin() tokens AND
+     *         false is player didn't win
+     * @pre
+     *          (r, c) needs to be a valid cell in the getNumRows() x getNumColumns() board AND
+     *          (r, c) is the cell of the latest play
+     *          p needs to be a valid player character
+     * @post
+     *          checkVertWin = true iff {last placed marker is the last to make the maximum number of consecutive
+     *                                   same markers needed for player p to win} AND
+     *          checkVertWin = false iff {player p didn't win the game}
+     */
+    default public boolean checkVertWin(int r, int c, char p) {
+        int vertCounter = 0;
+        // check below the last token placed
+        for (int i = r; i >= 0 && i < getNumRows() && isPlayerAtPos(i, c, p); i--) {
+            vertCounter++;  // increment the counter
         }
+        // if vertCounter is equal to the number of tokens needed to win return true else false
+        return vertCounter == getNumToWin();
     }
 
     /**
@@ -241,21 +388,52 @@ public interface IGameBoard {
      *          checkHorizWin = false iff {player p didn't win the game}
      */
     default public boolean checkVertWin(BoardPosition pos, char p) {
-        int vertCounter = 0;
-        int r = pos.getRow();
-        int c = pos.getColumn();
-        // check below the last token placed
-        while (r >= 0 && r < getNumRows() && whatsAtPos(pos) == p) {
-            vertCounter++;  // increment the counter
-            r--;
-            pos = new BoardPosition(r, c);  // get the next position below
+        return checkVertWin(pos.getRow(), pos.getColumn(), p);
+    }
+
+    /**
+     * This function checks to see if the last token placed (which was placed in
+     * row r and column c by player p) resulted in getNumToWin() in a row diagonally. Returns
+     * true if it does, otherwise false
+     *
+     * @param r the row of where the last token was placed
+     * @param c the column of where the last token was placed
+     * @param p the player that placed the token in the cell
+     * @return true ff player won through a diagonal of getNumToWin() tokens AND
+     *         false is player didn't win
+     * @pre
+     *          (r, c) needs to be a valid cell in the getNumRows() x getNumColumns() board AND
+     *          p needs to be a valid player character
+     * @post
+     *          checkDiagWin = true iff { if a placed marker is the last to make up the maximum number
+     *                                    of consecutive same markers needed to win diagonally} AND
+     *          checkDiagWin = false iff {player p didn't win the game}
+     */
+    default public boolean checkDiagWin(int r, int c, char p) {
+        int diagCounter = 0;
+        // checks the right diagonal up and to the right of the last token placed
+        for (int i = r, j = c; i < getNumRows() && j < getNumColumns() && isPlayerAtPos(i, j, p); i++, j++) {
+            diagCounter++;  // increment the counter
         }
-        // if vertCounter is equal to the number of tokens needed to win return true else false
-        if (vertCounter == getNumToWin()) {
+        // checks the right diagonal down and to the left of the last token placed
+        for (int i = r - 1, j = c - 1; i >= 0 && j >= 0 && isPlayerAtPos(i, j, p); i--, j--) {
+            diagCounter++;
+        }
+        // if diagCounter is equal to the number of tokens needed to win return true
+        if (diagCounter >= getNumToWin()) {
             return true;
-        } else {
-            return false;
         }
+        diagCounter = 0;
+        // checks the left diagonal up and to the left of the last token placed
+        for (int i = r, j = c; i < getNumRows() && j >= 0 && isPlayerAtPos(i, j, p); i++, j--) {
+            diagCounter++;
+        }
+        // checks the left diagonal down and to the right of the last token placed
+        for (int i = r - 1, j = c + 1; i >= 0 && j < getNumColumns() && isPlayerAtPos(i, j, p); i--, j++) {
+            diagCounter++;
+        }
+        // if diagCounter is equal to the number of tokens needed to win return true else false
+        return diagCounter >= getNumToWin();
     }
 
     /**
@@ -276,57 +454,6 @@ public interface IGameBoard {
      *          checkHorizWin = false iff {player p didn't win the game}
      */
     default public boolean checkDiagWin(BoardPosition pos, char p) {
-        int diagCounter = 0;
-        int r = pos.getRow();
-        int c = pos.getColumn();
-        int leftr = pos.getRow();
-        int leftc = pos.getColumn();
-        int leftTempC = c + 1;
-        int leftTempR = r - 1;
-        int rightTempC = c - 1;
-        int rightTempR = r - 1;
-        // checks the right diagonal to the right of the last token placed
-        while (r < getNumRows() && c < getNumColumns() && whatsAtPos(pos) == p) {
-            diagCounter++;  // increment the counter
-            c++;
-            r++;
-            pos = new BoardPosition(r, c);  // get the next position to the right
-        }
-        // checks the right diagonal to the left of the last token placed
-        if (rightTempC >= 0 && rightTempR >= 0) {
-            BoardPosition rightPos = new BoardPosition(rightTempR, rightTempC);
-            while (rightTempR >= 0 && rightTempC >= 0 && whatsAtPos(rightPos) == p) {
-                diagCounter++;
-                rightTempC--;
-                rightTempR--;
-                rightPos = new BoardPosition(rightTempR, rightTempC);
-            }
-        }
-        // if diagCounter is equal to the number of tokens needed to win return true else false
-        if (diagCounter >= getNumToWin()) {
-            return true;
-        } else {
-            diagCounter = 0;
-            // checks the left diagonal to the left of the last token placed
-            BoardPosition leftPos = new BoardPosition(leftr, leftc);
-            while (leftr < getNumRows() && leftc >= 0 && whatsAtPos(leftPos) == p) {
-                diagCounter++;
-                leftc--;
-                leftr++;
-                leftPos = new BoardPosition(leftr, leftc);
-            }
-            // checks the left diagonal to the right of the last token placed
-            if (leftTempC < getNumColumns() && leftTempR >= 0) {
-                BoardPosition leftTempPos = new BoardPosition(leftTempR, leftTempC);
-                while (leftTempC < getNumColumns() && leftTempR >= 0 && whatsAtPos(leftTempPos) == p) {
-                    diagCounter++;
-                    leftTempC++;
-                    leftTempR--;
-                    leftTempPos = new BoardPosition(leftTempR, leftTempC);
-                }
-            }
-            // if diagCounter is equal to the number of tokens needed to win return true else false
-            return diagCounter >= getNumToWin();
-        }
+        return checkDiagWin(pos.getRow(), pos.getColumn(), p);
     }
 }
@@ -0,0 +1,185 @@
+package cpsc2150.extendedConnectX.models;
+import java.util.Arrays;
+
+/**
+ * @version 1.0
+ * <p>The PositionMap class is an open-addressing hash map from a packed board cell index to the
+ *    player character in that cell.</p>
+ * <p>Keys and values are kept in two primitive arrays and collisions are resolved by linear
+ *    probing, so a lookup is a multiply, a shift and usually one array read with nothing boxed or
+ *    allocated. The table starts small and doubles when it is half full, so its size follows
+ *    the number of tokens on the board rather than the size of the board. Removing a key shifts
+ *    the rest of its probe run back, so no deleted markers build up as tokens are undone.</p>
+ * @invariants
+ *              keys.length is a power of 2 AND
+ *              size {@code <=} keys.length / 2 AND
+ *              keys[i] = EMPTY iff {slot i is not in use}
+ * @correspondence
+ *              self = { (keys[i], values[i]) : keys[i] != EMPTY }
+ */
+class PositionMap {
+    private static final int EMPTY = -1;        // The key marking an unused slot
+    private static final int MIN_CAPACITY = 16; // The starting number of slots
+    private int[] keys;
+    private char[] values;
+    private int size;       // The number of keys in use
+    private int shift;      // 32 - log2(keys.length), used to take the top bits of the hash
+
+    /**
+     * This is the constructor for an empty map
+     *
+     * @post
+     *          size = 0 AND keys.length = MIN_CAPACITY
+     */
+    PositionMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * This is the copy constructor, which copies both arrays as they are so no key is hashed again
+     * @param other the map to copy
+     *
+     * @post
+     *          self = other AND later changes to self or other do not affect the other map
+     */
+    PositionMap(PositionMap other) {
+        keys = other.keys.clone();
+        values = other.values.clone();
+        size = other.size;
+        shift = other.shift;
+    }
+
+    /**
+     * This method returns the value stored for a key
+     *
+     * @param key the packed cell index
+     * @return the character stored for key, or ' ' if the key is not in the map
+     *
+     * @pre
+     *          key {@code >=} 0
+     * @post
+     *          get = values[slot of key] iff {key is in the map} AND get = ' ' otherwise AND
+     *          self = #self
+     */
+    char get(int key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            int k = keys[i];
+            if (k == key) {
+                return values[i];
+            }
+            if (k == EMPTY) {
+                return ' ';
+            }
+        }
+    }
+
+    /**
+     * This method stores a value for a key, replacing any value already stored for it
+     *
+     * @param key the packed cell index
+     * @param value the player character in the cell
+     *
+     * @pre
+     *          key {@code >=} 0
+     * @post
+     *          get(key) = value AND every other key keeps its value
+     */
+    void put(int key, char value) {
+        int mask = keys.length - 1;
+        int i = slot(key);
+        // probes until it finds the key or the first empty slot
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == EMPTY) {
+            keys[i] = key;
+            size++;
+        }
+        values[i] = value;
+        // grows the table once it is half full to keep the probe runs short
+        if (size * 2 > keys.length) {
+            int[] oldKeys = keys;
+            char[] oldValues = values;
+            allocate(keys.length * 2);
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != EMPTY) {
+                    put(oldKeys[j], oldValues[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method takes a key out of the map. Instead of leaving a marker in the slot, it moves later
+     * keys of the same probe run back into the gap, so lookups never have to step over removed keys
+     *
+     * @param key the packed cell index
+     *
+     * @pre
+     *          key is in the map
+     * @post
+     *          get(key) = ' ' AND every other key keeps its value AND size = #size - 1
+     */
+    void remove(int key) {
+        int mask = keys.length - 1;
+        int i = slot(key);
+        while (keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        // shifts back every later key whose home slot is not between the gap and where it sits
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = EMPTY;
+        size--;
+    }
+
+    /**
+     * This method returns the number of keys in the map
+     *
+     * @return the number of keys in the map
+     *
+     * @post
+     *          size = the number of keys in the map AND self = #self
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * This method finds the home slot for a key using Fibonacci hashing
+     *
+     * @param key the packed cell index
+     * @return the first slot to probe for key
+     *
+     * @post
+     *          0 {@code <=} slot {@code <} keys.length
+     */
+    private int slot(int key) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * This method replaces the table with an empty table of the given capacity
+     *
+     * @param capacity the number of slots
+     *
+     * @pre
+     *          capacity is a power of 2
+     * @post
+     *          keys.length = capacity AND size = 0 AND every slot is EMPTY
+     */
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new char[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+    }
+}
@@ -0,0 +1,40 @@
+package cpsc2150.extendedConnectX.models;
+
+/**
+ * @version 1.0
+ * <p>The Zobrist class gives every (row, column, player character) combination a fixed random-looking
+ *    64-bit key. The hash of a board is the XOR of the keys of all of its tokens, so placing or removing
+ *    a token changes the hash with a single XOR.</p>
+ * <p>The keys come from the SplitMix64 mixing function instead of a table filled by a random number
+ *    generator. That covers every player character without a table, and it means the same board has the
+ *    same hash in every run, so hashes can be written to files and read back later.</p>
+ */
+public final class Zobrist {
+
+    /**
+     * The Zobrist class only has static methods
+     */
+    private Zobrist() {
+    }
+
+    /**
+     * This method returns the key for a player's token in a cell
+     *
+     * @param r the row of the cell
+     * @param c the column of the cell
+     * @param p the player character
+     * @return the 64-bit key for p's token at (r, c)
+     *
+     * @pre
+     *          0 {@code <=} r {@code <} 65536 AND 0 {@code <=} c {@code <} 65536
+     * @post
+     *          key is the same for every call with the same r, c and p
+     */
+    public static long key(int r, int c, char p) {
+        long z = ((long) r << 40 | (long) c << 16 | p) * 0x9E3779B97F4A7C15L + 0x9E3779B97F4A7C15L;
+        // SplitMix64 finalizer
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,536 @@
+package cpsc2150.extendedConnectX.records;
+
+import cpsc2150.extendedConnectX.controllers.GameSession;
+import cpsc2150.extendedConnectX.models.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * This class is the entry point for analysing game archives. It reads any number of archives of
+ * {@link GameRecord}s on every core, replays each game on a {@link GameBoardBit} and reports, for each
+ * configuration, how often each seat wins, how long the games run and in which direction they are won.
+ * <p>
+ * The archives are split into chunks of CHUNK_BYTES and each thread takes the next chunk until all are read.
+ * A chunk owns the records whose SYNC byte lies in it, and is read together with enough of the next chunk to
+ * finish its last record, so no record is read twice or missed. Since SYNC is the only byte of a record with
+ * its top bit set, a thread finds the first record of its chunk by skipping to the first SYNC byte. Each
+ * thread keeps one read buffer and its own results, so memory does not grow with the size of the archives.
+ * <p>
+ * A configuration is the rows, columns, number to win and number of players, since the first player's
+ * chances depend on all four.
+ *
+ * @version 2.0
+ */
+public class GameAnalytics {
+
+    /**
+     * <p>
+     * Constants for the size of a chunk and for the longest a record can be, both in bytes
+     * </p>
+     */
+    public static final int CHUNK_BYTES = 1 << 22;
+    public static final int MAX_RECORD_BYTES = GameRecord.HEADER_BYTES + GameRecord.MAX_MOVES;
+
+    /**
+     * <p>
+     * The results of every game read so far, by configuration
+     * </p>
+     */
+    private final Map<Integer, Stats> totals = new TreeMap<>();
+
+    /**
+     * <p>
+     * The number of bytes read, and of those skipped because they were not part of a record
+     * </p>
+     */
+    private long bytes;
+    private long skipped;
+
+    /**
+     * <p>
+     * This method is the main entry point for the analytics.
+     * </p>
+     *
+     * @param args
+     *            Command-line arguments: the archive files to read.
+     * @throws IOException if an archive cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("usage: GameAnalytics archive ...");
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            files.add(Paths.get(arg));
+        }
+        GameAnalytics analytics = new GameAnalytics();
+        int threads = Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        analytics.run(files, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        analytics.report(seconds, threads);
+    }
+
+    /**
+     * <p>
+     * This reads archives on a pool of threads and adds every game in them to the results.
+     * </p>
+     *
+     * @param files
+     *      The archive files
+     * @param threads
+     *      How many chunks to read at the same time
+     * @return the results of every game read so far, by configuration key
+     * @throws IOException if an archive cannot be read
+     *
+     * @pre threads >= 1
+     */
+    public Map<Integer, Stats> run(List<Path> files, int threads) throws IOException {
+        List<FileChannel> channels = new ArrayList<>();
+        List<long[]> chunks = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (Path file : files) {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                channels.add(channel);
+                long size = channel.size();
+                bytes += size;
+                for (long start = 0; start < size; start += CHUNK_BYTES) {
+                    chunks.add(new long[] {channels.size() - 1, start});
+                }
+            }
+            AtomicInteger next = new AtomicInteger();
+            pool.submit(() -> IntStream.range(0, threads).parallel().forEach(t -> {
+                // each thread keeps its own buffer and results and adds them in once at the end
+                ByteBuffer buf = ByteBuffer.allocateDirect(CHUNK_BYTES + MAX_RECORD_BYTES);
+                Map<Integer, Stats> mine = new HashMap<>();
+                long mySkipped = 0;
+                for (int i = next.getAndIncrement(); i < chunks.size(); i = next.getAndIncrement()) {
+                    long[] chunk = chunks.get(i);
+                    try {
+                        mySkipped += scan(channels.get((int) chunk[0]), chunk[1], buf, mine);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                synchronized (totals) {
+                    for (Stats stats : mine.values()) {
+                        Stats total = totals.get(stats.key());
+                        if (total == null) {
+                            totals.put(stats.key(), stats);
+                        } else {
+                            total.add(stats);
+                        }
+                    }
+                    skipped += mySkipped;
+                }
+            })).join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * <p>
+     * This adds every record that starts in one chunk of an archive to a thread's results.
+     * </p>
+     *
+     * @param channel
+     *      The archive file
+     * @param start
+     *      The offset of the chunk in the file
+     * @param buf
+     *      The thread's read buffer
+     * @param stats
+     *      The thread's results, by configuration key
+     * @return the number of bytes in the chunk that were not part of a record
+     * @throws IOException if the file cannot be read
+     */
+    private long scan(FileChannel channel, long start, ByteBuffer buf, Map<Integer, Stats> stats)
+            throws IOException {
+        long size = channel.size();
+        buf.clear();
+        buf.limit((int) (Math.min(size, start + CHUNK_BYTES + MAX_RECORD_BYTES) - start));
+        while (buf.hasRemaining() && channel.read(buf, start + buf.position()) >= 0) {
+            // read until the buffer is full or the file ends
+        }
+        buf.flip();
+        int end = (int) Math.min(size - start, CHUNK_BYTES);
+        long bad = 0;
+        // the bytes before the first SYNC finish the record the chunk before owns, or were counted by that
+        // chunk as far as its buffer reached
+        if (start > 0) {
+            while (buf.position() < end && (buf.get(buf.position()) & 0xFF) != GameRecord.SYNC) {
+                if (buf.position() >= MAX_RECORD_BYTES) {
+                    bad++;
+                }
+                buf.get();
+            }
+        }
+        while (buf.position() < end) {
+            if ((buf.get(buf.position()) & 0xFF) != GameRecord.SYNC) {
+                buf.get();
+                bad++;
+                continue;
+            }
+            try {
+                GameRecord record = GameRecord.decode(buf);
+                int key = key(record.getNumRows(), record.getNumColumns(), record.getNumToWin(),
+                        record.getNumPlayers());
+                Stats s = stats.get(key);
+                if (s == null) {
+                    s = new Stats(record.getNumRows(), record.getNumColumns(), record.getNumToWin(),
+                            record.getNumPlayers());
+                    stats.put(key, s);
+                }
+                s.addGame(record);
+            } catch (IllegalArgumentException e) {
+                bad++;
+            } catch (BufferUnderflowException e) {
+                // a record cut off by the end of the file is a torn write
+                buf.get();
+                bad++;
+            }
+        }
+        // the bytes after the last record, up to the next chunk's first SYNC, are not part of any record
+        while (buf.hasRemaining() && (buf.get(buf.position()) & 0xFF) != GameRecord.SYNC) {
+            buf.get();
+            bad++;
+        }
+        return bad;
+    }
+
+    /**
+     * <p>
+     * This prints the results.
+     * </p>
+     *
+     * @param seconds
+     *      How long the run took
+     * @param threads
+     *      How many threads read the archives
+     */
+    private void report(double seconds, int threads) {
+        long games = 0;
+        for (Stats s : totals.values()) {
+            games += s.getGames();
+        }
+        System.out.printf("%d games in %d bytes on %d threads in %.2f s: %.0f games/s, %.1f MB/s%n", games,
+                bytes, threads, seconds, games / seconds, bytes / seconds / 1e6);
+        if (skipped > 0) {
+            System.out.println("skipped " + skipped + " bytes that were not part of a record");
+        }
+        for (Stats s : totals.values()) {
+            if (s.getGames() == 0) {
+                // damaged headers can make up configurations no game was played in
+                System.out.printf("%dx%d, %d to win, %d players: %d games could not be replayed%n", s.getNumRows(),
+                        s.getNumColumns(), s.getNumToWin(), s.getNumPlayers(), s.getUnplayable());
+                continue;
+            }
+            System.out.printf("%dx%d, %d to win, %d players: %d games, first player wins %.1f%%, ties %.1f%%,"
+                            + " %.1f moves per game%n", s.getNumRows(), s.getNumColumns(), s.getNumToWin(),
+                    s.getNumPlayers(), s.getGames(), 100.0 * s.getSeatWins(0) / s.getGames(),
+                    100.0 * s.getTies() / s.getGames(), (double) s.getMoves() / s.getGames());
+            System.out.printf("  wins by direction: horizontal %d, vertical %d, diagonal %d; most common %s%n",
+                    s.getHorizontalWins(), s.getVerticalWins(), s.getDiagonalWins(), s.getMostCommonDirection());
+            if (s.getUnplayable() > 0) {
+                System.out.println("  " + s.getUnplayable() + " games could not be replayed");
+            }
+        }
+    }
+
+    /**
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param numToWin
+     *      Number of tokens in a row required to win
+     * @param players
+     *      Number of players in the game
+     * @return the key of the configuration, which sorts by rows, then columns, number to win and players
+     */
+    public static int key(int rows, int cols, int numToWin, int players) {
+        return rows << 24 | cols << 16 | numToWin << 8 | players;
+    }
+
+    /**
+     * @return the number of bytes skipped so far because they were not part of a record
+     */
+    public long getSkippedBytes() {
+        return skipped;
+    }
+
+    /**
+     * This class holds the results of the games of one configuration.
+     *
+     * @version 2.0
+     */
+    public static class Stats {
+
+        /**
+         * <p>
+         * The configuration of the games
+         * </p>
+         */
+        private final int rows;
+        private final int cols;
+        private final int numToWin;
+        private final int players;
+
+        /**
+         * <p>
+         * The games read and the moves in them
+         * </p>
+         */
+        private long games;
+        private long moves;
+
+        /**
+         * <p>
+         * The wins of each seat and the games nobody won
+         * </p>
+         */
+        private final long[] seatWins;
+        private long ties;
+
+        /**
+         * <p>
+         * The wins completed by each direction of line. A move that completes lines in two directions at
+         * once counts for both
+         * </p>
+         */
+        private long horizontal;
+        private long vertical;
+        private long diagonal;
+
+        /**
+         * <p>
+         * The games whose moves do not fit the board or whose board does not show the recorded winner
+         * </p>
+         */
+        private long unplayable;
+
+        /**
+         * <p>
+         * This creates empty results.
+         * </p>
+         *
+         * @param rows
+         *      Number of rows for the board
+         * @param cols
+         *      Number of columns for the board
+         * @param numToWin
+         *      Number of tokens in a row required to win
+         * @param players
+         *      Number of players in the game
+         */
+        Stats(int rows, int cols, int numToWin, int players) {
+            this.rows = rows;
+            this.cols = cols;
+            this.numToWin = numToWin;
+            this.players = players;
+            seatWins = new long[players];
+        }
+
+        /**
+         * <p>
+         * This replays a game and adds it.
+         * </p>
+         *
+         * @param record
+         *      A game of this configuration
+         */
+        void addGame(GameRecord record) {
+            if (rows < 3 || rows > 63 || cols < 3 || cols > 63 || numToWin > rows || numToWin > cols) {
+                unplayable++;
+                return;
+            }
+            GameBoardBit board = new GameBoardBit(rows, cols, numToWin);
+            int n = record.getNumMoves();
+            for (int i = 0; i < n; i++) {
+                int col = record.getMove(i);
+                if (!board.checkIfFree(col)) {
+                    unplayable++;
+                    return;
+                }
+                board.placeToken(GameSession.getToken(i % players), col);
+            }
+            int winner = record.getWinner();
+            boolean won = n > 0 && board.checkForWin(record.getMove(n - 1));
+            if (won != (winner >= 0)) {
+                unplayable++;
+                return;
+            }
+            games++;
+            moves += n;
+            if (winner < 0) {
+                ties++;
+                return;
+            }
+            seatWins[winner]++;
+            BoardPosition last = board.getLastPlacedPosition();
+            char p = GameSession.getToken(winner);
+            if (board.checkHorizWin(last.getRow(), last.getColumn(), p)) {
+                horizontal++;
+            }
+            if (board.checkVertWin(last.getRow(), last.getColumn(), p)) {
+                vertical++;
+            }
+            if (board.checkDiagWin(last.getRow(), last.getColumn(), p)) {
+                diagonal++;
+            }
+        }
+
+        /**
+         * <p>
+         * This adds another batch of results to these.
+         * </p>
+         *
+         * @param other
+         *      Results for the same configuration
+         */
+        void add(Stats other) {
+            games += other.games;
+            moves += other.moves;
+            for (int i = 0; i < seatWins.length; i++) {
+                seatWins[i] += other.seatWins[i];
+            }
+            ties += other.ties;
+            horizontal += other.horizontal;
+            vertical += other.vertical;
+            diagonal += other.diagonal;
+            unplayable += other.unplayable;
+        }
+
+        /**
+         * @return the key of this configuration
+         */
+        int key() {
+            return GameAnalytics.key(rows, cols, numToWin, players);
+        }
+
+        /**
+         * @return the number of rows of the board
+         */
+        public int getNumRows() {
+            return rows;
+        }
+
+        /**
+         * @return the number of columns of the board
+         */
+        public int getNumColumns() {
+            return cols;
+        }
+
+        /**
+         * @return the number of tokens in a row needed to win
+         */
+        public int getNumToWin() {
+            return numToWin;
+        }
+
+        /**
+         * @return the number of players in each game
+         */
+        public int getNumPlayers() {
+            return players;
+        }
+
+        /**
+         * @return the number of games replayed
+         */
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * @return the total number of moves in the games replayed
+         */
+        public long getMoves() {
+            return moves;
+        }
+
+        /**
+         * @param seat
+         *      The index of a seat in turn order
+         * @return the number of games that seat won
+         *
+         * @pre 0 <= seat < getNumPlayers()
+         */
+        public long getSeatWins(int seat) {
+            return seatWins[seat];
+        }
+
+        /**
+         * @return the number of games nobody won
+         */
+        public long getTies() {
+            return ties;
+        }
+
+        /**
+         * @return the number of wins completed by a horizontal line
+         */
+        public long getHorizontalWins() {
+            return horizontal;
+        }
+
+        /**
+         * @return the number of wins completed by a vertical line
+         */
+        public long getVerticalWins() {
+            return vertical;
+        }
+
+        /**
+         * @return the number of wins completed by a diagonal line
+         */
+        public long getDiagonalWins() {
+            return diagonal;
+        }
+
+        /**
+         * @return "horizontal", "vertical" or "diagonal", whichever completed the most wins, or "none" if
+         * there were no wins
+         */
+        public String getMostCommonDirection() {
+            if (horizontal == 0 && vertical == 0 && diagonal == 0) {
+                return "none";
+            } else if (horizontal >= vertical && horizontal >= diagonal) {
+                return "horizontal";
+            }
+            return vertical >= diagonal ? "vertical" : "diagonal";
+        }
+
+        /**
+         * @return the number of games that could not be replayed
+         */
+        public long getUnplayable() {
+            return unplayable;
+        }
+    }
+}
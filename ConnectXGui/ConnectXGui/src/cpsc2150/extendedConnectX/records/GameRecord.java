@@ -0,0 +1,296 @@
+package cpsc2150.extendedConnectX.records;
+
+import cpsc2150.extendedConnectX.controllers.GameSession;
+import cpsc2150.extendedConnectX.models.*;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * This class is one finished game in the compact binary form the game archives are kept in: the
+ * configuration, who won, and the column of every move in order.
+ * <p>
+ * An encoded record is HEADER_BYTES bytes followed by one byte per move:
+ * <ol>
+ *     <li>SYNC, the only byte of a record with its top bit set</li>
+ *     <li>VERSION</li>
+ *     <li>rows, columns, number to win and number of players</li>
+ *     <li>the number of moves as two 7-bit bytes, high bits first</li>
+ *     <li>the index of the winner in turn order, or NO_WINNER</li>
+ *     <li>the column of each move</li>
+ * </ol>
+ * Every byte after SYNC is under 0x80, so a reader dropped anywhere in an archive finds the start of the
+ * next record by skipping to the next SYNC byte. A game is about 30 bytes where its text dump is thousands.
+ * <p>
+ * Tokens are the ones {@link GameSession} hands out, so a replayed board has the same Zobrist hash as the
+ * board of the real game.
+ *
+ * @version 2.0
+ */
+public class GameRecord {
+
+    /**
+     * <p>
+     * Constants for the first byte of every record, the record format version and the size of the header
+     * in bytes
+     * </p>
+     */
+    public static final int SYNC = 0xC5;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 9;
+
+    /**
+     * <p>
+     * Constants for the winner of a game nobody won, and for the most moves a record can hold
+     * </p>
+     */
+    public static final int NO_WINNER = 0x7F;
+    public static final int MAX_MOVES = (1 << 14) - 1;
+
+    /**
+     * <p>
+     * The configuration of the game
+     * </p>
+     */
+    private final int rows;
+    private final int cols;
+    private final int numToWin;
+    private final int players;
+
+    /**
+     * <p>
+     * The index of the winner in turn order, or -1 if nobody won
+     * </p>
+     */
+    private final int winner;
+
+    /**
+     * <p>
+     * The column of each move, in the order they were played
+     * </p>
+     */
+    private final byte[] moves;
+
+    /**
+     * <p>
+     * This creates a record of a game.
+     * </p>
+     *
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param numToWin
+     *      Number of tokens in a row required to win
+     * @param players
+     *      Number of players in the game
+     * @param winner
+     *      The index of the winner in turn order, or -1 if nobody won
+     * @param moves
+     *      The column of each move, in the order they were played
+     *
+     * @pre 0 < rows, cols, numToWin < 0x80 and 2 <= players <= GameSession.MAX_PLAYERS and
+     * -1 <= winner < players and moves.length <= MAX_MOVES and [ every move is a column of the board ]
+     */
+    public GameRecord(int rows, int cols, int numToWin, int players, int winner, byte[] moves) {
+        this.rows = rows;
+        this.cols = cols;
+        this.numToWin = numToWin;
+        this.players = players;
+        this.winner = winner;
+        this.moves = moves.clone();
+    }
+
+    /**
+     * <p>
+     * This records the game on a session's board as it stands.
+     * </p>
+     *
+     * @param session
+     *      The game to record
+     * @return a record of every move on the session's board and the session's winner
+     */
+    public static GameRecord of(GameSession session) {
+        IGameBoard board = session.getBoard();
+        byte[] moves = new byte[board.getNumMoves()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = (byte) board.getMoveColumn(i);
+        }
+        int winner = -1;
+        for (int i = 0; i < session.getNumPlayers(); i++) {
+            if (GameSession.getToken(i) == session.getWinner()) {
+                winner = i;
+            }
+        }
+        return new GameRecord(board.getNumRows(), board.getNumColumns(), board.getNumToWin(),
+                session.getNumPlayers(), winner, moves);
+    }
+
+    /**
+     * <p>
+     * This reads the record that starts at a buffer's position.
+     * </p>
+     *
+     * @param buf
+     *      The buffer, positioned at a SYNC byte
+     * @return the record, with buf positioned after it
+     * @throws BufferUnderflowException if buf ends before the record does, leaving buf where it was
+     * @throws IllegalArgumentException if the bytes are not a record of a known version, leaving buf one byte
+     * past where it was
+     */
+    public static GameRecord decode(ByteBuffer buf) {
+        int start = buf.position();
+        if (buf.remaining() < HEADER_BYTES) {
+            throw new BufferUnderflowException();
+        }
+        if ((buf.get(start) & 0xFF) != SYNC || buf.get(start + 1) != VERSION) {
+            buf.position(start + 1);
+            throw new IllegalArgumentException("No game record at " + start);
+        }
+        int rows = buf.get(start + 2);
+        int cols = buf.get(start + 3);
+        int numToWin = buf.get(start + 4);
+        int players = buf.get(start + 5);
+        int count = buf.get(start + 6) << 7 | buf.get(start + 7);
+        int winner = buf.get(start + 8);
+        if (rows <= 0 || cols <= 0 || numToWin <= 0 || players < 2 || players > GameSession.MAX_PLAYERS
+                || count < 0 || winner < 0 || (winner >= players && winner != NO_WINNER)) {
+            buf.position(start + 1);
+            throw new IllegalArgumentException("Bad game record header at " + start);
+        }
+        if (buf.remaining() < HEADER_BYTES + count) {
+            throw new BufferUnderflowException();
+        }
+        byte[] moves = new byte[count];
+        buf.position(start + HEADER_BYTES);
+        buf.get(moves);
+        for (byte move : moves) {
+            if (move < 0 || move >= cols) {
+                buf.position(start + 1);
+                throw new IllegalArgumentException("Bad move in game record at " + start);
+            }
+        }
+        return new GameRecord(rows, cols, numToWin, players, winner == NO_WINNER ? -1 : winner, moves);
+    }
+
+    /**
+     * <p>
+     * This writes the record to a buffer.
+     * </p>
+     *
+     * @param buf
+     *      The buffer to write to
+     *
+     * @pre buf.remaining() >= getEncodedLength()
+     * @post [ the encoded record is at #buf.position() and buf is positioned after it ]
+     */
+    public void encode(ByteBuffer buf) {
+        buf.put((byte) SYNC);
+        buf.put((byte) VERSION);
+        buf.put((byte) rows);
+        buf.put((byte) cols);
+        buf.put((byte) numToWin);
+        buf.put((byte) players);
+        buf.put((byte) (moves.length >>> 7));
+        buf.put((byte) (moves.length & 0x7F));
+        buf.put((byte) (winner < 0 ? NO_WINNER : winner));
+        buf.put(moves);
+    }
+
+    /**
+     * @return how many bytes the encoded record takes
+     */
+    public int getEncodedLength() {
+        return HEADER_BYTES + moves.length;
+    }
+
+    /**
+     * <p>
+     * This plays the game again on a new board.
+     * </p>
+     *
+     * @return a {@link GameBoardBit} holding every move of the game, with each player's GameSession token
+     *
+     * @pre getNumRows() <= 63 and getNumColumns() <= 63
+     */
+    public GameBoardBit replay() {
+        GameBoardBit board = new GameBoardBit(rows, cols, numToWin);
+        for (int i = 0; i < moves.length; i++) {
+            board.placeToken(GameSession.getToken(i % players), moves[i]);
+        }
+        return board;
+    }
+
+    /**
+     * <p>
+     * This plays the game again through a new session, so the session picks up where the game left off.
+     * </p>
+     *
+     * @param model
+     *      The empty board to play on
+     * @return a session holding every move of the game, with the turn and the result the game had
+     *
+     * @pre [ model is empty ] and model.getNumRows() = getNumRows() and model.getNumColumns() = getNumColumns()
+     * and model.getNumToWin() = getNumToWin()
+     */
+    public GameSession resume(IGameBoard model) {
+        GameSession session = new GameSession(model, players);
+        for (byte move : moves) {
+            session.play(move);
+        }
+        return session;
+    }
+
+    /**
+     * @return the number of rows of the board
+     */
+    public int getNumRows() {
+        return rows;
+    }
+
+    /**
+     * @return the number of columns of the board
+     */
+    public int getNumColumns() {
+        return cols;
+    }
+
+    /**
+     * @return the number of tokens in a row needed to win
+     */
+    public int getNumToWin() {
+        return numToWin;
+    }
+
+    /**
+     * @return the number of players in the game
+     */
+    public int getNumPlayers() {
+        return players;
+    }
+
+    /**
+     * @return the index of the winner in turn order, or -1 if nobody won
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * @return the number of moves in the game
+     */
+    public int getNumMoves() {
+        return moves.length;
+    }
+
+    /**
+     * @param i
+     *      The index of a move, 0 for the first
+     * @return the column of the i-th move
+     *
+     * @pre 0 <= i < getNumMoves()
+     */
+    public int getMove(int i) {
+        return moves[i];
+    }
+}
@@ -0,0 +1,141 @@
+package cpsc2150.extendedConnectX.records;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class reads the {@link GameRecord}s of an archive file in order, one buffer of the file at a time, so
+ * an archive of any size is read in a fixed amount of memory.
+ * <p>
+ * Bytes that are not part of a record, such as the torn end of a record whose write was cut short, are
+ * skipped up to the next SYNC byte and counted rather than stopping the read.
+ *
+ * @version 2.0
+ */
+public class GameRecordReader implements Closeable {
+
+    /**
+     * <p>
+     * Constant for the size of the read buffer in bytes, which holds the longest possible record
+     * </p>
+     */
+    public static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * <p>
+     * The archive file and the bytes read from it but not decoded yet
+     * </p>
+     */
+    private final FileChannel channel;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    /**
+     * <p>
+     * Whether the whole file has been read into the buffer
+     * </p>
+     */
+    private boolean atEnd;
+
+    /**
+     * <p>
+     * The number of bytes skipped because they were not part of a record
+     * </p>
+     */
+    private long skipped;
+
+    /**
+     * <p>
+     * This opens an archive for reading from its first record.
+     * </p>
+     *
+     * @param file
+     *      The archive file
+     * @throws IOException if the file cannot be opened
+     */
+    public GameRecordReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        buf.limit(0);
+    }
+
+    /**
+     * <p>
+     * This reads the next record.
+     * </p>
+     *
+     * @return the next record in the archive, or null if there are no more
+     * @throws IOException if the file cannot be read
+     */
+    public GameRecord next() throws IOException {
+        while (true) {
+            // every record starts with the only byte that has its top bit set
+            while (buf.hasRemaining() && (buf.get(buf.position()) & 0xFF) != GameRecord.SYNC) {
+                buf.get();
+                skipped++;
+            }
+            try {
+                if (buf.hasRemaining()) {
+                    return GameRecord.decode(buf);
+                }
+            } catch (BufferUnderflowException e) {
+                // the rest of the record is still in the file
+            } catch (IllegalArgumentException e) {
+                skipped++;
+                continue;
+            }
+            if (!fill()) {
+                if (!buf.hasRemaining()) {
+                    return null;
+                }
+                // a header that runs past the end of the file is a torn write or a bad byte, so the
+                // search for the next record goes on from the byte after it
+                buf.get();
+                skipped++;
+            }
+        }
+    }
+
+    /**
+     * @return the number of bytes skipped so far because they were not part of a record
+     */
+    public long getSkippedBytes() {
+        return skipped;
+    }
+
+    /**
+     * <p>
+     * This closes the file.
+     * </p>
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * <p>
+     * This moves the bytes not decoded yet to the front of the buffer and reads more of the file after them.
+     * </p>
+     *
+     * @return false if the file had no more bytes to read
+     * @throws IOException if the file cannot be read
+     */
+    private boolean fill() throws IOException {
+        if (atEnd) {
+            return false;
+        }
+        buf.compact();
+        int n = channel.read(buf);
+        buf.flip();
+        if (n < 0) {
+            atEnd = true;
+        }
+        return n >= 0;
+    }
+}
@@ -0,0 +1,114 @@
+package cpsc2150.extendedConnectX.records;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class appends {@link GameRecord}s to an archive file. Records are encoded into one direct buffer and
+ * the buffer goes to the file channel in a single write when it fills, so writing a game costs a few dozen
+ * byte copies rather than a system call.
+ * <p>
+ * An archive is just records one after another, so a writer can add to an archive written before, and any
+ * number of archives can be joined by joining the files. Writes from several threads are safe.
+ *
+ * @version 2.0
+ */
+public class GameRecordWriter implements Closeable {
+
+    /**
+     * <p>
+     * Constant for the size of the write buffer in bytes, which holds the longest possible record
+     * </p>
+     */
+    public static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * <p>
+     * The archive file and the records not written to it yet
+     * </p>
+     */
+    private final FileChannel channel;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    /**
+     * <p>
+     * The number of records written by this writer
+     * </p>
+     */
+    private long count;
+
+    /**
+     * <p>
+     * This opens an archive for appending, creating it if it does not exist.
+     * </p>
+     *
+     * @param file
+     *      The archive file
+     * @throws IOException if the file cannot be opened
+     */
+    public GameRecordWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * <p>
+     * This adds a record to the end of the archive.
+     * </p>
+     *
+     * @param record
+     *      The record to add
+     * @throws IOException if the buffer fills and cannot be written
+     *
+     * @post [ the record is written to the file by the next flush or close, if not already ]
+     */
+    public synchronized void write(GameRecord record) throws IOException {
+        if (buf.remaining() < record.getEncodedLength()) {
+            flush();
+        }
+        record.encode(buf);
+        count++;
+    }
+
+    /**
+     * <p>
+     * This writes every buffered record to the file.
+     * </p>
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        buf.clear();
+    }
+
+    /**
+     * @return the number of records written by this writer
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * <p>
+     * This writes every buffered record and closes the file.
+     * </p>
+     *
+     * @throws IOException if the file cannot be written or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,638 @@
+package cpsc2150.extendedConnectX.records;
+
+import cpsc2150.extendedConnectX.controllers.GameSession;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * This class is a write-ahead journal of the games in progress, so that the games can be rebuilt after the
+ * program crashes. Every game gets an id when it begins, and each accepted move and the end of the game are
+ * appended under that id.
+ * <p>
+ * The journal is a directory of segment files, each mapped into memory. An append is a few byte copies into
+ * the mapped segment and never waits for the disk: the bytes are in the operating system's page cache as
+ * soon as they are copied, so they survive the JVM crashing. A background thread forces the segment to the
+ * disk every COMMIT_MILLIS, which commits every move appended since in one write, so a power failure loses at
+ * most that long. {@link #commit()} does the same on demand.
+ * <p>
+ * Each entry is its length, a CRC-32 of its body, then the body. The length is written last, so an entry
+ * whose write was cut short reads as the end of the segment, and one the disk only partly wrote fails its
+ * checksum. When a segment fills, a new one starts with a copy of every open game and the older segments
+ * are deleted, so the journal only ever holds the games still being played. Opening a journal replays the
+ * segments and starts a new one the same way.
+ * <p>
+ * Only one journal at a time can have a directory open. The journal holds a lock on a file in the directory
+ * until it is closed, so a second copy of the program cannot replay and delete the segments of games the
+ * first is still playing.
+ *
+ * @version 2.0
+ */
+public class MoveJournal implements Closeable {
+
+    /**
+     * <p>
+     * Constants for the system property naming the journal directory and the directory used when it is
+     * not set
+     * </p>
+     */
+    public static final String DIRECTORY_PROPERTY = "connectx.journal";
+    public static final String DEFAULT_DIRECTORY = "journal";
+
+    /**
+     * <p>
+     * Constants for the size of a new segment in bytes and for how often appended entries are forced to
+     * the disk
+     * </p>
+     */
+    public static final int SEGMENT_BYTES = 1 << 20;
+    public static final long COMMIT_MILLIS = 20;
+
+    /**
+     * <p>
+     * Constants for the kinds of entry, the bytes in front of each entry's body and the size of each body
+     * apart from the moves of a BEGIN
+     * </p>
+     */
+    private static final byte BEGIN = 1;
+    private static final byte MOVE = 2;
+    private static final byte END = 3;
+    private static final int ENTRY_HEADER_BYTES = 8;
+    private static final int BEGIN_BYTES = 15;
+    private static final int MOVE_BYTES = 10;
+    private static final int END_BYTES = 9;
+
+    /**
+     * <p>
+     * The name of the file in the journal directory that the open journal holds a lock on
+     * </p>
+     */
+    private static final String LOCK_FILE = "journal.lock";
+
+    /**
+     * <p>
+     * The journal opened by find, if any
+     * </p>
+     */
+    private static MoveJournal configured;
+
+    /**
+     * <p>
+     * The directory holding the segment files
+     * </p>
+     */
+    private final Path dir;
+
+    /**
+     * <p>
+     * The lock file of the directory and the lock held on it while the journal is open
+     * </p>
+     */
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    /**
+     * <p>
+     * The games that have begun and not ended, by id
+     * </p>
+     */
+    private final Map<Long, OpenGame> games = new HashMap<>();
+
+    /**
+     * <p>
+     * The segment being appended to, its number and the offset of the next entry in it
+     * </p>
+     */
+    private MappedByteBuffer segment;
+    private long segmentNumber;
+    private int end;
+
+    /**
+     * <p>
+     * The checksum used for every entry
+     * </p>
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * <p>
+     * The id handed to the next new game
+     * </p>
+     */
+    private long nextId = 1;
+
+    /**
+     * <p>
+     * The number of entries appended, and the number of those known to be on the disk
+     * </p>
+     */
+    private long appended;
+    private long committed;
+
+    /**
+     * <p>
+     * Held while forcing a segment to the disk, so that one force commits the entries of every thread
+     * waiting for it
+     * </p>
+     */
+    private final Object commitLock = new Object();
+
+    /**
+     * <p>
+     * The thread that commits the journal every COMMIT_MILLIS, and whether the journal is closed
+     * </p>
+     */
+    private final Thread committer;
+    private volatile boolean closed;
+
+    /**
+     * <p>
+     * This opens the journal in a directory, creating the directory if it does not exist, and rebuilds the
+     * games that were open when it was last used.
+     * </p>
+     *
+     * @param dir
+     *      The journal directory
+     * @throws IOException if the directory or its segments cannot be read or written, or another journal
+     *      has the directory open
+     */
+    public MoveJournal(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        lockChannel = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+            if (lock == null) {
+                throw new IOException("Journal " + dir + " is in use by another program");
+            }
+            List<Long> numbers = segmentNumbers();
+            for (long number : numbers) {
+                replay(segmentFile(number));
+            }
+            segmentNumber = numbers.isEmpty() ? 0 : numbers.get(numbers.size() - 1);
+            // the end of the last segment may hold a torn entry, so appends start in a new segment
+            rotate(0);
+        } catch (OverlappingFileLockException e) {
+            lockChannel.close();
+            throw new IOException("Journal " + dir + " is already open", e);
+        } catch (IOException e) {
+            // closing the channel releases the lock if it was taken
+            lockChannel.close();
+            throw e;
+        }
+        committer = new Thread(this::commitLoop, "connectx-journal");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * <p>
+     * This opens the journal in the directory named by DIRECTORY_PROPERTY, once for the whole program.
+     * </p>
+     *
+     * @return the journal, or null if it cannot be opened or another copy of the program has it open
+     */
+    public static synchronized MoveJournal find() {
+        if (configured == null) {
+            try {
+                configured = new MoveJournal(Paths.get(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY)));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return configured;
+    }
+
+    /**
+     * <p>
+     * This records the start of a new game.
+     * </p>
+     *
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param numToWin
+     *      Number of tokens in a row required to win
+     * @param players
+     *      Number of players in the game
+     * @return the id of the game in this journal
+     * @throws IOException if a new segment is needed and cannot be made, in which case the game is not open
+     *
+     * @pre 0 < rows, cols, numToWin < 0x80 and 2 <= players <= GameSession.MAX_PLAYERS
+     * @post [ the game is open in the journal with no moves ]
+     */
+    public synchronized long begin(int rows, int cols, int numToWin, int players) throws IOException {
+        long id = nextId++;
+        OpenGame game = new OpenGame(rows, cols, numToWin, players);
+        // a new segment copies the open games, so the game is only added once its BEGIN is written
+        writeBegin(id, game);
+        games.put(id, game);
+        return id;
+    }
+
+    /**
+     * <p>
+     * This records a move of an open game.
+     * </p>
+     *
+     * @param id
+     *      The id of the game
+     * @param col
+     *      The column played
+     * @throws IOException if a new segment is needed and cannot be made, in which case the move is not added
+     *
+     * @pre [ the game with id is open and col was accepted by its session ]
+     */
+    public synchronized void move(long id, int col) throws IOException {
+        OpenGame game = games.get(id);
+        if (game == null) {
+            return;
+        }
+        // as in begin, a new segment would otherwise copy the move into the game's BEGIN and repeat it
+        reserve(MOVE_BYTES);
+        segment.put(MOVE).putLong(id).put((byte) col);
+        publish(MOVE_BYTES);
+        game.add(col);
+    }
+
+    /**
+     * <p>
+     * This records that a game is over, so it will not be rebuilt.
+     * </p>
+     *
+     * @param id
+     *      The id of the game
+     * @throws IOException if a new segment is needed and cannot be made
+     */
+    public synchronized void end(long id) throws IOException {
+        if (games.remove(id) == null) {
+            return;
+        }
+        reserve(END_BYTES);
+        segment.put(END).putLong(id);
+        publish(END_BYTES);
+    }
+
+    /**
+     * @return every game that has begun and not ended, by id in the order they began
+     */
+    public synchronized Map<Long, GameRecord> getOpenGames() {
+        Map<Long, GameRecord> open = new TreeMap<>();
+        for (Map.Entry<Long, OpenGame> e : games.entrySet()) {
+            OpenGame game = e.getValue();
+            open.put(e.getKey(), new GameRecord(game.rows, game.cols, game.numToWin, game.players, -1,
+                    Arrays.copyOf(game.moves, game.count)));
+        }
+        return open;
+    }
+
+    /**
+     * <p>
+     * This forces every entry appended so far to the disk. Threads that call this while another thread is
+     * forcing share the next force rather than each making their own.
+     * </p>
+     *
+     * @post [ every entry appended before the call is on the disk ]
+     */
+    public void commit() {
+        MappedByteBuffer target;
+        long upTo;
+        synchronized (this) {
+            target = segment;
+            upTo = appended;
+        }
+        synchronized (commitLock) {
+            if (committed >= upTo) {
+                return;
+            }
+            // entries of older segments were forced when the segment was replaced
+            target.force();
+            committed = upTo;
+        }
+    }
+
+    /**
+     * <p>
+     * This commits the journal, stops its commit thread and releases the directory. The open games stay in
+     * the journal for the next time it is opened.
+     * </p>
+     */
+    @Override
+    public void close() {
+        closed = true;
+        committer.interrupt();
+        commit();
+        try {
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            // the lock is released when the program exits anyway
+        }
+    }
+
+    /**
+     * <p>
+     * This commits the journal every COMMIT_MILLIS until it is closed.
+     * </p>
+     */
+    private void commitLoop() {
+        while (!closed) {
+            try {
+                Thread.sleep(COMMIT_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            commit();
+        }
+    }
+
+    /**
+     * <p>
+     * This appends a BEGIN entry holding a game's configuration and its moves so far.
+     * </p>
+     *
+     * @param id
+     *      The id of the game
+     * @param game
+     *      The game
+     * @throws IOException if a new segment is needed and cannot be made
+     */
+    private void writeBegin(long id, OpenGame game) throws IOException {
+        int body = BEGIN_BYTES + game.count;
+        reserve(body);
+        segment.put(BEGIN).putLong(id);
+        segment.put((byte) game.rows).put((byte) game.cols).put((byte) game.numToWin).put((byte) game.players);
+        segment.putShort((short) game.count).put(game.moves, 0, game.count);
+        publish(body);
+    }
+
+    /**
+     * <p>
+     * This makes room for an entry and positions the segment at the start of its body.
+     * </p>
+     *
+     * @param body
+     *      The number of bytes in the body of the entry
+     * @throws IOException if a new segment is needed and cannot be made
+     */
+    private void reserve(int body) throws IOException {
+        if (end + ENTRY_HEADER_BYTES + body > segment.capacity()) {
+            rotate(ENTRY_HEADER_BYTES + body);
+        }
+        segment.position(end + ENTRY_HEADER_BYTES);
+    }
+
+    /**
+     * <p>
+     * This finishes the entry whose body was just put after end.
+     * </p>
+     *
+     * @param body
+     *      The number of bytes in the body of the entry
+     *
+     * @post [ the entry is in the segment and end is after it ]
+     */
+    private void publish(int body) {
+        ByteBuffer view = segment.duplicate();
+        view.position(end + ENTRY_HEADER_BYTES).limit(end + ENTRY_HEADER_BYTES + body);
+        crc.reset();
+        crc.update(view);
+        segment.putInt(end + 4, (int) crc.getValue());
+        // a nonzero length marks the entry as written, so it goes last
+        segment.putInt(end, body);
+        end += ENTRY_HEADER_BYTES + body;
+        appended++;
+    }
+
+    /**
+     * <p>
+     * This starts a new segment holding a BEGIN entry for every open game, then deletes the older segments.
+     * </p>
+     *
+     * @param extra
+     *      The number of bytes the new segment must have room for after the open games
+     * @throws IOException if the new segment cannot be made
+     */
+    private void rotate(int extra) throws IOException {
+        int needed = extra;
+        for (OpenGame game : games.values()) {
+            needed += ENTRY_HEADER_BYTES + BEGIN_BYTES + game.count;
+        }
+        if (segment != null) {
+            segment.force();
+        }
+        segmentNumber++;
+        try (FileChannel channel = FileChannel.open(segmentFile(segmentNumber), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(SEGMENT_BYTES, 2 * needed));
+        }
+        end = 0;
+        for (Map.Entry<Long, OpenGame> e : games.entrySet()) {
+            writeBegin(e.getKey(), e.getValue());
+        }
+        segment.force();
+        synchronized (commitLock) {
+            committed = appended;
+        }
+        // the new segment holds everything the old ones did
+        for (long number : segmentNumbers()) {
+            if (number < segmentNumber) {
+                try {
+                    Files.deleteIfExists(segmentFile(number));
+                } catch (IOException e) {
+                    // replaying an old segment before the new one rebuilds the same games
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This applies every whole entry of a segment to the open games, stopping at the first that is torn or
+     * does not match its checksum.
+     * </p>
+     *
+     * @param file
+     *      The segment file
+     * @throws IOException if the file cannot be read
+     */
+    private void replay(Path file) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int pos = 0;
+        while (pos + ENTRY_HEADER_BYTES <= buf.limit()) {
+            int body = buf.getInt(pos);
+            if (body <= 0 || body > buf.limit() - pos - ENTRY_HEADER_BYTES) {
+                return;
+            }
+            ByteBuffer view = buf.duplicate();
+            view.position(pos + ENTRY_HEADER_BYTES).limit(pos + ENTRY_HEADER_BYTES + body);
+            crc.reset();
+            crc.update(view);
+            if ((int) crc.getValue() != buf.getInt(pos + 4)) {
+                return;
+            }
+            view.position(pos + ENTRY_HEADER_BYTES);
+            if (!apply(view)) {
+                return;
+            }
+            pos += ENTRY_HEADER_BYTES + body;
+        }
+    }
+
+    /**
+     * <p>
+     * This applies one entry to the open games.
+     * </p>
+     *
+     * @param body
+     *      The body of the entry, from its position to its limit
+     * @return false if the body is not a valid entry
+     */
+    private boolean apply(ByteBuffer body) {
+        int length = body.remaining();
+        byte type = body.get();
+        long id = body.getLong();
+        nextId = Math.max(nextId, id + 1);
+        if (type == BEGIN && length >= BEGIN_BYTES) {
+            int rows = body.get();
+            int cols = body.get();
+            int numToWin = body.get();
+            int players = body.get();
+            int count = body.getShort();
+            if (rows <= 0 || cols <= 0 || numToWin <= 0 || players < 2 || players > GameSession.MAX_PLAYERS
+                    || count < 0 || count > GameRecord.MAX_MOVES || length != BEGIN_BYTES + count) {
+                return false;
+            }
+            // a BEGIN copied into a new segment replaces the game built from the older ones
+            OpenGame game = new OpenGame(rows, cols, numToWin, players);
+            for (int i = 0; i < count; i++) {
+                game.add(body.get());
+            }
+            games.put(id, game);
+            return true;
+        } else if (type == MOVE && length == MOVE_BYTES) {
+            OpenGame game = games.get(id);
+            int col = body.get();
+            if (game != null && col >= 0 && col < game.cols && game.count < GameRecord.MAX_MOVES) {
+                game.add(col);
+            }
+            return true;
+        } else if (type == END && length == END_BYTES) {
+            games.remove(id);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the numbers of the segment files in the journal directory, lowest first
+     * @throws IOException if the directory cannot be read
+     */
+    private List<Long> segmentNumbers() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "journal-*.seg")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(8, name.length() - 4)));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    /**
+     * @param number
+     *      The number of a segment
+     * @return the file of the segment
+     */
+    private Path segmentFile(long number) {
+        return dir.resolve(String.format("journal-%08d.seg", number));
+    }
+
+    /**
+     * This class is the configuration and the moves so far of a game that has not ended.
+     */
+    private static class OpenGame {
+
+        /**
+         * <p>
+         * The configuration of the game
+         * </p>
+         */
+        private final int rows;
+        private final int cols;
+        private final int numToWin;
+        private final int players;
+
+        /**
+         * <p>
+         * The column of each move so far, and how many moves there are
+         * </p>
+         */
+        private byte[] moves = new byte[16];
+        private int count;
+
+        /**
+         * <p>
+         * This creates a game with no moves.
+         * </p>
+         *
+         * @param rows
+         *      Number of rows for the board
+         * @param cols
+         *      Number of columns for the board
+         * @param numToWin
+         *      Number of tokens in a row required to win
+         * @param players
+         *      Number of players in the game
+         */
+        private OpenGame(int rows, int cols, int numToWin, int players) {
+            this.rows = rows;
+            this.cols = cols;
+            this.numToWin = numToWin;
+            this.players = players;
+        }
+
+        /**
+         * <p>
+         * This adds a move to the end of the game.
+         * </p>
+         *
+         * @param col
+         *      The column played
+         */
+        private void add(int col) {
+            if (count == moves.length) {
+                moves = Arrays.copyOf(moves, moves.length * 2);
+            }
+            moves[count++] = (byte) col;
+        }
+    }
+}
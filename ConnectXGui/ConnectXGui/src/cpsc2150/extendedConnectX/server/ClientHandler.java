@@ -0,0 +1,290 @@
+package cpsc2150.extendedConnectX.server;
+
+import cpsc2150.extendedConnectX.controllers.*;
+import cpsc2150.extendedConnectX.models.*;
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class serves one client connection of the {@link ConnectXServer}. It reads one command per line
+ * and answers each with one line (or, for SHOW, the board followed by a line with a single ".").
+ * <p>
+ * A connection plays the seat it was given by NEW, which takes the first seat, or by JOIN, which takes the
+ * next free one. MOVE and CLOSE are only taken from a connection with a seat in that game, and MOVE only
+ * when it is that seat's turn.
+ * <p>
+ * Commands:
+ * <pre>
+ *   NEW rows cols numToWin players   -&gt; OK id
+ *   JOIN id                          -&gt; OK player
+ *   MOVE id col                      -&gt; MOVED player row col (TURN next | WIN | TIE)
+ *   STATUS id                        -&gt; TURN player | WIN player | TIE
+ *   SHOW id                          -&gt; the board, then "."
+ *   CLOSE id                         -&gt; OK
+ *   QUIT                             -&gt; BYE, then the connection is closed
+ * </pre>
+ * Any command that cannot be carried out is answered with {@code ERR message}.
+ *
+ * @version 2.0
+ */
+public class ClientHandler implements Runnable {
+
+    /**
+     * <p>
+     * The connection being served
+     * </p>
+     */
+    private final Socket socket;
+
+    /**
+     * <p>
+     * The games hosted by the server
+     * </p>
+     */
+    private final SessionRegistry registry;
+
+    /**
+     * <p>
+     * The seat this connection holds in each game it created or joined, by game id
+     * </p>
+     */
+    private final Map<Long, Integer> seats = new HashMap<>();
+
+    /**
+     * <p>
+     * This creates a handler for a connection.
+     * </p>
+     *
+     * @param s
+     *      The connected socket
+     * @param r
+     *      The games hosted by the server
+     */
+    public ClientHandler(Socket s, SessionRegistry r) {
+        socket = s;
+        registry = r;
+    }
+
+    /**
+     * <p>
+     * This serves commands until the client quits or disconnects.
+     * </p>
+     *
+     * @post [ the socket is closed ]
+     */
+    @Override
+    public void run() {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new BufferedWriter(
+                     new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] args = line.trim().split("\\s+");
+                if (args[0].equalsIgnoreCase("QUIT")) {
+                    out.println("BYE");
+                    out.flush();
+                    return;
+                }
+                out.println(handle(args));
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the client went away; nothing left to clean up
+        }
+    }
+
+    /**
+     * <p>
+     * This carries out one command.
+     * </p>
+     *
+     * @param args
+     *      The words of the command line
+     * @return the reply to send back
+     */
+    private String handle(String[] args) {
+        try {
+            switch (args[0].toUpperCase()) {
+                case "NEW":
+                    return newGame(args);
+                case "JOIN":
+                    return join(args);
+                case "MOVE":
+                    return move(find(args), seat(args), Integer.parseInt(args[2]));
+                case "STATUS":
+                    return status(find(args));
+                case "SHOW":
+                    return show(find(args));
+                case "CLOSE":
+                    seat(args);
+                    seats.remove(Long.parseLong(args[1]));
+                    return registry.remove(Long.parseLong(args[1])) ? "OK" : "ERR no such game";
+                default:
+                    return "ERR unknown command";
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return "ERR bad arguments";
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    /**
+     * <p>
+     * This handles NEW rows cols numToWin players.
+     * </p>
+     *
+     * @param args
+     *      The words of the command line
+     * @return OK and the new game id, or an error
+     *
+     * @post [ on OK, this connection holds the first seat of the new game ]
+     */
+    private String newGame(String[] args) {
+        int rows = Integer.parseInt(args[1]);
+        int cols = Integer.parseInt(args[2]);
+        int numWin = Integer.parseInt(args[3]);
+        int players = Integer.parseInt(args[4]);
+        String errorMsg = SetupController.validate(rows, cols, numWin, players);
+        if (!errorMsg.equals("")) {
+            return "ERR " + errorMsg;
+        }
+        long id = registry.create(rows, cols, numWin, players);
+        seats.put(id, 0);
+        return "OK " + id;
+    }
+
+    /**
+     * <p>
+     * This handles JOIN id.
+     * </p>
+     *
+     * @param args
+     *      The words of the command line
+     * @return OK and the token this connection plays, or an error
+     *
+     * @post [ on OK, this connection holds the next free seat of the game ]
+     */
+    private String join(String[] args) {
+        long id = Long.parseLong(args[1]);
+        find(args);
+        if (seats.containsKey(id)) {
+            return "ERR already joined";
+        }
+        int seat = registry.join(id);
+        if (seat < 0) {
+            return "ERR game is full";
+        }
+        seats.put(id, seat);
+        return "OK " + GameSession.getToken(seat);
+    }
+
+    /**
+     * <p>
+     * This handles MOVE id col.
+     * </p>
+     *
+     * @param session
+     *      The game to play in
+     * @param seat
+     *      The seat this connection holds in the game
+     * @param col
+     *      The column to play
+     * @return where the token landed and what happens next, or an error
+     */
+    private String move(GameSession session, int seat, int col) {
+        MoveResult result;
+        synchronized (session) {
+            if (!session.isOver() && session.getCurrentPlayerIndex() != seat) {
+                return "ERR not your turn";
+            }
+            result = session.play(col);
+        }
+        if (!result.isAccepted()) {
+            return "ERR move not allowed";
+        }
+        BoardPosition pos = result.getPosition();
+        String reply = "MOVED " + result.getPlayer() + " " + pos.getRow() + " " + pos.getColumn();
+        if (result.isWin()) {
+            return reply + " WIN";
+        } else if (result.isTie()) {
+            return reply + " TIE";
+        }
+        return reply + " TURN " + result.getNextPlayer();
+    }
+
+    /**
+     * <p>
+     * This handles STATUS id.
+     * </p>
+     *
+     * @param session
+     *      The game to report on
+     * @return whose turn it is, or how the game ended
+     */
+    private String status(GameSession session) {
+        synchronized (session) {
+            if (session.getWinner() != ' ') {
+                return "WIN " + session.getWinner();
+            } else if (session.isOver()) {
+                return "TIE";
+            }
+            return "TURN " + session.getCurrentPlayer();
+        }
+    }
+
+    /**
+     * <p>
+     * This handles SHOW id.
+     * </p>
+     *
+     * @param session
+     *      The game to show
+     * @return the board, ending with a line holding "."
+     */
+    private String show(GameSession session) {
+        synchronized (session) {
+            return session.getBoard().toString() + ".";
+        }
+    }
+
+    /**
+     * <p>
+     * This looks up the game named by the second word of a command.
+     * </p>
+     *
+     * @param args
+     *      The words of the command line
+     * @return the game with that id
+     * @throws IllegalArgumentException if there is no game with that id
+     */
+    private GameSession find(String[] args) {
+        GameSession session = registry.get(Long.parseLong(args[1]));
+        if (session == null) {
+            throw new IllegalArgumentException("no such game");
+        }
+        return session;
+    }
+
+    /**
+     * <p>
+     * This looks up the seat this connection holds in the game named by the second word of a command.
+     * </p>
+     *
+     * @param args
+     *      The words of the command line
+     * @return the index of the seat, in turn order
+     * @throws IllegalArgumentException if this connection has no seat in that game
+     */
+    private int seat(String[] args) {
+        Integer seat = seats.get(Long.parseLong(args[1]));
+        if (seat == null) {
+            throw new IllegalArgumentException("not joined");
+        }
+        return seat;
+    }
+}
@@ -0,0 +1,94 @@
+package cpsc2150.extendedConnectX.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class is the entry point for running Extended ConnectX as a server. It hosts any number of games
+ * at once for clients on localhost, using the line-based protocol described in {@link ClientHandler}.
+ * <p>
+ * Each connection is served on its own thread. On a JDK with virtual threads every connection gets a
+ * virtual thread, so tens of thousands of idle connections cost very little; on older JDKs a cached
+ * pool of platform threads is used instead.
+ *
+ * @version 2.0
+ */
+public class ConnectXServer {
+
+    /**
+     * <p>
+     * The port used when none is given on the command line
+     * </p>
+     */
+    public static final int DEFAULT_PORT = 4150;
+
+    /**
+     * <p>
+     * The games hosted by this server
+     * </p>
+     */
+    private final SessionRegistry registry = new SessionRegistry();
+
+    /**
+     * <p>
+     * This method is the main entry point for the server.
+     * </p>
+     *
+     * @param args
+     *            Command-line arguments: an optional port number.
+     * @throws IOException if the port cannot be opened
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        new ConnectXServer().serve(port);
+    }
+
+    /**
+     * <p>
+     * This accepts connections on localhost until the server is stopped.
+     * </p>
+     *
+     * @param port
+     *      The port to listen on
+     * @throws IOException if the port cannot be opened
+     */
+    public void serve(int port) throws IOException {
+        ExecutorService connections = newConnectionExecutor();
+        try (ServerSocket server = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+            System.out.println("ConnectX server listening on " + server.getLocalSocketAddress());
+            while (true) {
+                Socket client = server.accept();
+                connections.execute(new ClientHandler(client, registry));
+            }
+        } finally {
+            connections.shutdown();
+        }
+    }
+
+    /**
+     * @return the games hosted by this server
+     */
+    public SessionRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * <p>
+     * This creates the executor that runs one task per connection. It is looked up reflectively so the
+     * server still builds and runs on JDKs older than 21.
+     * </p>
+     *
+     * @return a virtual-thread-per-task executor if the JDK has one, otherwise a cached thread pool
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package cpsc2150.extendedConnectX.server;
+
+import cpsc2150.extendedConnectX.controllers.*;
+import cpsc2150.extendedConnectX.models.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class keeps every game hosted by the server, keyed by a game id. Any connection can look up
+ * any game, so the players of one game can each connect separately. Each game hands out its seats in turn
+ * order, one to whoever created it and one to each connection that joins it, until every player has one.
+ * <p>
+ * Clients often disconnect without closing their games, so a game nobody has looked up for idleMillis is
+ * dropped, and a finished game is dropped once nobody has looked it up for finishedMillis. Creating a
+ * game drops them, at most once every SWEEP_MILLIS.
+ * <p>
+ * The registry itself is safe to use from many threads. A {@link GameSession} is not, so callers lock
+ * the session while they play on it or read its board.
+ *
+ * @version 2.0
+ */
+public class SessionRegistry {
+
+    /**
+     * <p>
+     * Constants for how long a game may go without being looked up before it is dropped, and how long a
+     * finished game is kept so that every player can read the result, in milliseconds
+     * </p>
+     */
+    public static final long DEFAULT_IDLE_MILLIS = 30 * 60 * 1000;
+    public static final long DEFAULT_FINISHED_MILLIS = 60 * 1000;
+
+    /**
+     * <p>
+     * Constant for the least time between two looks for games to drop, in milliseconds
+     * </p>
+     */
+    public static final long SWEEP_MILLIS = 1000;
+
+    /**
+     * <p>
+     * The games that are being hosted
+     * </p>
+     */
+    private final ConcurrentHashMap<Long, Hosted> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * <p>
+     * The id handed to the next new game
+     * </p>
+     */
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /**
+     * <p>
+     * How long an unfinished and a finished game are kept without being looked up, in nanoseconds
+     * </p>
+     */
+    private final long idleNanos;
+    private final long finishedNanos;
+
+    /**
+     * <p>
+     * When games were last looked for to drop, from System.nanoTime
+     * </p>
+     */
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    /**
+     * <p>
+     * This creates an empty registry that drops games after the default idle times.
+     * </p>
+     */
+    public SessionRegistry() {
+        this(DEFAULT_IDLE_MILLIS, DEFAULT_FINISHED_MILLIS);
+    }
+
+    /**
+     * <p>
+     * This creates an empty registry.
+     * </p>
+     *
+     * @param idleMillis
+     *      How long an unfinished game is kept without being looked up
+     * @param finishedMillis
+     *      How long a finished game is kept without being looked up
+     *
+     * @pre idleMillis > 0 and finishedMillis > 0
+     */
+    public SessionRegistry(long idleMillis, long finishedMillis) {
+        this.idleNanos = idleMillis * 1000000;
+        this.finishedNanos = finishedMillis * 1000000;
+    }
+
+    /**
+     * <p>
+     * This starts a new game and registers it.
+     * </p>
+     *
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param numWin
+     *      Number of tokens in a row required to win
+     * @param players
+     *      Number of players for this game
+     * @return the id of the new game
+     *
+     * @pre SetupController.validate(rows, cols, numWin, players) = ""
+     * @post [ a new empty game is registered under the returned id with its first seat taken by the caller,
+     * and idle games may have been dropped ]
+     */
+    public long create(int rows, int cols, int numWin, int players) {
+        long now = System.nanoTime();
+        long last = lastSweep.get();
+        // only the thread that moves lastSweep forward does the sweep
+        if (now - last > SWEEP_MILLIS * 1000000 && lastSweep.compareAndSet(last, now)) {
+            expire(now);
+        }
+        long id = nextId.getAndIncrement();
+        sessions.put(id, new Hosted(new GameSession(new GameBoardBit(rows, cols, numWin), players), now));
+        return id;
+    }
+
+    /**
+     * <p>
+     * This looks up a game, which keeps it from being dropped for a while.
+     * </p>
+     *
+     * @param id
+     *      The id of a game
+     * @return the game with that id, or null if there is none
+     */
+    public GameSession get(long id) {
+        Hosted hosted = sessions.get(id);
+        if (hosted == null) {
+            return null;
+        }
+        hosted.used = System.nanoTime();
+        return hosted.session;
+    }
+
+    /**
+     * <p>
+     * This takes the next free seat of a game, which also keeps it from being dropped for a while.
+     * </p>
+     *
+     * @param id
+     *      The id of a game
+     * @return the index of the seat taken, in turn order, or -1 if there is no such game or every seat of
+     * it is taken
+     */
+    public int join(long id) {
+        Hosted hosted = sessions.get(id);
+        if (hosted == null) {
+            return -1;
+        }
+        hosted.used = System.nanoTime();
+        synchronized (hosted.session) {
+            if (hosted.seated == hosted.session.getNumPlayers()) {
+                return -1;
+            }
+            return hosted.seated++;
+        }
+    }
+
+    /**
+     * <p>
+     * This removes a game from the registry.
+     * </p>
+     *
+     * @param id
+     *      The id of a game
+     * @return true if a game was removed
+     */
+    public boolean remove(long id) {
+        return sessions.remove(id) != null;
+    }
+
+    /**
+     * <p>
+     * This drops every game that has gone too long without being looked up.
+     * </p>
+     *
+     * @param now
+     *      The current time, from System.nanoTime
+     * @return the number of games dropped
+     *
+     * @post [ no game left was last looked up more than idleMillis before now, or finishedMillis if it is
+     * over ]
+     */
+    public int expire(long now) {
+        int dropped = 0;
+        for (Long id : sessions.keySet()) {
+            Hosted hosted = sessions.get(id);
+            if (hosted == null) {
+                continue;
+            }
+            long idle = now - hosted.used;
+            boolean over;
+            synchronized (hosted.session) {
+                over = hosted.session.isOver();
+            }
+            // removes the entry only if it is still the one that was checked
+            if ((idle > idleNanos || (over && idle > finishedNanos)) && sessions.remove(id, hosted)) {
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * @return the number of games being hosted
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * This class is a hosted game along with when it was last looked up and how many of its seats are
+     * taken.
+     *
+     * @version 2.0
+     */
+    private static final class Hosted {
+
+        /**
+         * <p>
+         * The game
+         * </p>
+         */
+        private final GameSession session;
+
+        /**
+         * <p>
+         * When the game was last looked up, from System.nanoTime
+         * </p>
+         */
+        private volatile long used;
+
+        /**
+         * <p>
+         * The number of seats taken, guarded by the lock on session
+         * </p>
+         */
+        private int seated = 1;
+
+        /**
+         * <p>
+         * This wraps a game that was just created.
+         * </p>
+         *
+         * @param session
+         *      The game
+         * @param now
+         *      The current time, from System.nanoTime
+         */
+        private Hosted(GameSession session, long now) {
+            this.session = session;
+            this.used = now;
+        }
+    }
+}
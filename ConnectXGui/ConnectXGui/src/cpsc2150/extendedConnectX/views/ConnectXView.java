@@ -4,6 +4,8 @@ import cpsc2150.extendedConnectX.controllers.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.*;
 import java.util.List;
 import javax.swing.*;
@@ -120,15 +122,25 @@ public class ConnectXView extends JFrame implements ActionListener {
             this.add(buttonPanel);
         }
 
+        //tell the controller when the window is closed, so that it can end the game
+        this.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                if (controller != null) {
+                    controller.processWindowClose();
+                }
+            }
+        });
+
         // Start the main application window --------------------------------
 
         /*
          * Make sure the main window is appropriately sized for the widgets in
-         * it, that it exits this program when closed, and that it becomes
-         * visible to the user now
+         * it, that it goes away when closed (the program exits once every game
+         * window is gone), and that it becomes visible to the user now
          */
         this.pack();
-        this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        this.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         this.setVisible(true);
     }
 
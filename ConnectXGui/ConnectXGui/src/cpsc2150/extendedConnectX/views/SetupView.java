@@ -1,5 +1,6 @@
 package cpsc2150.extendedConnectX.views;
 
+import cpsc2150.extendedConnectX.ai.*;
 import cpsc2150.extendedConnectX.controllers.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -29,6 +30,12 @@ public class SetupView extends JFrame implements ActionListener {
     private JLabel numPlayersLbl;
     private JLabel numWinLbl;
     private JTextArea numWinTxt;
+    private JLabel computersLbl;
+    private JTextArea computersTxt;
+    private JLabel depthLbl;
+    private JTextArea depthTxt;
+    private JLabel timeLbl;
+    private JTextArea timeTxt;
     private float fontSize = 40;
     private SetupController controller;
 
@@ -50,6 +57,12 @@ public class SetupView extends JFrame implements ActionListener {
         numPlayersCB = new JComboBox<>(players);
         numWinLbl = new JLabel("Number to win: ");
         numWinTxt = new JTextArea(1, 10);
+        computersLbl = new JLabel("Computer Players: ");
+        computersTxt = new JTextArea(1, 10);
+        depthLbl = new JLabel("Search Depth: ");
+        depthTxt = new JTextArea(Integer.toString(NegamaxEngine.DEFAULT_DEPTH), 1, 10);
+        timeLbl = new JLabel("Move Time (ms): ");
+        timeTxt = new JTextArea(Long.toString(NegamaxEngine.DEFAULT_MOVE_MILLIS), 1, 10);
 
         numRowsLbl.setFont(numRowsLbl.getFont().deriveFont(fontSize));
         numRowsTxt.setFont(numRowsLbl.getFont());
@@ -66,7 +79,16 @@ public class SetupView extends JFrame implements ActionListener {
         numWinLbl.setFont(numRowsLbl.getFont());
         numWinTxt.setFont(numRowsLbl.getFont());
 
-        this.setLayout(new GridLayout(6, 1));
+        computersLbl.setFont(numRowsLbl.getFont());
+        computersTxt.setFont(numRowsLbl.getFont());
+
+        depthLbl.setFont(numRowsLbl.getFont());
+        depthTxt.setFont(numRowsLbl.getFont());
+
+        timeLbl.setFont(numRowsLbl.getFont());
+        timeTxt.setFont(numRowsLbl.getFont());
+
+        this.setLayout(new GridLayout(9, 1));
         this.add(errorMessageLbl);
         JPanel rowsPanel = new JPanel(new GridLayout(1, 2));
         rowsPanel.add(numRowsLbl);
@@ -88,6 +110,21 @@ public class SetupView extends JFrame implements ActionListener {
         playersPanel.add(numPlayersCB);
         this.add(playersPanel);
 
+        JPanel computersPanel = new JPanel(new GridLayout(1, 2));
+        computersPanel.add(computersLbl);
+        computersPanel.add(computersTxt);
+        this.add(computersPanel);
+
+        JPanel depthPanel = new JPanel(new GridLayout(1, 2));
+        depthPanel.add(depthLbl);
+        depthPanel.add(depthTxt);
+        this.add(depthPanel);
+
+        JPanel timePanel = new JPanel(new GridLayout(1, 2));
+        timePanel.add(timeLbl);
+        timePanel.add(timeTxt);
+        this.add(timePanel);
+
         submitButton.addActionListener(this);
         this.add(submitButton);
 
@@ -141,6 +178,9 @@ public class SetupView extends JFrame implements ActionListener {
             int numCols = 0;
             int numPlayers = 0;
             int numWin = 0;
+            int[] computers = new int[0];
+            int depth = 0;
+            long moveMillis = 0;
             // exceptions to check for wrong data types
             //all other validation handled by controller
             try {
@@ -161,10 +201,35 @@ public class SetupView extends JFrame implements ActionListener {
                 msg += "Wins must be a number";
             }
 
+            // computer players are a comma separated list of player numbers, e.g. "2" or "2,4"
+            try {
+                String[] parts = computersTxt.getText().trim().split("\\s*,\\s*");
+                if (!parts[0].equals("")) {
+                    computers = new int[parts.length];
+                    for (int i = 0; i < parts.length; i++) {
+                        computers[i] = Integer.parseInt(parts[i]);
+                    }
+                }
+            } catch (NumberFormatException e) {
+                msg += "Computer players must be numbers separated by commas";
+            }
+
+            try {
+                depth = Integer.parseInt(depthTxt.getText().trim());
+            } catch (NumberFormatException e) {
+                msg += "Depth must be a number";
+            }
+
+            try {
+                moveMillis = Long.parseLong(timeTxt.getText().trim());
+            } catch (NumberFormatException e) {
+                msg += "Move time must be a number";
+            }
+
             numPlayers = numPlayersCB.getItemAt(numPlayersCB.getSelectedIndex());
 
             if (msg.equals("")) {
-                controller.processButtonClick(numRows, numCols, numPlayers, numWin);
+                controller.processButtonClick(numRows, numCols, numPlayers, numWin, computers, depth, moveMillis);
             } else {
                 errorMessageLbl.setText(msg);
             }
@@ -0,0 +1,167 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class checks {@link EndgameSolver} against a search that plays out every move to the end of the
+ * game, and that it leaves positions that are too big or too slow to the fallback engine.
+ *
+ * @version 2.0
+ */
+public class TestEndgameSolver {
+
+    /**
+     * <p>
+     * A fallback engine that answers -2, so a test can tell when it was asked
+     * </p>
+     */
+    private static final IEngine FALLBACK = new IEngine() {
+        @Override
+        public int selectColumn(IGameBoard board, char[] players, int toMove) {
+            return -2;
+        }
+
+        @Override
+        public void newGame(long seed) {
+        }
+    };
+
+    /**
+     * <p>
+     * This solves a position by playing out every move.
+     * </p>
+     *
+     * @param b
+     *      The board, which has no winner and an empty cell
+     * @param players
+     *      The tokens of every player, in turn order
+     * @param root
+     *      The index of the player the other players work against
+     * @param toMove
+     *      The index of the player to move
+     * @return WIN, DRAW or LOSS from the side of the player to move
+     */
+    static int solve(GameBoardBit b, char[] players, int root, int toMove) {
+        int best = EndgameSolver.LOSS;
+        for (int c = 0; c < b.getNumColumns() && best < EndgameSolver.WIN; c++) {
+            if (b.checkIfFree(c)) {
+                best = Math.max(best, solveMove(b, players, root, toMove, c));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * <p>
+     * This solves one move by playing out every reply.
+     * </p>
+     *
+     * @param b
+     *      The board, which has no winner
+     * @param players
+     *      The tokens of every player, in turn order
+     * @param root
+     *      The index of the player the other players work against
+     * @param toMove
+     *      The index of the player making the move
+     * @param col
+     *      The column to play, which has room
+     * @return WIN, DRAW or LOSS from the side of the player making the move
+     */
+    static int solveMove(GameBoardBit b, char[] players, int root, int toMove, int col) {
+        int next = (toMove + 1) % players.length;
+        b.placeToken(players[toMove], col);
+        int val;
+        if (b.checkForWin(col)) {
+            val = EndgameSolver.WIN;
+        } else if (b.checkTie()) {
+            val = EndgameSolver.DRAW;
+        } else if ((next == root) == (toMove == root)) {
+            val = solve(b, players, root, next);
+        } else {
+            val = -solve(b, players, root, next);
+        }
+        b.removeToken(col);
+        return val;
+    }
+
+    /**
+     * <p>
+     * This checks the solver on random positions with few empty cells.
+     * </p>
+     *
+     * @param seed
+     *      Picks the positions
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param numToWin
+     *      Number of tokens in a row required to win
+     * @param players
+     *      The tokens of every player, in turn order
+     * @param empty
+     *      The most empty cells a position has
+     */
+    private void checkAgainstPlayOut(long seed, int rows, int cols, int numToWin, char[] players, int empty) {
+        Random rnd = new Random(seed);
+        // one solver is kept across the positions as in a game, so its cache is checked too
+        EndgameSolver kept = new EndgameSolver(Double.MAX_VALUE, 0, FALLBACK, new TranspositionTable());
+        int checked = 0;
+        while (checked < 60) {
+            GameBoardBit b = new GameBoardBit(rows, cols, numToWin);
+            int toMove = TestNegamaxEngine.playRandom(rnd, b, players, rows * cols);
+            if (rows * cols - b.getOccupiedCount() > empty) {
+                continue;
+            }
+            int expected = solve(b, players, toMove, toMove);
+            for (EndgameSolver solver : new EndgameSolver[] {kept, new EndgameSolver(FALLBACK)}) {
+                int col = solver.selectColumn(b, players, toMove);
+                assertEquals(b.toString(), expected, solver.getResult());
+                assertTrue(b.checkIfFree(col));
+                assertEquals(b.toString(), expected, solveMove(b, players, toMove, toMove, col));
+            }
+            checked++;
+        }
+    }
+
+    @Test
+    public void testSelectColumn_TwoPlayersMatchPlayOut() {
+        checkAgainstPlayOut(17, 4, 4, 3, new char[] {'X', 'O'}, 9);
+        checkAgainstPlayOut(18, 5, 6, 4, new char[] {'X', 'O'}, 10);
+    }
+
+    @Test
+    public void testSelectColumn_ThreePlayersMatchParanoidPlayOut() {
+        checkAgainstPlayOut(19, 5, 5, 3, new char[] {'X', 'O', 'H'}, 10);
+    }
+
+    @Test
+    public void testSelectColumn_TooBigGoesToTheFallback() {
+        char[] players = {'X', 'O'};
+        GameBoardBit b = new GameBoardBit(6, 7, 4);
+        assertEquals(-2, new EndgameSolver(FALLBACK).selectColumn(b, players, 0));
+        // small enough to start, but the solve can't finish in a millisecond
+        EndgameSolver slow = new EndgameSolver(Double.MAX_VALUE, 1, FALLBACK, new TranspositionTable());
+        assertEquals(-2, slow.selectColumn(b, players, 0));
+        assertEquals(EndgameSolver.DRAW, slow.getResult());
+    }
+
+    @Test
+    public void testExpectedNodes_CountsPlayOrders() {
+        GameBoardBit b = new GameBoardBit(3, 3, 3);
+        for (int c : new int[] {0, 0, 0, 1, 1, 1, 2}) {
+            b.placeToken('X', c);
+        }
+        // two empty cells in one column can only be filled one way
+        assertEquals(1.0, EndgameSolver.expectedNodes(b), 1e-9);
+        b.removeToken(1);
+        // three cells, two in one column: 3! / (2! 1!) = 3 orders
+        assertEquals(Math.sqrt(3), EndgameSolver.expectedNodes(b), 1e-9);
+    }
+}
@@ -0,0 +1,88 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class checks that {@link MctsEngine} finds the moves any playout-based search has to find, and
+ * stops after its iterations or its time.
+ *
+ * @version 2.0
+ */
+public class TestMctsEngine {
+
+    /**
+     * <p>
+     * The players of the three-player positions
+     * </p>
+     */
+    private static final char[] PLAYERS = {'X', 'O', 'H'};
+
+    /**
+     * <p>
+     * This builds a 6x7 board from moves played by the three players in turn.
+     * </p>
+     *
+     * @param cols
+     *      The columns played
+     * @return the board
+     */
+    private GameBoardBit board(int... cols) {
+        GameBoardBit b = new GameBoardBit(6, 7, 4);
+        for (int i = 0; i < cols.length; i++) {
+            b.placeToken(PLAYERS[i % 3], cols[i]);
+        }
+        return b;
+    }
+
+    @Test
+    public void testSelectColumn_TakesAWin() {
+        // X has three on the bottom row in columns 1 to 3, and O holds column 0
+        GameBoardBit b = board(1, 1, 6, 2, 2, 6, 3, 0, 5);
+        for (boolean guided : new boolean[] {true, false}) {
+            for (int threads : new int[] {1, 4}) {
+                MctsEngine engine = new MctsEngine(20000, 0, threads, guided);
+                int col = engine.selectColumn(b, PLAYERS, 0);
+                assertEquals(4, col);
+                assertEquals(20000, engine.getIterations());
+                assertTrue(engine.getWinRate() > 0.9);
+            }
+        }
+    }
+
+    @Test
+    public void testSelectColumn_BlocksTheNextPlayer() {
+        // O has three in column 6 and moves after X
+        GameBoardBit b = board(0, 6, 1, 3, 6, 2, 5, 6, 4);
+        assertEquals(3, b.getColumnHeight(6));
+        assertEquals(6, new MctsEngine(20000, 0, 2, true).selectColumn(b, PLAYERS, 0));
+    }
+
+    @Test
+    public void testSelectColumn_OneOrNoColumnLeft() {
+        GameBoardBit b = new GameBoardBit(3, 3, 3);
+        int[] cols = {0, 0, 0, 1, 1, 1, 2, 2};
+        for (int i = 0; i < cols.length; i++) {
+            b.placeToken(i % 2 == 0 ? 'X' : 'O', cols[i]);
+        }
+        assertEquals(2, new MctsEngine(100, 0).selectColumn(b, new char[] {'X', 'O'}, 0));
+        b.placeToken('X', 2);
+        assertEquals(-1, new MctsEngine(100, 0).selectColumn(b, new char[] {'X', 'O'}, 1));
+    }
+
+    @Test
+    public void testSelectColumn_StopsNearTheTimeLimit() {
+        MctsEngine engine = new MctsEngine(0, 50);
+        GameBoardBit b = new GameBoardBit(20, 20, 5);
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            int col = engine.selectColumn(b, PLAYERS, 0);
+            long millis = (System.nanoTime() - start) / 1000000;
+            assertTrue(millis + " ms", millis < 200);
+            assertTrue(b.checkIfFree(col));
+            assertTrue(engine.getIterations() > 0);
+        }
+    }
+}
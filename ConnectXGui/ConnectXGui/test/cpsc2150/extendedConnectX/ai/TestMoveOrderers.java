@@ -0,0 +1,126 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class checks that the move orderers list every open column once, and that
+ * {@link HeuristicMoveOrderer} ranks moves the way its class comment says.
+ *
+ * @version 2.0
+ */
+public class TestMoveOrderers {
+
+    /**
+     * <p>
+     * The players of the two-player positions
+     * </p>
+     */
+    private static final char[] PLAYERS = {'X', 'O'};
+
+    /**
+     * <p>
+     * This orders the moves of a position.
+     * </p>
+     *
+     * @param orderer
+     *      The orderer to ask
+     * @param b
+     *      The position
+     * @param toMove
+     *      The index of the player to move
+     * @param ply
+     *      The ply of the position
+     * @param first
+     *      The column expected to be best, or -1
+     * @return the ordered columns
+     */
+    private int[] order(IMoveOrderer orderer, GameBoardBit b, int toMove, int ply, int first) {
+        int[] moves = new int[b.getNumColumns()];
+        return Arrays.copyOf(moves, orderer.orderMoves(b, PLAYERS, toMove, ply, first, moves));
+    }
+
+    /**
+     * <p>
+     * This builds a 6x7 board from moves played by X and O in turn.
+     * </p>
+     *
+     * @param cols
+     *      The columns played
+     * @return the board
+     */
+    private GameBoardBit board(int... cols) {
+        GameBoardBit b = new GameBoardBit(6, 7, 4);
+        for (int i = 0; i < cols.length; i++) {
+            b.placeToken(PLAYERS[i % 2], cols[i]);
+        }
+        return b;
+    }
+
+    @Test
+    public void testOrderMoves_EveryOpenColumnOnce() {
+        Random rnd = new Random(15);
+        IMoveOrderer[] orderers = {new CenterMoveOrderer(), new HeuristicMoveOrderer()};
+        for (int g = 0; g < 200; g++) {
+            GameBoardBit b = new GameBoardBit(3 + rnd.nextInt(8), 3 + rnd.nextInt(8), 3);
+            int toMove = TestNegamaxEngine.playRandom(rnd, b, PLAYERS, rnd.nextInt(40));
+            for (IMoveOrderer orderer : orderers) {
+                orderer.recordCutoff(rnd.nextInt(b.getNumColumns()), toMove, 2, 3);
+                int[] moves = order(orderer, b, toMove, 2, rnd.nextInt(b.getNumColumns() + 1) - 1);
+                boolean[] seen = new boolean[b.getNumColumns()];
+                for (int col : moves) {
+                    assertTrue(b.checkIfFree(col));
+                    assertFalse(seen[col]);
+                    seen[col] = true;
+                }
+                for (int c = 0; c < b.getNumColumns(); c++) {
+                    assertEquals(b.checkIfFree(c), seen[c]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOrderMoves_WinThenBlockThenFirstThenCenter() {
+        HeuristicMoveOrderer orderer = new HeuristicMoveOrderer();
+        assertArrayEquals(new int[] {3, 4, 2, 5, 1, 6, 0}, order(orderer, board(), 0, 0, -1));
+        assertArrayEquals(new int[] {6, 3, 4, 2, 5, 1, 0}, order(orderer, board(), 0, 0, 6));
+        // X has three in column 0, O has three in column 6
+        GameBoardBit b = board(0, 6, 0, 6, 0, 6);
+        assertArrayEquals(new int[] {0, 6, 5, 3, 4, 2, 1}, order(orderer, b, 0, 0, 5));
+        assertArrayEquals(new int[] {6, 0, 5, 3, 4, 2, 1}, order(orderer, b, 1, 0, 5));
+    }
+
+    @Test
+    public void testRecordCutoff_KillersComeBeforeTheRest() {
+        HeuristicMoveOrderer orderer = new HeuristicMoveOrderer();
+        // the history is sized for the game by the first position ordered
+        order(orderer, board(), 0, 0, -1);
+        orderer.recordCutoff(0, 0, 2, 4);
+        orderer.recordCutoff(6, 0, 2, 4);
+        assertArrayEquals(new int[] {6, 0, 3, 4, 2, 5, 1}, order(orderer, board(), 0, 2, -1));
+        // killers are kept per ply, while the history makes both columns move up at other plies
+        int[] other = order(orderer, board(), 0, 5, -1);
+        assertEquals(7, other.length);
+        assertTrue(Arrays.asList(other[0], other[1]).containsAll(Arrays.asList(0, 6)));
+    }
+
+    @Test
+    public void testNewGameAndCopy() {
+        HeuristicMoveOrderer orderer = new HeuristicMoveOrderer();
+        orderer.recordCutoff(1, 0, 0, 6);
+        IMoveOrderer copy = orderer.copy();
+        assertArrayEquals(order(orderer, board(), 0, 0, -1), order(copy, board(), 0, 0, -1));
+        copy.recordCutoff(5, 0, 0, 6);
+        copy.recordCutoff(5, 0, 0, 6);
+        assertEquals(1, order(orderer, board(), 0, 0, -1)[0]);
+
+        orderer.newGame();
+        assertArrayEquals(order(new HeuristicMoveOrderer(), board(), 0, 0, -1), order(orderer, board(), 0, 0, -1));
+    }
+}
@@ -0,0 +1,238 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class checks {@link NegamaxEngine} against a plain minimax search that looks at every move to the
+ * same depth with no pruning and no table. Alpha-beta has to give the root the same score, and the move it
+ * picks has to be one of the moves with that score.
+ *
+ * @version 2.0
+ */
+public class TestNegamaxEngine {
+
+    /**
+     * <p>
+     * The leaf scores the plain search uses
+     * </p>
+     */
+    private static final Evaluator EVAL = new Evaluator();
+
+    /**
+     * <p>
+     * This plays random moves that don't win, so the position is still being played.
+     * </p>
+     *
+     * @param rnd
+     *      The random numbers the moves are picked with
+     * @param b
+     *      The empty board to play on
+     * @param players
+     *      The tokens of every player, in turn order
+     * @param moves
+     *      How many moves to try to play
+     * @return the index of the player to move
+     */
+    static int playRandom(Random rnd, GameBoardBit b, char[] players, int moves) {
+        int toMove = 0;
+        for (int i = 0; i < moves && b.getOccupiedCount() < b.getNumRows() * b.getNumColumns() - 1; i++) {
+            int c = rnd.nextInt(b.getNumColumns());
+            if (b.checkIfFree(c) && !b.isWinningMove(players[toMove], c)) {
+                b.placeToken(players[toMove], c);
+                toMove = (toMove + 1) % players.length;
+            }
+        }
+        return toMove;
+    }
+
+    /**
+     * <p>
+     * This scores a position by trying every move to the given depth.
+     * </p>
+     *
+     * @param b
+     *      The board, which has no winner and an empty cell
+     * @param players
+     *      The tokens of every player, in turn order
+     * @param root
+     *      The index of the player the search is for
+     * @param toMove
+     *      The index of the player to move
+     * @param depth
+     *      How many more moves to search
+     * @param ply
+     *      How many moves have been made since the root
+     * @return the score from the side of the player to move
+     */
+    static int minimax(GameBoardBit b, char[] players, int root, int toMove, int depth, int ply) {
+        if (depth == 0) {
+            int score = EVAL.evaluate(b, players[root]);
+            return toMove == root ? score : -score;
+        }
+        int best = -NegamaxEngine.INFINITY;
+        for (int c = 0; c < b.getNumColumns(); c++) {
+            if (b.checkIfFree(c)) {
+                best = Math.max(best, scoreMove(b, players, root, toMove, c, depth, ply));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * <p>
+     * This scores one move by trying every reply to the given depth.
+     * </p>
+     *
+     * @param b
+     *      The board, which has no winner
+     * @param players
+     *      The tokens of every player, in turn order
+     * @param root
+     *      The index of the player the search is for
+     * @param toMove
+     *      The index of the player making the move
+     * @param col
+     *      The column to play, which has room
+     * @param depth
+     *      How many more moves to search, counting this one
+     * @param ply
+     *      How many moves have been made since the root
+     * @return the score from the side of the player making the move
+     */
+    static int scoreMove(GameBoardBit b, char[] players, int root, int toMove, int col, int depth, int ply) {
+        int next = (toMove + 1) % players.length;
+        b.placeToken(players[toMove], col);
+        int val;
+        if (b.checkForWin(col)) {
+            val = NegamaxEngine.WIN_SCORE - ply;
+        } else if (b.checkTie()) {
+            val = 0;
+        } else if ((next == root) == (toMove == root)) {
+            val = minimax(b, players, root, next, depth - 1, ply + 1);
+        } else {
+            val = -minimax(b, players, root, next, depth - 1, ply + 1);
+        }
+        b.removeToken(col);
+        return val;
+    }
+
+    /**
+     * <p>
+     * This checks the engine's move and score on random positions against the plain search.
+     * </p>
+     *
+     * @param seed
+     *      Picks the positions
+     * @param positions
+     *      The number of positions to check
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param numToWin
+     *      Number of tokens in a row required to win
+     * @param players
+     *      The tokens of every player, in turn order
+     * @param depth
+     *      How many moves ahead to search
+     * @param parallel
+     *      Whether the engine searches the root moves on every core
+     */
+    private void checkAgainstMinimax(long seed, int positions, int rows, int cols, int numToWin, char[] players,
+                                     int depth, boolean parallel) {
+        Random rnd = new Random(seed);
+        for (int g = 0; g < positions; g++) {
+            GameBoardBit b = new GameBoardBit(rows, cols, numToWin);
+            int toMove = playRandom(rnd, b, players, rnd.nextInt(rows * cols / 2));
+            NegamaxEngine engine = new NegamaxEngine(depth, 0, new TranspositionTable(), parallel,
+                    new HeuristicMoveOrderer());
+            int col = engine.selectColumn(b, players, toMove);
+
+            int best = -NegamaxEngine.INFINITY;
+            for (int c = 0; c < cols; c++) {
+                if (b.checkIfFree(c)) {
+                    best = Math.max(best, scoreMove(b, players, toMove, toMove, c, depth, 0));
+                }
+            }
+            assertEquals(b.toString(), best, engine.getScore());
+            assertTrue(b.checkIfFree(col));
+            assertEquals(b.toString(), best, scoreMove(b, players, toMove, toMove, col, depth, 0));
+        }
+    }
+
+    @Test
+    public void testSelectColumn_TwoPlayersMatchMinimax() {
+        checkAgainstMinimax(2150, 40, 5, 5, 4, new char[] {'X', 'O'}, 5, false);
+        checkAgainstMinimax(11, 15, 6, 7, 4, new char[] {'X', 'O'}, 5, false);
+    }
+
+    @Test
+    public void testSelectColumn_ThreePlayersMatchParanoidMinimax() {
+        checkAgainstMinimax(3, 30, 5, 6, 3, new char[] {'X', 'O', 'H'}, 5, false);
+    }
+
+    @Test
+    public void testSelectColumn_ParallelSearchMatchesMinimax() {
+        checkAgainstMinimax(2150, 40, 5, 5, 4, new char[] {'X', 'O'}, 5, true);
+        checkAgainstMinimax(11, 15, 6, 7, 4, new char[] {'X', 'O'}, 5, true);
+        checkAgainstMinimax(3, 30, 5, 6, 3, new char[] {'X', 'O', 'H'}, 5, true);
+    }
+
+    @Test
+    public void testSelectColumn_ParallelAndSerialAgreeDeeper() {
+        Random rnd = new Random(13);
+        char[] players = {'X', 'O'};
+        for (int g = 0; g < 10; g++) {
+            GameBoardBit b = new GameBoardBit(6, 7, 4);
+            int toMove = playRandom(rnd, b, players, 4 + rnd.nextInt(10));
+            NegamaxEngine serial = new NegamaxEngine(8, 0, new TranspositionTable(), false,
+                    new HeuristicMoveOrderer());
+            NegamaxEngine parallel = new NegamaxEngine(8, 0, new TranspositionTable(), true,
+                    new HeuristicMoveOrderer());
+            serial.selectColumn(b, players, toMove);
+            int col = parallel.selectColumn(b, players, toMove);
+            assertEquals(b.toString(), serial.getScore(), parallel.getScore());
+            assertTrue(b.checkIfFree(col));
+        }
+    }
+
+    @Test
+    public void testSelectColumn_StopsNearTheTimeLimit() {
+        char[] players = {'X', 'O'};
+        NegamaxEngine engine = new NegamaxEngine(NegamaxEngine.MAX_DEPTH, NegamaxEngine.DEFAULT_MOVE_MILLIS);
+        Random rnd = new Random(14);
+        for (int g = 0; g < 10; g++) {
+            GameBoardBit b = new GameBoardBit(20, 20, 5);
+            int toMove = playRandom(rnd, b, players, rnd.nextInt(40));
+            long start = System.nanoTime();
+            int col = engine.selectColumn(b, players, toMove);
+            long millis = (System.nanoTime() - start) / 1000000;
+            // a full search to this depth would take far longer; the slack is for a slow or busy machine
+            assertTrue(millis + " ms", millis < 4 * NegamaxEngine.DEFAULT_MOVE_MILLIS);
+            assertTrue(b.checkIfFree(col));
+            assertEquals(col, engine.getPrincipalVariation()[0]);
+        }
+    }
+
+    @Test
+    public void testSelectColumn_TakesAWinAndBlocksALoss() {
+        char[] players = {'X', 'O'};
+        GameBoardBit b = new GameBoardBit(6, 7, 4);
+        for (int c : new int[] {0, 0, 1, 1, 2}) {
+            b.placeToken(b.getOccupiedCount() % 2 == 0 ? 'X' : 'O', c);
+        }
+        // O to move has to block column 3; X would win there next
+        NegamaxEngine engine = new NegamaxEngine(4, 0, new TranspositionTable(), false,
+                new HeuristicMoveOrderer());
+        assertEquals(3, engine.selectColumn(b, players, 1));
+        b.placeToken('O', 6);
+        // now X wins at once
+        assertEquals(3, engine.selectColumn(b, players, 0));
+        assertEquals(NegamaxEngine.WIN_SCORE, engine.getScore());
+    }
+}
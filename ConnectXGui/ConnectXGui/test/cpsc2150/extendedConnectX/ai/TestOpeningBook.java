@@ -0,0 +1,189 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class checks that a book written by {@link OpeningBookBuilder} reads back through
+ * {@link OpeningBook} with the move and score the search gives for every position it covers.
+ *
+ * @version 2.0
+ */
+public class TestOpeningBook {
+
+    /**
+     * <p>
+     * The players of the books built here
+     * </p>
+     */
+    private static final char[] PLAYERS = {'X', 'O'};
+
+    /**
+     * <p>
+     * The directory the book files are written to, deleted afterwards
+     * </p>
+     */
+    private Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("connectx-books");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    /**
+     * <p>
+     * This checks every position with fewer than plies tokens against the book.
+     * </p>
+     *
+     * @param book
+     *      The book
+     * @param board
+     *      The position, which is restored before returning
+     * @param toMove
+     *      The index of the player to move
+     * @param plies
+     *      How many more moves the book covers
+     * @param depth
+     *      How deep the book was searched
+     * @param seen
+     *      The hashes of the positions already checked
+     */
+    private void checkPositions(OpeningBook book, GameBoardBit board, int toMove, int plies, int depth,
+                                Set<Long> seen) {
+        if (plies == 0 || !seen.add(board.getZobristHash())) {
+            return;
+        }
+        int index = book.indexOf(board.getZobristHash());
+        assertTrue(board.toString(), index >= 0);
+        NegamaxEngine engine = new NegamaxEngine(depth);
+        engine.selectColumn(board, PLAYERS, toMove);
+        assertEquals(board.toString(), engine.getScore(), book.getScore(index));
+        assertTrue(board.checkIfFree(book.getMove(index)));
+        assertEquals(board.toString(), engine.getScore(),
+                TestNegamaxEngine.scoreMove(board, PLAYERS, toMove, toMove, book.getMove(index), depth, 0));
+        for (int c = 0; c < board.getNumColumns(); c++) {
+            if (board.checkIfFree(c)) {
+                board.placeToken(PLAYERS[toMove], c);
+                if (!board.checkForWin(c)) {
+                    checkPositions(book, board, 1 - toMove, plies - 1, depth, seen);
+                }
+                board.removeToken(c);
+            }
+        }
+    }
+
+    @Test
+    public void testBuild_EveryPositionReadsBack() throws IOException {
+        Path file = dir.resolve(OpeningBook.fileName(5, 5, 4, 2));
+        int count = new OpeningBookBuilder(5, 5, 4, 2, 4).build(3, file);
+
+        OpeningBook book = new OpeningBook(file);
+        assertEquals(5, book.getNumRows());
+        assertEquals(5, book.getNumColumns());
+        assertEquals(4, book.getNumToWin());
+        assertEquals(2, book.getNumPlayers());
+        assertEquals(count, book.size());
+        // the empty board, 5 first moves and 5 * 5 replies to them
+        assertEquals(1 + 5 + 25, count);
+
+        Set<Long> seen = new HashSet<>();
+        checkPositions(book, new GameBoardBit(5, 5, 4), 0, 3, 4, seen);
+        assertEquals(count, seen.size());
+
+        GameBoardBit outside = new GameBoardBit(5, 5, 4);
+        for (int c : new int[] {0, 1, 2}) {
+            outside.placeToken(PLAYERS[outside.getOccupiedCount() % 2], c);
+        }
+        assertEquals(-1, book.indexOf(outside.getZobristHash()));
+    }
+
+    @Test
+    public void testOpen_NotABookOrCutShort() throws IOException {
+        Path file = dir.resolve("bad.book");
+        Files.write(file, new byte[] {1, 2, 3});
+        try {
+            new OpeningBook(file);
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+        Path whole = dir.resolve(OpeningBook.fileName(4, 4, 3, 2));
+        new OpeningBookBuilder(4, 4, 3, 2, 2).build(2, whole);
+        byte[] bytes = Files.readAllBytes(whole);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        try {
+            new OpeningBook(file);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("cut short"));
+        }
+    }
+
+    @Test
+    public void testFind_LooksInTheBookDirectory() throws IOException {
+        new OpeningBookBuilder(3, 4, 3, 2, 2).build(2, dir.resolve(OpeningBook.fileName(3, 4, 3, 2)));
+        String old = System.getProperty(OpeningBook.DIRECTORY_PROPERTY);
+        System.setProperty(OpeningBook.DIRECTORY_PROPERTY, dir.toString());
+        try {
+            OpeningBook book = OpeningBook.find(3, 4, 3, 2);
+            assertNotNull(book);
+            assertSame(book, OpeningBook.find(3, 4, 3, 2));
+            assertNull(OpeningBook.find(3, 4, 3, 3));
+        } finally {
+            if (old == null) {
+                System.clearProperty(OpeningBook.DIRECTORY_PROPERTY);
+            } else {
+                System.setProperty(OpeningBook.DIRECTORY_PROPERTY, old);
+            }
+        }
+    }
+
+    @Test
+    public void testBookEngine_PlaysTheBookThenFallsBack() throws IOException {
+        Path file = dir.resolve(OpeningBook.fileName(5, 5, 4, 2));
+        new OpeningBookBuilder(5, 5, 4, 2, 4).build(2, file);
+        OpeningBook book = new OpeningBook(file);
+        IEngine fallback = new IEngine() {
+            @Override
+            public int selectColumn(IGameBoard board, char[] players, int toMove) {
+                return -2;
+            }
+
+            @Override
+            public void newGame(long seed) {
+            }
+        };
+        BookEngine engine = new BookEngine(book, fallback);
+        GameBoardBit empty = new GameBoardBit(5, 5, 4);
+        assertEquals(book.getMove(book.indexOf(empty.getZobristHash())), engine.selectColumn(empty, PLAYERS, 0));
+
+        GameBoardBit deeper = new GameBoardBit(5, 5, 4);
+        deeper.placeToken('X', 0);
+        deeper.placeToken('O', 1);
+        assertEquals(-2, engine.selectColumn(deeper, PLAYERS, 0));
+        // the same tokens on a board of another size are not in the book
+        assertEquals(-2, engine.selectColumn(new GameBoardBit(6, 5, 4), PLAYERS, 0));
+    }
+}
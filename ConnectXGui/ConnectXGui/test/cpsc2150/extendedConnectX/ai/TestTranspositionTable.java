@@ -0,0 +1,93 @@
+package cpsc2150.extendedConnectX.ai;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class checks that the transposition table gives back what was stored for a position, and never
+ * another position's data, including while many threads write to it.
+ *
+ * @version 2.0
+ */
+public class TestTranspositionTable {
+
+    @Test
+    public void testStoreProbe_FieldsComeBack() {
+        TranspositionTable table = new TranspositionTable(1024);
+        int[] scores = {0, 17, -17, NegamaxEngine.WIN_SCORE - 3, -NegamaxEngine.WIN_SCORE + 5};
+        int[] bounds = {TranspositionTable.EXACT, TranspositionTable.LOWER, TranspositionTable.UPPER};
+        for (int i = 0; i < scores.length; i++) {
+            long hash = 0x9E3779B97F4A7C15L * (i + 1);
+            int bound = bounds[i % bounds.length];
+            int move = i * 40 - 1;
+            table.store(hash, scores[i], 200 + i, bound, move);
+            long data = table.probe(hash);
+            assertNotEquals(0, data);
+            assertEquals(scores[i], TranspositionTable.score(data));
+            assertEquals(200 + i, TranspositionTable.depth(data));
+            assertEquals(bound, TranspositionTable.bound(data));
+            assertEquals(move, TranspositionTable.move(data));
+        }
+    }
+
+    @Test
+    public void testStore_DeeperResultIsKept() {
+        TranspositionTable table = new TranspositionTable(16);
+        table.store(42, 5, 6, TranspositionTable.EXACT, 3);
+        table.store(42, 9, 4, TranspositionTable.LOWER, 1);
+        assertEquals(5, TranspositionTable.score(table.probe(42)));
+        table.store(42, 9, 6, TranspositionTable.LOWER, 1);
+        assertEquals(9, TranspositionTable.score(table.probe(42)));
+    }
+
+    @Test
+    public void testStore_OtherPositionInTheSameEntryReplacesIt() {
+        TranspositionTable table = new TranspositionTable(16);
+        // the entry index comes from the low bits of hash ^ (hash >>> 32), so these two share an entry
+        long first = 5;
+        long second = 5L | (1L << 40) | (1L << 8);
+        table.store(first, 1, 10, TranspositionTable.EXACT, 0);
+        table.store(second, 2, 1, TranspositionTable.EXACT, 0);
+        assertEquals(0, table.probe(first));
+        assertEquals(2, TranspositionTable.score(table.probe(second)));
+    }
+
+    @Test
+    public void testClear_EveryProbeMisses() {
+        TranspositionTable table = new TranspositionTable(64);
+        for (long h = 1; h <= 64; h++) {
+            table.store(h * 7919, (int) h, 1, TranspositionTable.EXACT, 0);
+        }
+        table.clear();
+        for (long h = 1; h <= 64; h++) {
+            assertEquals(0, table.probe(h * 7919));
+        }
+    }
+
+    @Test
+    public void testConcurrentWriters_NeverReturnAnotherPositionsData() {
+        TranspositionTable table = new TranspositionTable(256);
+        AtomicInteger wrong = new AtomicInteger();
+        // every score is made from its own hash, so data read back for a hash can be checked against it
+        IntStream.range(0, 8).parallel().forEach(t -> {
+            Random rnd = new Random(t);
+            for (int i = 0; i < 200000; i++) {
+                long hash = rnd.nextInt(4096) * 0x9E3779B97F4A7C15L;
+                if (rnd.nextBoolean()) {
+                    table.store(hash, (int) (hash >>> 40), rnd.nextInt(8), TranspositionTable.EXACT, 0);
+                } else {
+                    long data = table.probe(hash);
+                    if (data != 0 && TranspositionTable.score(data) != (int) (hash >>> 40)) {
+                        wrong.incrementAndGet();
+                    }
+                }
+            }
+        });
+        assertEquals(0, wrong.get());
+    }
+}
@@ -0,0 +1,85 @@
+package cpsc2150.extendedConnectX.ai;
+
+import cpsc2150.extendedConnectX.models.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class checks that {@link WindowEvaluator} keeps the same score {@link Evaluator#evaluate} gives
+ * the whole board, as tokens are placed and taken back.
+ *
+ * @version 2.0
+ */
+public class TestWindowEvaluator {
+
+    /**
+     * <p>
+     * The full-board scores the evaluator has to match
+     * </p>
+     */
+    private static final Evaluator EVAL = new Evaluator();
+
+    /**
+     * <p>
+     * The tokens of up to four players, in turn order
+     * </p>
+     */
+    private static final char[] TOKENS = {'X', 'O', 'H', 'D'};
+
+    @Test
+    public void testPlaceRemove_MatchesEvaluate() {
+        Random rnd = new Random(18);
+        for (int g = 0; g < 300; g++) {
+            int rows = 3 + rnd.nextInt(18);
+            int cols = 3 + rnd.nextInt(18);
+            int numToWin = 3 + rnd.nextInt(Math.min(rows, cols) - 2);
+            char[] players = Arrays.copyOf(TOKENS, 2 + rnd.nextInt(3));
+            int player = rnd.nextInt(players.length);
+            GameBoardBit b = new GameBoardBit(rows, cols, numToWin);
+            WindowEvaluator eval = new WindowEvaluator(b, players, player);
+            assertEquals(0, eval.getScore());
+            for (int s = 0; s < 2 * rows * cols; s++) {
+                int c = rnd.nextInt(cols);
+                int p = rnd.nextInt(players.length);
+                if (rnd.nextInt(3) > 0) {
+                    // only places tokens that don't win, since a board with a winner is not scored
+                    if (!b.checkIfFree(c) || b.isWinningMove(players[p], c)) {
+                        continue;
+                    }
+                    eval.place(b.getColumnHeight(c), c, p);
+                    b.placeToken(players[p], c);
+                } else if (b.getColumnHeight(c) > 0) {
+                    int r = b.getColumnHeight(c) - 1;
+                    char t = b.whatsAtPos(r, c);
+                    eval.remove(r, c, new String(players).indexOf(t));
+                    b.removeToken(c);
+                }
+                assertEquals(EVAL.evaluate(b, players[player]), eval.getScore());
+            }
+            // and an evaluator built for the tokens already on the board
+            assertEquals(EVAL.evaluate(b, players[player]), new WindowEvaluator(b, players, player).getScore());
+        }
+    }
+
+    @Test
+    public void testCopy_ChangesDoNotReachTheOriginal() {
+        char[] players = {'X', 'O'};
+        GameBoardBit b = new GameBoardBit(6, 7, 4);
+        b.placeToken('X', 3);
+        b.placeToken('O', 2);
+        WindowEvaluator eval = new WindowEvaluator(b, players, 0);
+        WindowEvaluator copy = new WindowEvaluator(eval);
+        assertEquals(eval.getScore(), copy.getScore());
+        int before = eval.getScore();
+        copy.place(1, 3, 0);
+        copy.place(0, 4, 0);
+        assertEquals(before, eval.getScore());
+        b.placeToken('X', 3);
+        b.placeToken('X', 4);
+        assertEquals(EVAL.evaluate(b, 'X'), copy.getScore());
+    }
+}
@@ -0,0 +1,87 @@
+package cpsc2150.extendedConnectX.controllers;
+
+import cpsc2150.extendedConnectX.models.*;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class checks that a game session passes the turn around, turns down moves it cannot make, and
+ * ends the game on a win or a tie.
+ *
+ * @version 2.0
+ */
+public class TestGameSession {
+
+    @Test
+    public void testPlay_TurnPassesToEveryPlayerInOrder() {
+        GameSession session = new GameSession(new GameBoardBit(6, 7, 4), 3);
+        assertArrayEquals(new char[] {'X', 'O', 'H'}, session.getPlayers());
+        for (int i = 0; i < 6; i++) {
+            char player = session.getCurrentPlayer();
+            assertEquals(GameSession.getToken(i % 3), player);
+            MoveResult result = session.play(i);
+            assertTrue(result.isAccepted());
+            assertEquals(player, result.getPlayer());
+            assertEquals(BoardPosition.of(0, i), result.getPosition());
+            assertEquals(GameSession.getToken((i + 1) % 3), result.getNextPlayer());
+            assertEquals((i + 1) % 3, session.getCurrentPlayerIndex());
+            assertEquals(player, session.getBoard().whatsAtPos(0, i));
+        }
+        assertFalse(session.isOver());
+        assertEquals(' ', session.getWinner());
+    }
+
+    @Test
+    public void testPlay_BadColumnsAreTurnedDown() {
+        GameSession session = new GameSession(new GameBoardBit(3, 3, 3), 2);
+        for (int col : new int[] {-1, 3, 100}) {
+            MoveResult result = session.play(col);
+            assertFalse(result.isAccepted());
+            assertNull(result.getPosition());
+            assertEquals('X', result.getNextPlayer());
+        }
+        session.play(0);
+        session.play(0);
+        session.play(0);
+        // column 0 is full, so it is still O's turn afterwards
+        MoveResult result = session.play(0);
+        assertFalse(result.isAccepted());
+        assertEquals('O', result.getPlayer());
+        assertEquals('O', session.getCurrentPlayer());
+        assertEquals(3, session.getBoard().getOccupiedCount());
+    }
+
+    @Test
+    public void testPlay_WinEndsTheGame() {
+        GameSession session = new GameSession(new GameBoardBit(6, 7, 4), 2);
+        for (int i = 0; i < 3; i++) {
+            assertFalse(session.play(i).isWin());
+            assertFalse(session.play(i).isWin());
+        }
+        MoveResult result = session.play(3);
+        assertTrue(result.isWin());
+        assertFalse(result.isTie());
+        assertTrue(session.isOver());
+        assertEquals('X', session.getWinner());
+        assertFalse(session.play(4).isAccepted());
+        assertEquals(7, session.getBoard().getOccupiedCount());
+    }
+
+    @Test
+    public void testPlay_FullBoardWithNoWinIsATie() {
+        GameSession session = new GameSession(new GameBoardBit(3, 3, 3), 2);
+        int[] moves = {0, 0, 0, 1, 1, 2, 2, 2, 1};
+        for (int i = 0; i < moves.length - 1; i++) {
+            MoveResult result = session.play(moves[i]);
+            assertTrue(result.isAccepted());
+            assertFalse(result.isTie());
+            assertFalse(session.isOver());
+        }
+        MoveResult result = session.play(moves[moves.length - 1]);
+        assertTrue(result.isTie());
+        assertFalse(result.isWin());
+        assertTrue(session.isOver());
+        assertEquals(' ', session.getWinner());
+    }
+}
@@ -0,0 +1,80 @@
+package cpsc2150.extendedConnectX.models;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class holds the checks the board model tests share. Every model is checked against
+ * {@link GameBoard}, the original model the others have to agree with.
+ *
+ * @version 2.0
+ */
+final class BoardAssert {
+
+    /**
+     * <p>
+     * The tokens random games are played with
+     * </p>
+     */
+    static final char[] TOKENS = {'X', 'O', 'Z'};
+
+    /**
+     * <p>
+     * This class only has static methods.
+     * </p>
+     */
+    private BoardAssert() {
+    }
+
+    /**
+     * <p>
+     * This checks that a board holds the same tokens as the reference board and answers the same way about
+     * where tokens can go.
+     * </p>
+     *
+     * @param expected
+     *      The reference board
+     * @param actual
+     *      The board being checked
+     */
+    static void assertSameBoard(IGameBoard expected, IGameBoard actual) {
+        String name = actual.getClass().getSimpleName();
+        assertEquals(name, expected.toString(), actual.toString());
+        assertEquals(name, expected.getOccupiedCount(), actual.getOccupiedCount());
+        assertEquals(name, expected.getLastPlacedPosition(), actual.getLastPlacedPosition());
+        for (int c = 0; c < expected.getNumColumns(); c++) {
+            assertEquals(name, expected.getColumnHeight(c), actual.getColumnHeight(c));
+            assertEquals(name, expected.checkIfFree(c), actual.checkIfFree(c));
+            for (int r = 0; r < expected.getNumRows(); r++) {
+                assertEquals(name, expected.whatsAtPos(r, c), actual.whatsAtPos(r, c));
+            }
+        }
+        assertEquals(name, expected.checkTie(), actual.checkTie());
+    }
+
+    /**
+     * <p>
+     * This places the same token in the same column of every board and checks that they all agree on
+     * whether it won.
+     * </p>
+     *
+     * @param boards
+     *      The boards, the reference board first
+     * @param p
+     *      The token to place
+     * @param c
+     *      The column to place it in
+     * @return true if the token won the game
+     *
+     * @pre [ no player has won on the boards ] and boards[0].checkIfFree(c)
+     */
+    static boolean placeOnAll(IGameBoard[] boards, char p, int c) {
+        for (IGameBoard b : boards) {
+            b.placeToken(p, c);
+        }
+        boolean won = boards[0].checkForWin(c);
+        for (int i = 1; i < boards.length; i++) {
+            assertEquals(boards[i].getClass().getSimpleName(), won, boards[i].checkForWin(c));
+        }
+        return won;
+    }
+}
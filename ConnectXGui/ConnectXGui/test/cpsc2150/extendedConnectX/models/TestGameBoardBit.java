@@ -0,0 +1,95 @@
+package cpsc2150.extendedConnectX.models;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static cpsc2150.extendedConnectX.models.BoardAssert.*;
+import static org.junit.Assert.*;
+
+/**
+ * This class checks {@link GameBoardBit} against {@link GameBoard} on random games of every size the setup
+ * screen allows, and on the largest board its longs can hold.
+ *
+ * @version 2.0
+ */
+public class TestGameBoardBit {
+
+    @Test
+    public void testRandomGames_MatchGameBoard() {
+        Random rnd = new Random(2150);
+        for (int g = 0; g < 400; g++) {
+            int rows = 3 + rnd.nextInt(18);
+            int cols = 3 + rnd.nextInt(18);
+            int numToWin = 3 + rnd.nextInt(Math.min(rows, cols) - 2);
+            IGameBoard[] boards = {new GameBoard(rows, cols, numToWin), new GameBoardBit(rows, cols, numToWin)};
+            int players = 2 + rnd.nextInt(2);
+            boolean won = false;
+            for (int turn = 0; !won && !boards[0].checkTie(); turn++) {
+                int c = rnd.nextInt(cols);
+                if (boards[0].checkIfFree(c)) {
+                    won = placeOnAll(boards, TOKENS[turn % players], c);
+                    assertSameBoard(boards[0], boards[1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIsWinningMove_MatchesPlacingTheToken() {
+        Random rnd = new Random(7);
+        for (int g = 0; g < 300; g++) {
+            GameBoard ref = new GameBoard(6, 7, 4);
+            GameBoardBit bit = new GameBoardBit(6, 7, 4);
+            boolean won = false;
+            for (int turn = 0; !won && !ref.checkTie(); turn++) {
+                for (int c = 0; c < 7; c++) {
+                    if (!ref.checkIfFree(c)) {
+                        continue;
+                    }
+                    for (char p : new char[] {'X', 'O'}) {
+                        GameBoard probe = new GameBoard(6, 7, 4);
+                        for (int i = 0; i < 6; i++) {
+                            for (int col = 0; col < 7; col++) {
+                                // rebuilds the position bottom up so the probe is a separate board
+                                if (i < ref.getColumnHeight(col)) {
+                                    probe.placeToken(ref.whatsAtPos(i, col), col);
+                                }
+                            }
+                        }
+                        probe.placeToken(p, c);
+                        assertEquals(probe.checkForWin(c), bit.isWinningMove(p, c));
+                    }
+                }
+                int c = rnd.nextInt(7);
+                if (ref.checkIfFree(c)) {
+                    char p = turn % 2 == 0 ? 'X' : 'O';
+                    ref.placeToken(p, c);
+                    bit.placeToken(p, c);
+                    won = ref.checkForWin(c);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLargestBoard_TopRowAndLastColumnWin() {
+        GameBoardBit bit = new GameBoardBit(63, 63, 25);
+        GameBoard ref = new GameBoard(63, 63, 25);
+        IGameBoard[] boards = {ref, bit};
+        // fills the last column to one below the top, then wins along the top row from the right
+        for (int r = 0; r < 62; r++) {
+            assertFalse(placeOnAll(boards, r % 2 == 0 ? 'X' : 'O', 62));
+        }
+        for (int c = 38; c < 62; c++) {
+            for (int r = 0; r < 62; r++) {
+                assertFalse(placeOnAll(boards, r % 2 == 0 ? 'O' : 'X', c));
+            }
+        }
+        for (int c = 38; c < 62; c++) {
+            assertFalse(placeOnAll(boards, 'Z', c));
+        }
+        assertTrue(placeOnAll(boards, 'Z', 62));
+        assertSameBoard(ref, bit);
+    }
+}
@@ -0,0 +1,139 @@
+package cpsc2150.extendedConnectX.models;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static cpsc2150.extendedConnectX.models.BoardAssert.*;
+import static org.junit.Assert.*;
+
+/**
+ * This class checks that a copy of any board model starts out the same as the board and can then be
+ * changed without changing it, and checks {@link GameBoardCow} against {@link GameBoard}.
+ *
+ * @version 2.0
+ */
+public class TestGameBoardCopy {
+
+    /**
+     * <p>
+     * This makes an empty board of every model, the reference GameBoard first.
+     * </p>
+     *
+     * @param rows
+     *      Number of rows for the board
+     * @param cols
+     *      Number of columns for the board
+     * @param numToWin
+     *      Number of tokens in a row required to win
+     * @return one board of each model
+     */
+    private IGameBoard[] makeBoards(int rows, int cols, int numToWin) {
+        return new IGameBoard[] {new GameBoard(rows, cols, numToWin), new GameBoardMem(rows, cols, numToWin),
+                new GameBoardBit(rows, cols, numToWin), new GameBoardRun(rows, cols, numToWin),
+                new GameBoardCow(rows, cols, numToWin)};
+    }
+
+    @Test
+    public void testCowRandomGames_MatchGameBoard() {
+        Random rnd = new Random(2150);
+        for (int g = 0; g < 500; g++) {
+            int rows = 3 + rnd.nextInt(18);
+            int cols = 3 + rnd.nextInt(18);
+            int numToWin = 3 + rnd.nextInt(Math.min(rows, cols) - 2);
+            IGameBoard[] boards = {new GameBoard(rows, cols, numToWin), new GameBoardCow(rows, cols, numToWin)};
+            boolean won = false;
+            for (int s = 0; s < 200; s++) {
+                int c = rnd.nextInt(cols);
+                int op = won ? 6 : rnd.nextInt(10);
+                if (op < 6 && boards[0].checkIfFree(c)) {
+                    won = placeOnAll(boards, TOKENS[rnd.nextInt(TOKENS.length)], c);
+                } else if (op < 8 && boards[0].getNumMoves() > 0) {
+                    assertEquals(boards[0].undoMove(), boards[1].undoMove());
+                    won = false;
+                } else if (op >= 8 && boards[0].getColumnHeight(c) > 0) {
+                    boards[0].removeToken(c);
+                    boards[1].removeToken(c);
+                }
+                assertSameBoard(boards[0], boards[1]);
+                assertEquals(boards[0].getZobristHash(), boards[1].getZobristHash());
+            }
+        }
+    }
+
+    @Test
+    public void testCopy_ChangesDoNotReachTheOriginal() {
+        Random rnd = new Random(11);
+        for (int g = 0; g < 100; g++) {
+            IGameBoard[] boards = makeBoards(6, 7, 4);
+            for (int s = 0; s < 20; s++) {
+                int c = rnd.nextInt(7);
+                if (boards[0].checkIfFree(c)) {
+                    for (IGameBoard b : boards) {
+                        b.placeToken(TOKENS[s % 2], c);
+                    }
+                }
+            }
+            for (IGameBoard b : boards) {
+                IGameBoard copy = b.copy();
+                assertEquals(b.getClass(), copy.getClass());
+                assertSameBoard(b, copy);
+                assertEquals(b.getZobristHash(), copy.getZobristHash());
+                assertEquals(b.getNumMoves(), copy.getNumMoves());
+                for (int c = 0; c < 7; c++) {
+                    if (copy.checkIfFree(c)) {
+                        copy.placeToken('Z', c);
+                    }
+                }
+                copy.undoMove();
+                if (copy.getColumnHeight(0) > 0) {
+                    copy.removeToken(0);
+                }
+                // the reference GameBoard never shares cells, so it still holds what b should hold
+                assertSameBoard(boards[0], b);
+                assertEquals(boards[0].getZobristHash(), b.getZobristHash());
+
+                // the other way round, which matters for models that share storage between copies
+                String text = copy.toString();
+                IGameBoard kept = copy.copy();
+                for (int c = 0; c < 7; c++) {
+                    if (copy.getColumnHeight(c) > 0) {
+                        copy.removeToken(c);
+                    }
+                }
+                assertEquals(text, kept.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testCowCopies_ManyGenerations() {
+        Random rnd = new Random(20);
+        GameBoardCow cow = new GameBoardCow(8, 9, 4);
+        GameBoard ref = new GameBoard(8, 9, 4);
+        // each copy is changed and dropped, then the original plays on, as a search or rollout would
+        for (int s = 0; s < 50 && !ref.checkTie(); s++) {
+            IGameBoard child = cow.copy();
+            IGameBoard grandchild = child.copy();
+            for (int c = 0; c < 9; c++) {
+                if (grandchild.checkIfFree(c)) {
+                    grandchild.placeToken('Z', c);
+                }
+            }
+            if (child.getColumnHeight(s % 9) > 0) {
+                child.removeToken(s % 9);
+            }
+            assertSameBoard(ref, cow);
+            int c = rnd.nextInt(9);
+            if (ref.checkIfFree(c)) {
+                char p = TOKENS[s % 2];
+                ref.placeToken(p, c);
+                cow.placeToken(p, c);
+                if (ref.checkForWin(c)) {
+                    ref.undoMove();
+                    cow.undoMove();
+                }
+            }
+        }
+    }
+}
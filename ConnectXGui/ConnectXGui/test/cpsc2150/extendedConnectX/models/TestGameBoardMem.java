@@ -0,0 +1,63 @@
+package cpsc2150.extendedConnectX.models;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static cpsc2150.extendedConnectX.models.BoardAssert.*;
+import static org.junit.Assert.*;
+
+/**
+ * This class checks {@link GameBoardMem} against {@link GameBoard}, and the {@link PositionMap} behind it
+ * against a HashMap while the map grows.
+ *
+ * @version 2.0
+ */
+public class TestGameBoardMem {
+
+    @Test
+    public void testRandomGames_MatchGameBoard() {
+        Random rnd = new Random(2150);
+        for (int g = 0; g < 400; g++) {
+            int rows = 3 + rnd.nextInt(18);
+            int cols = 3 + rnd.nextInt(18);
+            int numToWin = 3 + rnd.nextInt(Math.min(rows, cols) - 2);
+            IGameBoard[] boards = {new GameBoard(rows, cols, numToWin), new GameBoardMem(rows, cols, numToWin)};
+            int players = 2 + rnd.nextInt(2);
+            boolean won = false;
+            for (int turn = 0; !won && !boards[0].checkTie(); turn++) {
+                int c = rnd.nextInt(cols);
+                if (boards[0].checkIfFree(c)) {
+                    won = placeOnAll(boards, TOKENS[turn % players], c);
+                    assertSameBoard(boards[0], boards[1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPositionMap_MatchesHashMapWhileGrowing() {
+        Random rnd = new Random(3);
+        PositionMap map = new PositionMap();
+        Map<Integer, Character> expected = new HashMap<>();
+        // keys close together and keys far apart, so both short and long probe runs come up
+        for (int i = 0; i < 5000; i++) {
+            int key = i % 2 == 0 ? rnd.nextInt(400) : rnd.nextInt(Integer.MAX_VALUE);
+            char value = TOKENS[rnd.nextInt(TOKENS.length)];
+            map.put(key, value);
+            expected.put(key, value);
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Integer, Character> e : expected.entrySet()) {
+            assertEquals((char) e.getValue(), map.get(e.getKey()));
+        }
+        for (int i = 0; i < 1000; i++) {
+            int key = rnd.nextInt(Integer.MAX_VALUE);
+            if (!expected.containsKey(key)) {
+                assertEquals(' ', map.get(key));
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package cpsc2150.extendedConnectX.models;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static cpsc2150.extendedConnectX.models.BoardAssert.*;
+import static org.junit.Assert.*;
+
+/**
+ * This class checks {@link GameBoardRun} against {@link GameBoard}, including tokens that join two runs
+ * that were already on the board.
+ *
+ * @version 2.0
+ */
+public class TestGameBoardRun {
+
+    @Test
+    public void testRandomGames_MatchGameBoard() {
+        Random rnd = new Random(2150);
+        for (int g = 0; g < 400; g++) {
+            int rows = 3 + rnd.nextInt(18);
+            int cols = 3 + rnd.nextInt(18);
+            int numToWin = 3 + rnd.nextInt(Math.min(rows, cols) - 2);
+            IGameBoard[] boards = {new GameBoard(rows, cols, numToWin), new GameBoardRun(rows, cols, numToWin)};
+            int players = 2 + rnd.nextInt(2);
+            boolean won = false;
+            for (int turn = 0; !won && !boards[0].checkTie(); turn++) {
+                int c = rnd.nextInt(cols);
+                if (boards[0].checkIfFree(c)) {
+                    won = placeOnAll(boards, TOKENS[turn % players], c);
+                    assertSameBoard(boards[0], boards[1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCheckForWin_TokenJoinsTwoHorizontalRuns() {
+        IGameBoard[] boards = {new GameBoard(6, 9, 5), new GameBoardRun(6, 9, 5)};
+        // X X _ X X on the bottom row, then the gap is filled
+        for (int c : new int[] {0, 1, 3, 4}) {
+            assertFalse(placeOnAll(boards, 'X', c));
+        }
+        assertTrue(placeOnAll(boards, 'X', 2));
+    }
+
+    @Test
+    public void testCheckForWin_TokenJoinsTwoDiagonalRuns() {
+        IGameBoard[] boards = {new GameBoard(6, 7, 4), new GameBoardRun(6, 7, 4)};
+        // builds an up-right diagonal from (0, 0) to (3, 3) and leaves (2, 2) for last
+        int[][] fill = {{1, 'O'}, {1, 'X'}, {2, 'O'}, {2, 'O'}, {3, 'O'}, {3, 'O'}, {3, 'O'}, {3, 'X'}, {0, 'X'}};
+        for (int[] move : fill) {
+            assertFalse(placeOnAll(boards, (char) move[1], move[0]));
+        }
+        assertEquals('X', boards[1].whatsAtPos(3, 3));
+        assertEquals(2, boards[1].getColumnHeight(2));
+        assertTrue(placeOnAll(boards, 'X', 2));
+    }
+
+    @Test
+    public void testCheckForWin_OtherPlayerBreaksTheRun() {
+        IGameBoard[] boards = {new GameBoard(6, 7, 4), new GameBoardRun(6, 7, 4)};
+        for (int c : new int[] {0, 1, 2}) {
+            assertFalse(placeOnAll(boards, 'X', c));
+        }
+        assertFalse(placeOnAll(boards, 'O', 3));
+        assertFalse(placeOnAll(boards, 'X', 4));
+        assertFalse(placeOnAll(boards, 'X', 5));
+        assertFalse(placeOnAll(boards, 'X', 6));
+        assertSameBoard(boards[0], boards[1]);
+    }
+}
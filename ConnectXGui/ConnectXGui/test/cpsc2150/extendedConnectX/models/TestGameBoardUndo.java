@@ -0,0 +1,119 @@
+package cpsc2150.extendedConnectX.models;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static cpsc2150.extendedConnectX.models.BoardAssert.*;
+import static org.junit.Assert.*;
+
+/**
+ * This class checks removeToken and undoMove on every board model by playing the same random games on all
+ * of them, taking tokens back out along the way, and comparing them with {@link GameBoard}.
+ *
+ * @version 2.0
+ */
+public class TestGameBoardUndo {
+
+    /**
+     * <p>
+     * This checks the move stack and hash of a board against the reference board, on top of what
+     * assertSameBoard checks.
+     * </p>
+     *
+     * @param expected
+     *      The reference board
+     * @param actual
+     *      The board being checked
+     */
+    private void assertSameMoves(IGameBoard expected, IGameBoard actual) {
+        String name = actual.getClass().getSimpleName();
+        assertSameBoard(expected, actual);
+        assertEquals(name, expected.getZobristHash(), actual.getZobristHash());
+        assertEquals(name, expected.getNumMoves(), actual.getNumMoves());
+        for (int i = 0; i < expected.getNumMoves(); i++) {
+            assertEquals(name, expected.getMoveColumn(i), actual.getMoveColumn(i));
+        }
+    }
+
+    @Test
+    public void testRandomGames_MatchGameBoard() {
+        Random rnd = new Random(2150);
+        for (int g = 0; g < 500; g++) {
+            int rows = 3 + rnd.nextInt(10);
+            int cols = 3 + rnd.nextInt(10);
+            int numToWin = 3 + rnd.nextInt(Math.min(rows, cols) - 2);
+            IGameBoard[] boards = {new GameBoard(rows, cols, numToWin), new GameBoardMem(rows, cols, numToWin),
+                    new GameBoardBit(rows, cols, numToWin), new GameBoardRun(rows, cols, numToWin)};
+            // checkForWin only answers for boards nobody had won before the last token, so a won board is
+            // always taken back a move before playing on; taking tokens out never makes a win
+            boolean won = false;
+            for (int s = 0; s < 200; s++) {
+                int c = rnd.nextInt(cols);
+                int op = won ? 6 : rnd.nextInt(10);
+                if (op < 6 && boards[0].checkIfFree(c)) {
+                    won = placeOnAll(boards, TOKENS[rnd.nextInt(TOKENS.length)], c);
+                } else if (op < 8 && boards[0].getNumMoves() > 0) {
+                    int undone = boards[0].undoMove();
+                    for (int i = 1; i < boards.length; i++) {
+                        assertEquals(undone, boards[i].undoMove());
+                    }
+                    won = false;
+                } else if (op >= 8 && boards[0].getColumnHeight(c) > 0) {
+                    // takes out the top token of any column, not only the last one played
+                    for (IGameBoard b : boards) {
+                        b.removeToken(c);
+                    }
+                }
+                for (int i = 1; i < boards.length; i++) {
+                    assertSameMoves(boards[0], boards[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUndoMove_BackToEmpty() {
+        IGameBoard[] boards = {new GameBoard(6, 7, 4), new GameBoardMem(6, 7, 4), new GameBoardBit(6, 7, 4),
+                new GameBoardRun(6, 7, 4)};
+        int[] cols = {3, 3, 4, 2, 6, 0};
+        for (IGameBoard b : boards) {
+            for (int i = 0; i < cols.length; i++) {
+                b.placeToken(TOKENS[i % 2], cols[i]);
+            }
+            for (int i = cols.length - 1; i >= 0; i--) {
+                assertEquals(cols[i], b.undoMove());
+            }
+            assertEquals(0, b.getNumMoves());
+            assertEquals(0, b.getOccupiedCount());
+            assertEquals(0, b.getZobristHash());
+            assertSameBoard(new GameBoard(6, 7, 4), b);
+        }
+    }
+
+    @Test
+    public void testPositionMapRemove_MatchesHashMap() {
+        Random rnd = new Random(19);
+        PositionMap map = new PositionMap();
+        Map<Integer, Character> expected = new HashMap<>();
+        // few keys, so that removing shifts long probe runs back
+        for (int i = 0; i < 20000; i++) {
+            int key = rnd.nextInt(300);
+            if (expected.containsKey(key) && rnd.nextBoolean()) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                char value = TOKENS[rnd.nextInt(TOKENS.length)];
+                map.put(key, value);
+                expected.put(key, value);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = 0; key < 300; key++) {
+            Character value = expected.get(key);
+            assertEquals(value == null ? ' ' : value, map.get(key));
+        }
+    }
+}
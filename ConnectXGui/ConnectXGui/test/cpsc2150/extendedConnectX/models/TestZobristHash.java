@@ -0,0 +1,61 @@
+package cpsc2150.extendedConnectX.models;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static cpsc2150.extendedConnectX.models.BoardAssert.*;
+import static org.junit.Assert.*;
+
+/**
+ * This class checks that every board model keeps its Zobrist hash equal to the XOR of the keys of the
+ * tokens on it.
+ *
+ * @version 2.0
+ */
+public class TestZobristHash {
+
+    @Test
+    public void testRandomGames_HashMatchesTokens() {
+        Random rnd = new Random(4);
+        for (int g = 0; g < 500; g++) {
+            int rows = 3 + rnd.nextInt(18);
+            int cols = 3 + rnd.nextInt(18);
+            IGameBoard[] boards = {new GameBoard(rows, cols, 3), new GameBoardMem(rows, cols, 3),
+                    new GameBoardBit(rows, cols, 3), new GameBoardRun(rows, cols, 3)};
+            for (int s = 0; s < rows * cols / 2; s++) {
+                int c = rnd.nextInt(cols);
+                if (boards[0].checkIfFree(c)) {
+                    for (IGameBoard b : boards) {
+                        b.placeToken(TOKENS[s % TOKENS.length], c);
+                    }
+                }
+            }
+            long hash = 0;
+            for (int c = 0; c < cols; c++) {
+                for (int r = 0; r < boards[0].getColumnHeight(c); r++) {
+                    hash ^= Zobrist.key(r, c, boards[0].whatsAtPos(r, c));
+                }
+            }
+            for (IGameBoard b : boards) {
+                assertEquals(b.getClass().getSimpleName(), hash, b.getZobristHash());
+            }
+        }
+    }
+
+    @Test
+    public void testKey_EveryCellAndTokenDiffers() {
+        Set<Long> keys = new HashSet<>();
+        char[] tokens = {'X', 'O', 'H', 'D', 'A', 'B', 'K', 'G', 'F', 'S'};
+        for (int r = 0; r < 20; r++) {
+            for (int c = 0; c < 20; c++) {
+                for (char p : tokens) {
+                    assertTrue(keys.add(Zobrist.key(r, c, p)));
+                }
+            }
+        }
+        assertEquals(0, new GameBoardBit(6, 7, 4).getZobristHash());
+    }
+}
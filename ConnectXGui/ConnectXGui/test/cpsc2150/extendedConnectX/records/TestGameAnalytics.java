@@ -0,0 +1,261 @@
+package cpsc2150.extendedConnectX.records;
+
+import cpsc2150.extendedConnectX.controllers.GameSession;
+import cpsc2150.extendedConnectX.models.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class checks that reading an archive in chunks on several threads counts every game and every
+ * damaged byte exactly once, wherever the chunk boundaries fall, by comparing against the same games added
+ * one at a time.
+ *
+ * @version 2.0
+ */
+public class TestGameAnalytics {
+
+    /**
+     * <p>
+     * The archive file each test writes, deleted afterwards
+     * </p>
+     */
+    private Path file;
+
+    /**
+     * <p>
+     * The bytes of the archive being built
+     * </p>
+     */
+    private ByteBuffer out;
+
+    /**
+     * <p>
+     * The results of the games written so far, added one at a time, and the number of bytes written that
+     * are not part of a record
+     * </p>
+     */
+    private Map<Integer, GameAnalytics.Stats> expected;
+    private long expectedSkipped;
+
+    /**
+     * <p>
+     * The number of records written across a chunk boundary
+     * </p>
+     */
+    private int straddling;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("connectx-analytics", ".bin");
+        out = ByteBuffer.allocate(4 * GameAnalytics.CHUNK_BYTES);
+        expected = new HashMap<>();
+        expectedSkipped = 0;
+        straddling = 0;
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * <p>
+     * This plays games of random moves to the end, on boards up to 20x20.
+     * </p>
+     *
+     * @param rnd
+     *      The random numbers the games are picked with
+     * @param n
+     *      How many games to play
+     * @return the finished games
+     */
+    private List<GameRecord> playRandomGames(Random rnd, int n) {
+        List<GameRecord> records = new ArrayList<>();
+        for (int g = 0; g < n; g++) {
+            int rows = 3 + rnd.nextInt(18);
+            int cols = 3 + rnd.nextInt(18);
+            int numToWin = 3 + rnd.nextInt(Math.min(rows, cols) - 2);
+            GameSession session = new GameSession(new GameBoardBit(rows, cols, numToWin), 2 + rnd.nextInt(3));
+            while (!session.isOver()) {
+                session.play(rnd.nextInt(cols));
+            }
+            records.add(GameRecord.of(session));
+        }
+        return records;
+    }
+
+    /**
+     * <p>
+     * This appends a record to the archive and adds its game to the expected results.
+     * </p>
+     *
+     * @param record
+     *      The record
+     */
+    private void addRecord(GameRecord record) {
+        long before = out.position() / GameAnalytics.CHUNK_BYTES;
+        record.encode(out);
+        if ((out.position() - 1) / GameAnalytics.CHUNK_BYTES != before) {
+            straddling++;
+        }
+        int key = GameAnalytics.key(record.getNumRows(), record.getNumColumns(), record.getNumToWin(),
+                record.getNumPlayers());
+        GameAnalytics.Stats stats = expected.get(key);
+        if (stats == null) {
+            stats = new GameAnalytics.Stats(record.getNumRows(), record.getNumColumns(), record.getNumToWin(),
+                    record.getNumPlayers());
+            expected.put(key, stats);
+        }
+        stats.addGame(record);
+    }
+
+    /**
+     * <p>
+     * This appends bytes that are not part of any record, as a damaged archive would hold.
+     * </p>
+     *
+     * @param rnd
+     *      The random numbers the bytes are picked with
+     * @param n
+     *      How many bytes to append
+     */
+    private void addGarbage(Random rnd, int n) {
+        for (int i = 0; i < n; i++) {
+            // never SYNC, the only byte with its top bit set
+            out.put((byte) rnd.nextInt(0x80));
+        }
+        expectedSkipped += n;
+    }
+
+    /**
+     * <p>
+     * This writes the archive built so far to the file.
+     * </p>
+     *
+     * @throws IOException if the file cannot be written
+     */
+    private void writeArchive() throws IOException {
+        out.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This checks that results read from archives match the expected ones, each game counted a number of
+     * times.
+     * </p>
+     *
+     * @param times
+     *      How many times each expected game was read
+     * @param actual
+     *      The results read
+     */
+    private void assertSameStats(int times, Map<Integer, GameAnalytics.Stats> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<Integer, GameAnalytics.Stats> e : expected.entrySet()) {
+            GameAnalytics.Stats exp = e.getValue();
+            GameAnalytics.Stats act = actual.get(e.getKey());
+            assertEquals(times * exp.getGames(), act.getGames());
+            assertEquals(times * exp.getMoves(), act.getMoves());
+            assertEquals(times * exp.getTies(), act.getTies());
+            assertEquals(times * exp.getUnplayable(), act.getUnplayable());
+            assertEquals(times * exp.getHorizontalWins(), act.getHorizontalWins());
+            assertEquals(times * exp.getVerticalWins(), act.getVerticalWins());
+            assertEquals(times * exp.getDiagonalWins(), act.getDiagonalWins());
+            for (int seat = 0; seat < exp.getNumPlayers(); seat++) {
+                assertEquals(times * exp.getSeatWins(seat), act.getSeatWins(seat));
+            }
+        }
+    }
+
+    @Test
+    public void testRun_GamesAcrossChunksCountedOnce() throws IOException {
+        Random rnd = new Random(25);
+        List<GameRecord> games = playRandomGames(rnd, 2000);
+        while (out.position() < 2.5 * GameAnalytics.CHUNK_BYTES) {
+            addRecord(games.get(rnd.nextInt(games.size())));
+        }
+        writeArchive();
+        assertEquals(2, straddling);
+
+        for (int threads : new int[] {1, 4}) {
+            GameAnalytics analytics = new GameAnalytics();
+            assertSameStats(1, analytics.run(Collections.singletonList(file), threads));
+            assertEquals(0, analytics.getSkippedBytes());
+        }
+        // a second run adds to the first
+        GameAnalytics analytics = new GameAnalytics();
+        analytics.run(Collections.singletonList(file), 3);
+        assertSameStats(2, analytics.run(Arrays.asList(file), 2));
+        assertSameStats(4, analytics.run(Arrays.asList(file, file), 3));
+    }
+
+    @Test
+    public void testRun_DamagedBytesCountedOnce() throws IOException {
+        Random rnd = new Random(2150);
+        List<GameRecord> games = playRandomGames(rnd, 2000);
+        int chunk = GameAnalytics.CHUNK_BYTES;
+        // garbage from just before the first boundary to past where the chunk before can read
+        while (out.position() < chunk - 10) {
+            addRecord(games.get(rnd.nextInt(games.size())));
+        }
+        addGarbage(rnd, chunk + GameAnalytics.MAX_RECORD_BYTES + 100 - out.position());
+        // a record that starts exactly on the second boundary
+        while (out.position() < 2 * chunk - 500) {
+            addRecord(games.get(rnd.nextInt(games.size())));
+            if (rnd.nextInt(10) == 0) {
+                addGarbage(rnd, rnd.nextInt(20));
+            }
+        }
+        addGarbage(rnd, 2 * chunk - out.position());
+        addRecord(games.get(0));
+        // records with a bad move, one of them across the third boundary, are skipped whole
+        while (out.position() < 3 * chunk + 500) {
+            GameRecord record = games.get(rnd.nextInt(games.size()));
+            if (rnd.nextInt(10) == 0 || out.position() + record.getEncodedLength() > 3 * chunk
+                    && out.position() < 3 * chunk) {
+                int start = out.position();
+                record.encode(out);
+                out.put(out.position() - 1, (byte) record.getNumColumns());
+                expectedSkipped += out.position() - start;
+            } else {
+                addRecord(record);
+            }
+        }
+        // and a record cut short by the end of the file
+        GameRecord last = games.get(1);
+        ByteBuffer torn = ByteBuffer.allocate(last.getEncodedLength());
+        last.encode(torn);
+        out.put(torn.array(), 0, last.getEncodedLength() - 1);
+        expectedSkipped += last.getEncodedLength() - 1;
+        writeArchive();
+
+        for (int threads : new int[] {1, 4}) {
+            GameAnalytics analytics = new GameAnalytics();
+            assertSameStats(1, analytics.run(Collections.singletonList(file), threads));
+            assertEquals(expectedSkipped, analytics.getSkippedBytes());
+        }
+    }
+}
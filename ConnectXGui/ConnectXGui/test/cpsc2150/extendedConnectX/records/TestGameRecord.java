@@ -0,0 +1,200 @@
+package cpsc2150.extendedConnectX.records;
+
+import cpsc2150.extendedConnectX.controllers.GameSession;
+import cpsc2150.extendedConnectX.models.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class checks that game records survive being encoded and decoded, and that an archive reader gets
+ * every whole record back from a file whose writes were cut short.
+ *
+ * @version 2.0
+ */
+public class TestGameRecord {
+
+    /**
+     * <p>
+     * The archive file each test writes, deleted afterwards
+     * </p>
+     */
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("connectx-records", ".bin");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * <p>
+     * This plays a game of random moves to the end.
+     * </p>
+     *
+     * @param rnd
+     *      The random numbers the moves are picked with
+     * @return the finished game
+     */
+    private GameSession playRandomGame(Random rnd) {
+        int rows = 3 + rnd.nextInt(8);
+        int cols = 3 + rnd.nextInt(8);
+        int numToWin = 3 + rnd.nextInt(Math.min(rows, cols) - 2);
+        GameSession session = new GameSession(new GameBoardBit(rows, cols, numToWin), 2 + rnd.nextInt(3));
+        while (!session.isOver()) {
+            session.play(rnd.nextInt(cols));
+        }
+        return session;
+    }
+
+    /**
+     * <p>
+     * This checks that two records describe the same game.
+     * </p>
+     *
+     * @param expected
+     *      The record that was written
+     * @param actual
+     *      The record that was read
+     */
+    private void assertSameRecord(GameRecord expected, GameRecord actual) {
+        assertEquals(expected.getNumRows(), actual.getNumRows());
+        assertEquals(expected.getNumColumns(), actual.getNumColumns());
+        assertEquals(expected.getNumToWin(), actual.getNumToWin());
+        assertEquals(expected.getNumPlayers(), actual.getNumPlayers());
+        assertEquals(expected.getWinner(), actual.getWinner());
+        assertEquals(expected.getNumMoves(), actual.getNumMoves());
+        for (int i = 0; i < expected.getNumMoves(); i++) {
+            assertEquals(expected.getMove(i), actual.getMove(i));
+        }
+    }
+
+    @Test
+    public void testEncodeDecode_RandomGames() {
+        Random rnd = new Random(2150);
+        for (int g = 0; g < 500; g++) {
+            GameSession session = playRandomGame(rnd);
+            GameRecord record = GameRecord.of(session);
+            ByteBuffer buf = ByteBuffer.allocate(record.getEncodedLength() + 3);
+            buf.put((byte) 1).put((byte) 2);
+            record.encode(buf);
+            assertEquals(2 + record.getEncodedLength(), buf.position());
+            buf.flip().position(2);
+
+            GameRecord decoded = GameRecord.decode(buf);
+            assertEquals(2 + record.getEncodedLength(), buf.position());
+            assertSameRecord(record, decoded);
+            assertEquals(session.getBoard().getZobristHash(), decoded.replay().getZobristHash());
+            if (session.getWinner() == ' ') {
+                assertEquals(-1, decoded.getWinner());
+            } else {
+                assertEquals(session.getWinner(), GameSession.getToken(decoded.getWinner()));
+            }
+        }
+    }
+
+    @Test
+    public void testEncodeDecode_MoveCountOverOneByte() {
+        byte[] moves = new byte[GameRecord.MAX_MOVES];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = (byte) (i % 20);
+        }
+        GameRecord record = new GameRecord(20, 20, 5, 4, -1, moves);
+        ByteBuffer buf = ByteBuffer.allocate(record.getEncodedLength());
+        record.encode(buf);
+        buf.flip();
+        assertSameRecord(record, GameRecord.decode(buf));
+    }
+
+    @Test
+    public void testDecode_NotARecord() {
+        ByteBuffer buf = ByteBuffer.wrap(new byte[] {0, (byte) GameRecord.SYNC, 1, 6, 7, 4, 2, 0, 0, 0});
+        buf.position(0);
+        try {
+            GameRecord.decode(buf);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(1, buf.position());
+        }
+    }
+
+    @Test
+    public void testDecode_CutShort() {
+        GameRecord record = new GameRecord(6, 7, 4, 2, 0, new byte[] {3, 3, 4, 4, 5, 5, 6});
+        ByteBuffer whole = ByteBuffer.allocate(record.getEncodedLength());
+        record.encode(whole);
+        for (int length = 0; length < whole.capacity(); length++) {
+            ByteBuffer buf = ByteBuffer.wrap(whole.array(), 0, length);
+            try {
+                GameRecord.decode(buf);
+                fail();
+            } catch (BufferUnderflowException e) {
+                assertEquals(0, buf.position());
+            }
+        }
+    }
+
+    @Test
+    public void testReader_TornRecordsAreSkipped() throws IOException {
+        Random rnd = new Random(7);
+        List<GameRecord> written = new ArrayList<>();
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            for (int g = 0; g < 50; g++) {
+                GameRecord record = GameRecord.of(playRandomGame(rnd));
+                writer.write(record);
+                written.add(record);
+            }
+        }
+        // the first half of a record whose write was cut short, followed by a record that was written whole
+        GameRecord torn = GameRecord.of(playRandomGame(rnd));
+        ByteBuffer tornBytes = ByteBuffer.allocate(torn.getEncodedLength());
+        torn.encode(tornBytes);
+        int tornLength = GameRecord.HEADER_BYTES + torn.getNumMoves() / 2;
+        Files.write(file, Arrays.copyOf(tornBytes.array(), tornLength), StandardOpenOption.APPEND);
+        GameRecord after = GameRecord.of(playRandomGame(rnd));
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.write(after);
+        }
+        written.add(after);
+        // and a torn record at the end of the file
+        Files.write(file, Arrays.copyOf(tornBytes.array(), tornLength), StandardOpenOption.APPEND);
+
+        List<GameRecord> read = new ArrayList<>();
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            GameRecord record;
+            while ((record = reader.next()) != null) {
+                read.add(record);
+            }
+            assertEquals(2L * tornLength, reader.getSkippedBytes());
+        }
+        assertEquals(written.size(), read.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertSameRecord(written.get(i), read.get(i));
+        }
+    }
+
+    @Test
+    public void testReader_EmptyFile() throws IOException {
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertNull(reader.next());
+            assertEquals(0, reader.getSkippedBytes());
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package cpsc2150.extendedConnectX.records;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class checks that a journal rebuilds the open games after a crash, including when the crash cut the
+ * last write short or a new segment could not be made, and that only one journal has a directory open.
+ *
+ * @version 2.0
+ */
+public class TestMoveJournal {
+
+    /**
+     * <p>
+     * The journal directory each test uses, deleted afterwards
+     * </p>
+     */
+    private Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("connectx-journal");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    /**
+     * <p>
+     * This writes two open games and one finished game to a new journal and closes it.
+     * </p>
+     *
+     * @return the ids of the two open games
+     * @throws IOException if the journal cannot be written
+     */
+    private long[] writeGames() throws IOException {
+        MoveJournal journal = new MoveJournal(dir);
+        long first = journal.begin(6, 7, 4, 2);
+        long second = journal.begin(8, 9, 5, 3);
+        long finished = journal.begin(6, 7, 4, 2);
+        journal.move(first, 3);
+        journal.move(first, 3);
+        journal.move(finished, 0);
+        journal.move(first, 4);
+        journal.end(finished);
+        journal.move(second, 8);
+        journal.close();
+        return new long[] {first, second};
+    }
+
+    /**
+     * <p>
+     * This maps a whole segment so that a test can change its bytes as a torn write would.
+     * </p>
+     *
+     * @param channel
+     *      The open segment file
+     * @return the whole segment
+     * @throws IOException if the segment cannot be mapped
+     */
+    private MappedByteBuffer mapSegment(FileChannel channel) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+    }
+
+    /**
+     * @return the newest segment file of the journal
+     * @throws IOException if the directory cannot be read
+     */
+    private Path newestSegment() throws IOException {
+        Path newest = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "journal-*.seg")) {
+            for (Path file : files) {
+                if (newest == null || file.getFileName().toString().compareTo(newest.getFileName().toString()) > 0) {
+                    newest = file;
+                }
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * <p>
+     * This finds where the entries of a segment end, and where the last of them starts.
+     * </p>
+     *
+     * @param segment
+     *      The segment
+     * @return the offset of the last entry and the offset after it
+     */
+    private int[] findEnd(ByteBuffer segment) {
+        int last = -1;
+        int pos = 0;
+        while (pos + 8 <= segment.limit() && segment.getInt(pos) > 0) {
+            last = pos;
+            pos += 8 + segment.getInt(pos);
+        }
+        return new int[] {last, pos};
+    }
+
+    /**
+     * <p>
+     * This checks the moves of an open game.
+     * </p>
+     *
+     * @param expected
+     *      The columns the game should hold
+     * @param actual
+     *      The game rebuilt from the journal
+     */
+    private void assertMoves(int[] expected, GameRecord actual) {
+        assertNotNull(actual);
+        assertEquals(expected.length, actual.getNumMoves());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual.getMove(i));
+        }
+    }
+
+    @Test
+    public void testReopen_OpenGamesAreRebuilt() throws IOException {
+        long[] ids = writeGames();
+        MoveJournal journal = new MoveJournal(dir);
+        Map<Long, GameRecord> open = journal.getOpenGames();
+        journal.close();
+
+        assertEquals(2, open.size());
+        assertMoves(new int[] {3, 3, 4}, open.get(ids[0]));
+        assertMoves(new int[] {8}, open.get(ids[1]));
+        assertEquals(8, open.get(ids[1]).getNumRows());
+        assertEquals(9, open.get(ids[1]).getNumColumns());
+        assertEquals(5, open.get(ids[1]).getNumToWin());
+        assertEquals(3, open.get(ids[1]).getNumPlayers());
+    }
+
+    @Test
+    public void testReopen_TornEntryAtTheEndIsIgnored() throws IOException {
+        long[] ids = writeGames();
+        // a MOVE entry whose length made it to the disk but whose body did not
+        try (FileChannel channel = FileChannel.open(newestSegment(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer segment = mapSegment(channel);
+            int end = findEnd(segment)[1];
+            segment.putInt(end, 10);
+            segment.putInt(end + 4, 0x12345678);
+            segment.put(end + 8, (byte) 2);
+            segment.force();
+        }
+
+        MoveJournal journal = new MoveJournal(dir);
+        Map<Long, GameRecord> open = journal.getOpenGames();
+        journal.close();
+
+        assertEquals(2, open.size());
+        assertMoves(new int[] {3, 3, 4}, open.get(ids[0]));
+        assertMoves(new int[] {8}, open.get(ids[1]));
+    }
+
+    @Test
+    public void testReopen_HalfWrittenLastMoveIsLost() throws IOException {
+        long[] ids = writeGames();
+        // the disk wrote the header of the last entry, the move of the second game, but not all of its body
+        try (FileChannel channel = FileChannel.open(newestSegment(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer segment = mapSegment(channel);
+            int last = findEnd(segment)[0];
+            segment.put(last + 8 + 9, (byte) 0);
+            segment.put(last + 8 + 5, (byte) 0x55);
+            segment.force();
+        }
+
+        MoveJournal journal = new MoveJournal(dir);
+        Map<Long, GameRecord> open = journal.getOpenGames();
+        journal.close();
+
+        assertEquals(2, open.size());
+        assertMoves(new int[] {3, 3, 4}, open.get(ids[0]));
+        assertMoves(new int[0], open.get(ids[1]));
+    }
+
+    @Test
+    public void testReopen_AppendsAfterATornWriteAreKept() throws IOException {
+        long[] ids = writeGames();
+        try (FileChannel channel = FileChannel.open(newestSegment(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer segment = mapSegment(channel);
+            int end = findEnd(segment)[1];
+            segment.putInt(end, 10);
+            segment.force();
+        }
+
+        MoveJournal journal = new MoveJournal(dir);
+        journal.move(ids[0], 5);
+        journal.end(ids[1]);
+        long third = journal.begin(6, 7, 4, 2);
+        journal.move(third, 6);
+        journal.close();
+
+        journal = new MoveJournal(dir);
+        Map<Long, GameRecord> open = journal.getOpenGames();
+        journal.close();
+
+        assertEquals(2, open.size());
+        assertMoves(new int[] {3, 3, 4, 5}, open.get(ids[0]));
+        assertNull(open.get(ids[1]));
+        assertMoves(new int[] {6}, open.get(third));
+        assertTrue(third > ids[1]);
+    }
+
+    @Test
+    public void testOpen_DirectoryInUse() throws IOException {
+        long[] ids = writeGames();
+        MoveJournal journal = new MoveJournal(dir);
+        try {
+            new MoveJournal(dir);
+            fail("a second journal opened the directory");
+        } catch (IOException e) {
+            // expected
+        }
+        // the failed open left the segments of the first alone
+        journal.move(ids[0], 6);
+        journal.close();
+
+        journal = new MoveJournal(dir);
+        Map<Long, GameRecord> open = journal.getOpenGames();
+        journal.close();
+        assertMoves(new int[] {3, 3, 4, 6}, open.get(ids[0]));
+        assertMoves(new int[] {8}, open.get(ids[1]));
+    }
+
+    @Test
+    public void testRotate_MovesAreNotRepeated() throws IOException {
+        Random rnd = new Random(24);
+        MoveJournal journal = new MoveJournal(dir);
+        Map<Long, List<Integer>> expected = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        // enough entries to fill more than two segments, each op as likely as another to start a new one
+        for (int i = 0; i < 3 * MoveJournal.SEGMENT_BYTES / 18; i++) {
+            if (ids.isEmpty() || rnd.nextInt(40) == 0) {
+                long id = journal.begin(6, 7, 4, 2);
+                ids.add(id);
+                expected.put(id, new ArrayList<>());
+            } else {
+                long id = ids.get(rnd.nextInt(ids.size()));
+                if (expected.get(id).size() == 200) {
+                    journal.end(id);
+                    ids.remove(id);
+                    expected.remove(id);
+                } else {
+                    int col = rnd.nextInt(7);
+                    journal.move(id, col);
+                    expected.get(id).add(col);
+                }
+            }
+        }
+        journal.close();
+
+        journal = new MoveJournal(dir);
+        Map<Long, GameRecord> open = journal.getOpenGames();
+        journal.close();
+        assertEquals(expected.size(), open.size());
+        for (Map.Entry<Long, List<Integer>> e : expected.entrySet()) {
+            assertMoves(e.getValue().stream().mapToInt(Integer::intValue).toArray(), open.get(e.getKey()));
+        }
+    }
+
+    @Test
+    public void testRotate_FailedAppendsAreNotKept() throws IOException {
+        MoveJournal journal = new MoveJournal(dir);
+        long first = journal.begin(6, 7, 4, 2);
+        journal.move(first, 2);
+        // the next two segments cannot be created while files already have their names
+        Files.createFile(dir.resolve(String.format("journal-%08d.seg", 2)));
+        Files.createFile(dir.resolve(String.format("journal-%08d.seg", 3)));
+        long last = first;
+        try {
+            while (true) {
+                last = journal.begin(6, 7, 4, 2);
+            }
+        } catch (IOException e) {
+            // the segment is full
+        }
+        assertNull(journal.getOpenGames().get(last + 1));
+        // a MOVE is shorter than a BEGIN, so a few may still fit before the next attempt at a segment
+        int moves = 1;
+        try {
+            while (true) {
+                journal.move(first, 3);
+                moves++;
+            }
+        } catch (IOException e) {
+            // the segment is still full
+        }
+        assertEquals(moves, journal.getOpenGames().get(first).getNumMoves());
+        // the journal goes on in the segment after those
+        long next = journal.begin(6, 7, 4, 2);
+        journal.close();
+
+        journal = new MoveJournal(dir);
+        Map<Long, GameRecord> open = journal.getOpenGames();
+        journal.close();
+        assertEquals(last + 1, open.size());
+        assertEquals(moves, open.get(first).getNumMoves());
+        assertTrue(open.containsKey(last));
+        assertNull(open.get(last + 1));
+        assertMoves(new int[0], open.get(next));
+    }
+}
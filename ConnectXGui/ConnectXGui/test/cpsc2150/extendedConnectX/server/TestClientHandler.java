@@ -0,0 +1,181 @@
+package cpsc2150.extendedConnectX.server;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class checks the line protocol of {@link ClientHandler} over real connections, and that a
+ * connection can only play its own seat.
+ *
+ * @version 2.0
+ */
+public class TestClientHandler {
+
+    /**
+     * <p>
+     * The games shared by every connection of a test
+     * </p>
+     */
+    private SessionRegistry registry;
+
+    /**
+     * <p>
+     * The socket the test connections are accepted on
+     * </p>
+     */
+    private ServerSocket server;
+
+    /**
+     * <p>
+     * The client ends of the connections, closed afterwards
+     * </p>
+     */
+    private final List<Socket> clients = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        registry = new SessionRegistry();
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (Socket s : clients) {
+            s.close();
+        }
+        server.close();
+    }
+
+    /**
+     * <p>
+     * This opens a connection served by its own handler.
+     * </p>
+     *
+     * @return the client end of the connection
+     * @throws IOException if the connection cannot be made
+     */
+    private Client connect() throws IOException {
+        Socket s = new Socket(server.getInetAddress(), server.getLocalPort());
+        clients.add(s);
+        Thread t = new Thread(new ClientHandler(server.accept(), registry));
+        t.setDaemon(true);
+        t.start();
+        return new Client(s);
+    }
+
+    @Test
+    public void testNew_BadSetupIsTurnedDown() throws IOException {
+        Client c = connect();
+        assertEquals("ERR Rows must be between 3 and 20", c.send("NEW 21 7 4 2"));
+        assertEquals("ERR bad arguments", c.send("NEW 6 7"));
+        assertEquals("ERR unknown command", c.send("PLAY 1 2"));
+    }
+
+    @Test
+    public void testMove_OnlyTheSeatWhoseTurnItIs() throws IOException {
+        Client x = connect();
+        Client o = connect();
+        String id = x.send("NEW 6 7 4 2").substring(3);
+
+        assertEquals("ERR not joined", o.send("MOVE " + id + " 0"));
+        assertEquals("OK O", o.send("JOIN " + id));
+        assertEquals("ERR already joined", o.send("JOIN " + id));
+        assertEquals("ERR game is full", connect().send("JOIN " + id));
+
+        assertEquals("ERR not your turn", o.send("MOVE " + id + " 0"));
+        assertEquals("MOVED X 0 3 TURN O", x.send("MOVE " + id + " 3"));
+        assertEquals("ERR not your turn", x.send("MOVE " + id + " 3"));
+        assertEquals("MOVED O 1 3 TURN X", o.send("MOVE " + id + " 3"));
+        assertEquals("TURN X", o.send("STATUS " + id));
+        assertEquals("ERR move not allowed", x.send("MOVE " + id + " 9"));
+    }
+
+    @Test
+    public void testMove_PlayToAWin() throws IOException {
+        Client x = connect();
+        Client o = connect();
+        String id = x.send("NEW 3 3 3 2").substring(3);
+        o.send("JOIN " + id);
+        x.send("MOVE " + id + " 0");
+        o.send("MOVE " + id + " 1");
+        x.send("MOVE " + id + " 0");
+        o.send("MOVE " + id + " 1");
+        assertEquals("MOVED X 2 0 WIN", x.send("MOVE " + id + " 0"));
+        assertEquals("WIN X", o.send("STATUS " + id));
+        assertEquals("ERR move not allowed", o.send("MOVE " + id + " 2"));
+    }
+
+    @Test
+    public void testClose_OnlyFromASeat() throws IOException {
+        Client x = connect();
+        Client other = connect();
+        String id = x.send("NEW 6 7 4 2").substring(3);
+        assertEquals("ERR not joined", other.send("CLOSE " + id));
+        assertEquals("OK", x.send("CLOSE " + id));
+        assertEquals("ERR no such game", x.send("STATUS " + id));
+        assertEquals(0, registry.size());
+    }
+
+    /**
+     * This class is the client end of a test connection.
+     *
+     * @version 2.0
+     */
+    private static final class Client {
+
+        /**
+         * <p>
+         * The replies from the server
+         * </p>
+         */
+        private final BufferedReader in;
+
+        /**
+         * <p>
+         * The commands to the server
+         * </p>
+         */
+        private final PrintWriter out;
+
+        /**
+         * <p>
+         * This wraps a connected socket.
+         * </p>
+         *
+         * @param s
+         *      The client end of a connection
+         * @throws IOException if the socket's streams cannot be opened
+         */
+        private Client(Socket s) throws IOException {
+            s.setSoTimeout(5000);
+            in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8), true);
+        }
+
+        /**
+         * <p>
+         * This sends one command and reads its one line reply.
+         * </p>
+         *
+         * @param command
+         *      The command line
+         * @return the reply
+         * @throws IOException if the connection fails
+         */
+        private String send(String command) throws IOException {
+            out.println(command);
+            return in.readLine();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package cpsc2150.extendedConnectX.server;
+
+import cpsc2150.extendedConnectX.controllers.*;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class checks that the registry hands out games and their seats, and drops the games nobody is
+ * using any more.
+ *
+ * @version 2.0
+ */
+public class TestSessionRegistry {
+
+    /**
+     * <p>
+     * One second, in nanoseconds
+     * </p>
+     */
+    private static final long SECOND = 1000000000L;
+
+    @Test
+    public void testCreate_GamesGetTheirOwnIds() {
+        SessionRegistry registry = new SessionRegistry();
+        long first = registry.create(6, 7, 4, 2);
+        long second = registry.create(3, 3, 3, 3);
+        assertNotEquals(first, second);
+        assertEquals(2, registry.size());
+        assertEquals(7, registry.get(first).getBoard().getNumColumns());
+        assertEquals(3, registry.get(second).getNumPlayers());
+        assertNull(registry.get(second + 1));
+    }
+
+    @Test
+    public void testJoin_SeatsGoInTurnOrderUntilFull() {
+        SessionRegistry registry = new SessionRegistry();
+        long id = registry.create(6, 7, 4, 3);
+        // the creator has seat 0
+        assertEquals(1, registry.join(id));
+        assertEquals(2, registry.join(id));
+        assertEquals(-1, registry.join(id));
+        assertEquals(-1, registry.join(id + 1));
+    }
+
+    @Test
+    public void testRemove_GameIsGone() {
+        SessionRegistry registry = new SessionRegistry();
+        long id = registry.create(6, 7, 4, 2);
+        assertTrue(registry.remove(id));
+        assertFalse(registry.remove(id));
+        assertNull(registry.get(id));
+        assertEquals(-1, registry.join(id));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testExpire_IdleAndFinishedGamesAreDropped() {
+        SessionRegistry registry = new SessionRegistry(10 * 1000, 2 * 1000);
+        long idle = registry.create(6, 7, 4, 2);
+        long finished = registry.create(3, 3, 3, 2);
+        GameSession session = registry.get(finished);
+        for (int col : new int[] {0, 1, 0, 1, 0}) {
+            session.play(col);
+        }
+        assertTrue(session.isOver());
+        long now = System.nanoTime();
+
+        assertEquals(0, registry.expire(now + SECOND));
+        assertEquals(1, registry.expire(now + 5 * SECOND));
+        assertNull(registry.get(finished));
+        assertNotNull(registry.get(idle));
+
+        // looking the game up again keeps it for another idle period
+        long used = System.nanoTime();
+        assertEquals(0, registry.expire(used + 9 * SECOND));
+        assertEquals(1, registry.expire(used + 11 * SECOND));
+        assertEquals(0, registry.size());
+    }
+}